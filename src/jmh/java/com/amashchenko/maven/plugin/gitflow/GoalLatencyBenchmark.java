@@ -0,0 +1,311 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * End-to-end latency of the plugin goals on a {@link SyntheticRepository}.
+ * Every iteration of a scenario works on a fresh clone of the generated
+ * repository with a bare <code>origin</code> accessed over
+ * <code>file://</code>, runs the start and the finish goal in a separate Maven
+ * process and reads the number of child processes from the
+ * <code>target/gitflow-report.json</code> file written by the goal.
+ *
+ * <p>
+ * Run with
+ * <code>mvn -Pbenchmark install -Djmh.skip=true -Dgoal.benchmark.skip=false -Dgoal.benchmark.args="--commits=10000 --modules=20"</code>.
+ * Options are <code>--commits</code>, <code>--refs</code>, <code>--tags</code>,
+ * <code>--files</code>, <code>--modules</code>, <code>--warmup</code>,
+ * <code>--iterations</code>, <code>--scenarios</code> (comma separated list of
+ * <code>feature</code>, <code>release</code> and <code>hotfix</code>) and
+ * <code>--mvnArgs</code> (additional arguments of the goals, by default
+ * <code>-DskipTestProject=true</code>).
+ * </p>
+ *
+ */
+public class GoalLatencyBenchmark {
+    private static final Pattern REPORT_PROCESSES = Pattern.compile("^  \"processes\": (\\d+),$",
+            Pattern.MULTILINE);
+    private static final Pattern REPORT_WALL_TIME = Pattern.compile("^  \"wallTimeMs\": (\\d+),$",
+            Pattern.MULTILINE);
+
+    private final Map<String, String> options = new LinkedHashMap<>();
+    private final Map<String, Samples> results = new LinkedHashMap<>();
+    private final SyntheticRepository repository = new SyntheticRepository();
+
+    private File dir;
+    private String plugin;
+    private List<String> mvn;
+
+    public static void main(final String[] args) throws Exception {
+        final GoalLatencyBenchmark benchmark = new GoalLatencyBenchmark();
+        benchmark.configure(args);
+        benchmark.run();
+    }
+
+    private void configure(final String[] args) {
+        options.put("commits", "1000");
+        options.put("refs", "100");
+        options.put("tags", "100");
+        options.put("files", "1000");
+        options.put("modules", "4");
+        options.put("warmup", "1");
+        options.put("iterations", "5");
+        options.put("scenarios", "feature,release,hotfix");
+        options.put("mvnArgs", "-DskipTestProject=true");
+        options.put("dir", "target/goal-benchmark");
+        options.put("mavenHome", "");
+        options.put("localRepository", "");
+        options.put("plugin", "");
+        for (String arg : args) {
+            final int i = arg.indexOf('=');
+            if (!arg.startsWith("--") || i < 0 || !options.containsKey(arg.substring(2, i))) {
+                throw new IllegalArgumentException("Unknown option '" + arg + "', supported options are "
+                        + options.keySet() + ".");
+            }
+            options.put(arg.substring(2, i), arg.substring(i + 1));
+        }
+
+        repository.setCommits(intOption("commits"));
+        repository.setRefs(intOption("refs"));
+        repository.setTags(intOption("tags"));
+        repository.setFiles(intOption("files"));
+        repository.setModules(intOption("modules"));
+
+        dir = new File(options.get("dir")).getAbsoluteFile();
+        plugin = options.get("plugin");
+        if (plugin.isEmpty()) {
+            throw new IllegalArgumentException("Plugin coordinates are required, e.g. --plugin="
+                    + "com.amashchenko.maven.plugin:gitflow-maven-plugin:1.16.0.");
+        }
+
+        mvn = new ArrayList<>();
+        final String mavenHome = options.get("mavenHome");
+        final boolean windows = System.getProperty("os.name").toLowerCase(Locale.ENGLISH).contains("win");
+        if (mavenHome.isEmpty()) {
+            mvn.add(windows ? "mvn.cmd" : "mvn");
+        } else {
+            mvn.add(new File(mavenHome, windows ? "bin/mvn.cmd" : "bin/mvn").getPath());
+        }
+        mvn.add("-B");
+        if (!options.get("localRepository").isEmpty()) {
+            mvn.add("-Dmaven.repo.local=" + options.get("localRepository"));
+        }
+        for (String arg : options.get("mvnArgs").trim().split("\\s+")) {
+            if (!arg.isEmpty()) {
+                mvn.add(arg);
+            }
+        }
+    }
+
+    private int intOption(final String name) {
+        return Integer.parseInt(options.get(name));
+    }
+
+    private void run() throws IOException {
+        FileUtils.deleteDirectory(dir);
+        if (!dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+
+        final File seed = new File(dir, "seed.git");
+        final long start = System.nanoTime();
+        repository.create(seed);
+        log("Generated repository with " + repository.getCommits() + " commits, " + repository.getRefs()
+                + " refs, " + repository.getTags() + " tags, " + repository.getFiles() + " files and "
+                + repository.getModules() + " modules in " + (System.nanoTime() - start) / 1000000 + " ms.");
+
+        final int warmup = intOption("warmup");
+        final int iterations = intOption("iterations");
+        for (String scenario : options.get("scenarios").split(",")) {
+            scenario = scenario.trim();
+            for (int i = 0; i < warmup + iterations; i++) {
+                log(scenario + (i < warmup ? " warmup " + (i + 1) : " iteration " + (i - warmup + 1)));
+                runScenario(seed, scenario, i >= warmup);
+            }
+        }
+
+        final List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-16s %5s %9s %9s %9s %9s %9s %10s", "Goal", "Runs", "p50 (ms)", "p90 (ms)",
+                "p99 (ms)", "max (ms)", "goal (ms)", "Processes"));
+        for (Map.Entry<String, Samples> entry : results.entrySet()) {
+            final Samples samples = entry.getValue();
+            lines.add(String.format("%-16s %5d %9d %9d %9d %9d %9d %10d", entry.getKey(), samples.wallTimes.size(),
+                    percentile(samples.wallTimes, 50), percentile(samples.wallTimes, 90),
+                    percentile(samples.wallTimes, 99), percentile(samples.wallTimes, 100),
+                    percentile(samples.goalTimes, 50), percentile(samples.processes, 50)));
+        }
+        for (String line : lines) {
+            log(line);
+        }
+
+        final File json = new File(dir, "goal-benchmark.json");
+        try (Writer writer = Files.newBufferedWriter(json.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        }
+        log("Results written to " + json);
+    }
+
+    private void runScenario(final File seed, final String scenario, final boolean measure) throws IOException {
+        final File iterationDir = new File(dir, "iteration");
+        FileUtils.deleteDirectory(iterationDir);
+        if (!iterationDir.mkdirs()) {
+            throw new IOException("Cannot create directory " + iterationDir);
+        }
+        final File origin = new File(iterationDir, "origin.git");
+        final File work = new File(iterationDir, "work");
+        SyntheticRepository.exec(iterationDir, null, "git", "clone", "-q", "--mirror", seed.getPath(),
+                origin.getName());
+        SyntheticRepository.exec(iterationDir, null, "git", "clone", "-q", "-b", "develop", origin.getPath(),
+                work.getName());
+        SyntheticRepository.exec(work, null, "git", "remote", "set-url", "origin", origin.toPath().toUri().toString());
+        SyntheticRepository.exec(work, null, "git", "branch", "master", "origin/master");
+        SyntheticRepository.exec(work, null, "git", "config", "user.name", "Synthetic");
+        SyntheticRepository.exec(work, null, "git", "config", "user.email", "synthetic@example.com");
+
+        if ("feature".equals(scenario)) {
+            goal(work, measure, "feature-start", "-DfeatureName=benchmark");
+            change(work);
+            goal(work, measure, "feature-finish", "-DfeatureName=benchmark");
+        } else if ("release".equals(scenario)) {
+            goal(work, measure, "release-start");
+            goal(work, measure, "release-finish");
+        } else if ("hotfix".equals(scenario)) {
+            SyntheticRepository.exec(work, null, "git", "checkout", "-q", "master");
+            goal(work, measure, "hotfix-start", "-DhotfixVersion=1.0.1");
+            change(work);
+            goal(work, measure, "hotfix-finish", "-DhotfixVersion=1.0.1");
+        } else {
+            throw new IllegalArgumentException("Unknown scenario '" + scenario
+                    + "', supported scenarios are feature, release and hotfix.");
+        }
+    }
+
+    private void change(final File work) throws IOException {
+        final File file = new File(work, "CHANGES.txt");
+        Files.write(file.toPath(), ("change " + System.nanoTime() + "\n").getBytes(StandardCharsets.UTF_8));
+        SyntheticRepository.exec(work, null, "git", "add", file.getName());
+        SyntheticRepository.exec(work, null, "git", "commit", "-q", "-m", "Change");
+    }
+
+    private void goal(final File work, final boolean measure, final String goal, final String... args)
+            throws IOException {
+        final List<String> command = new ArrayList<>(mvn);
+        command.add(plugin + ":" + goal);
+        command.addAll(Arrays.asList(args));
+
+        final File report = new File(work, "target/gitflow-report.json");
+        if (report.exists()) {
+            Files.delete(report.toPath());
+        }
+
+        final long start = System.nanoTime();
+        SyntheticRepository.exec(work, null, command);
+        final long wallTime = (System.nanoTime() - start) / 1000000;
+
+        if (measure) {
+            Samples samples = results.get(goal);
+            if (samples == null) {
+                samples = new Samples();
+                results.put(goal, samples);
+            }
+            samples.wallTimes.add(wallTime);
+            if (report.exists()) {
+                final String json = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+                samples.processes.add(reportValue(REPORT_PROCESSES, json));
+                samples.goalTimes.add(reportValue(REPORT_WALL_TIME, json));
+            }
+        }
+    }
+
+    private static long reportValue(final Pattern pattern, final String json) {
+        final Matcher m = pattern.matcher(json);
+        return m.find() ? Long.parseLong(m.group(1)) : -1;
+    }
+
+    /**
+     * Nearest-rank percentile.
+     */
+    static long percentile(final List<Long> values, final int percentile) {
+        if (values.isEmpty()) {
+            return -1;
+        }
+        final List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        final int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(rank, 1) - 1);
+    }
+
+    private String toJson() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"options\": {");
+        String separator = "\n";
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            sb.append(separator).append("    \"").append(option.getKey()).append("\": \"")
+                    .append(option.getValue().replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            separator = ",\n";
+        }
+        sb.append("\n  },\n");
+        sb.append("  \"goals\": {");
+        separator = "\n";
+        for (Map.Entry<String, Samples> entry : results.entrySet()) {
+            final Samples samples = entry.getValue();
+            sb.append(separator).append("    \"").append(entry.getKey()).append("\": {");
+            sb.append("\"p50\": ").append(percentile(samples.wallTimes, 50));
+            sb.append(", \"p90\": ").append(percentile(samples.wallTimes, 90));
+            sb.append(", \"p99\": ").append(percentile(samples.wallTimes, 99));
+            sb.append(", \"max\": ").append(percentile(samples.wallTimes, 100));
+            sb.append(", \"wallTimesMs\": ").append(samples.wallTimes);
+            sb.append(", \"goalTimesMs\": ").append(samples.goalTimes);
+            sb.append(", \"processes\": ").append(samples.processes);
+            sb.append('}');
+            separator = ",\n";
+        }
+        sb.append("\n  }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static void log(final String message) {
+        System.out.println("[goal-benchmark] " + message);
+    }
+
+    private static class Samples {
+        /** Wall time of the Maven process. */
+        private final List<Long> wallTimes = new ArrayList<>();
+        /** Wall time of the goal from the report. */
+        private final List<Long> goalTimes = new ArrayList<>();
+        /** Child processes from the report. */
+        private final List<Long> processes = new ArrayList<>();
+    }
+}
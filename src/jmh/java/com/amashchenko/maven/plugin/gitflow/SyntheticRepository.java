@@ -0,0 +1,283 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Generates git repository with Maven reactor of the given size. History is
+ * written with <code>git fast-import</code>, so even large repositories are
+ * created in seconds.
+ *
+ * <p>
+ * The <code>master</code> branch has the <code>1.0.0</code> release version,
+ * the <code>develop</code> branch is one commit ahead with the
+ * <code>1.1.0-SNAPSHOT</code> version. Additional branches and tags are named
+ * <code>synthetic/N</code> so they never clash with the git flow ones.
+ * </p>
+ *
+ */
+public class SyntheticRepository {
+    static final String RELEASE_VERSION = "1.0.0";
+    static final String DEVELOP_VERSION = "1.1.0-SNAPSHOT";
+
+    private static final long EPOCH_SECONDS = 1577836800L;
+
+    private int commits = 1000;
+    private int refs = 100;
+    private int tags = 100;
+    private int files = 1000;
+    private int modules = 4;
+
+    /**
+     * Creates bare repository.
+     *
+     * @param dir
+     *            Directory of the bare repository, must not exist.
+     * @throws IOException
+     *             If repository cannot be created.
+     */
+    public void create(final File dir) throws IOException {
+        if (dir.exists()) {
+            throw new IOException("Directory " + dir + " already exists.");
+        }
+        exec(dir.getParentFile(), null, "git", "init", "-q", "--bare", dir.getName());
+
+        final File input = new File(dir, "fast-import.txt");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(input.toPath()))) {
+            writeHistory(out);
+        }
+        exec(dir, input, "git", "fast-import", "--quiet");
+        Files.delete(input.toPath());
+        exec(dir, null, "git", "symbolic-ref", "HEAD", "refs/heads/develop");
+    }
+
+    private void writeHistory(final OutputStream out) throws IOException {
+        final int historyCommits = Math.max(commits - 1, 1);
+
+        // initial commit with the whole tree
+        command(out, "commit refs/heads/master");
+        command(out, "mark :1");
+        committer(out, 0);
+        data(out, "Initial commit");
+        command(out, "deleteall");
+        file(out, ".gitignore", "target/\n");
+        file(out, "pom.xml", parentPom(RELEASE_VERSION));
+        for (int m = 0; m < modules; m++) {
+            file(out, module(m) + "/pom.xml", modulePom(m, RELEASE_VERSION));
+        }
+        for (int f = 0; f < files; f++) {
+            file(out, filePath(f), "file " + f + "\n");
+        }
+        command(out, "");
+
+        for (int c = 1; c < historyCommits; c++) {
+            command(out, "commit refs/heads/master");
+            command(out, "mark :" + (c + 1));
+            committer(out, c);
+            data(out, "Change " + c);
+            if (files > 0) {
+                final int f = c % files;
+                file(out, filePath(f), "file " + f + "\nrevision " + c + "\n");
+            }
+            command(out, "");
+        }
+
+        command(out, "commit refs/heads/develop");
+        command(out, "mark :" + (historyCommits + 1));
+        committer(out, historyCommits);
+        data(out, "Update versions for the next development iteration");
+        command(out, "from :" + historyCommits);
+        file(out, "pom.xml", parentPom(DEVELOP_VERSION));
+        for (int m = 0; m < modules; m++) {
+            file(out, module(m) + "/pom.xml", modulePom(m, DEVELOP_VERSION));
+        }
+        command(out, "");
+
+        for (int r = 0; r < refs; r++) {
+            command(out, "reset refs/heads/synthetic/" + r);
+            command(out, "from :" + (1 + r % historyCommits));
+            command(out, "");
+        }
+        for (int t = 0; t < tags; t++) {
+            command(out, "reset refs/tags/synthetic/" + t);
+            command(out, "from :" + (1 + t % historyCommits));
+            command(out, "");
+        }
+    }
+
+    private String module(final int m) {
+        return "module-" + m;
+    }
+
+    private String filePath(final int f) {
+        if (modules == 0) {
+            return "src/main/resources/data/file-" + f + ".txt";
+        }
+        return module(f % modules) + "/src/main/resources/data/file-" + f + ".txt";
+    }
+
+    private String parentPom(final String version) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        sb.append("    <modelVersion>4.0.0</modelVersion>\n");
+        sb.append("    <groupId>synthetic</groupId>\n");
+        sb.append("    <artifactId>parent</artifactId>\n");
+        sb.append("    <version>").append(version).append("</version>\n");
+        sb.append("    <packaging>").append(modules == 0 ? "jar" : "pom").append("</packaging>\n");
+        if (modules > 0) {
+            sb.append("    <modules>\n");
+            for (int m = 0; m < modules; m++) {
+                sb.append("        <module>").append(module(m)).append("</module>\n");
+            }
+            sb.append("    </modules>\n");
+        }
+        sb.append("</project>\n");
+        return sb.toString();
+    }
+
+    private String modulePom(final int m, final String version) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        sb.append("    <modelVersion>4.0.0</modelVersion>\n");
+        sb.append("    <parent>\n");
+        sb.append("        <groupId>synthetic</groupId>\n");
+        sb.append("        <artifactId>parent</artifactId>\n");
+        sb.append("        <version>").append(version).append("</version>\n");
+        sb.append("    </parent>\n");
+        sb.append("    <artifactId>").append(module(m)).append("</artifactId>\n");
+        if (m > 0) {
+            // chain of dependencies, like in a typical layered reactor
+            sb.append("    <dependencies>\n");
+            sb.append("        <dependency>\n");
+            sb.append("            <groupId>synthetic</groupId>\n");
+            sb.append("            <artifactId>").append(module(m - 1)).append("</artifactId>\n");
+            sb.append("            <version>${project.version}</version>\n");
+            sb.append("        </dependency>\n");
+            sb.append("    </dependencies>\n");
+        }
+        sb.append("</project>\n");
+        return sb.toString();
+    }
+
+    private static void command(final OutputStream out, final String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+
+    private static void committer(final OutputStream out, final int commit) throws IOException {
+        command(out, "committer Synthetic <synthetic@example.com> " + (EPOCH_SECONDS + commit * 60L) + " +0000");
+    }
+
+    private static void data(final OutputStream out, final String data) throws IOException {
+        final byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        command(out, "data " + bytes.length);
+        out.write(bytes);
+        out.write('\n');
+    }
+
+    private static void file(final OutputStream out, final String path, final String content) throws IOException {
+        command(out, "M 100644 inline " + path);
+        data(out, content);
+    }
+
+    /**
+     * Executes command and fails if it returns non zero exit code.
+     *
+     * @param dir
+     *            Working directory.
+     * @param input
+     *            File to redirect to the standard input or <code>null</code>.
+     * @param command
+     *            Command and its arguments.
+     * @throws IOException
+     *             If command fails.
+     */
+    static void exec(final File dir, final File input, final String... command) throws IOException {
+        exec(dir, input, Arrays.asList(command));
+    }
+
+    static void exec(final File dir, final File input, final List<String> command) throws IOException {
+        final File log = File.createTempFile("synthetic", ".log");
+        try {
+            final ProcessBuilder pb = new ProcessBuilder(new ArrayList<>(command)).directory(dir)
+                    .redirectErrorStream(true).redirectOutput(log);
+            if (input != null) {
+                pb.redirectInput(input);
+            }
+            final int exitCode = pb.start().waitFor();
+            if (exitCode != 0) {
+                throw new IOException("Command " + command + " in " + dir + " failed with exit code " + exitCode
+                        + ":\n" + new String(Files.readAllBytes(log.toPath()), StandardCharsets.UTF_8));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Command " + command + " was interrupted.", e);
+        } finally {
+            Files.delete(log.toPath());
+        }
+    }
+
+    public int getCommits() {
+        return commits;
+    }
+
+    public void setCommits(int commits) {
+        this.commits = commits;
+    }
+
+    public int getRefs() {
+        return refs;
+    }
+
+    public void setRefs(int refs) {
+        this.refs = refs;
+    }
+
+    public int getTags() {
+        return tags;
+    }
+
+    public void setTags(int tags) {
+        this.tags = tags;
+    }
+
+    public int getFiles() {
+        return files;
+    }
+
+    public void setFiles(int files) {
+        this.files = files;
+    }
+
+    public int getModules() {
+        return modules;
+    }
+
+    public void setModules(int modules) {
+        this.modules = modules;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.shared.release.versions.VersionParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the {@link GitFlowVersionInfo} methods. Every invocation
+ * processes the whole corpus of versions, so the score is in corpora per
+ * second.
+ *
+ * <p>
+ * Run with <code>mvn -Pbenchmark verify</code>.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VersionInfoBenchmark {
+
+    /** Name of the version corpus. */
+    @Param({ "plain", "qualifier", "digits", "build" })
+    public String corpus;
+
+    private String[] versions;
+    private GitFlowVersionInfo[] versionInfos;
+
+    @Setup
+    public void setUp() throws VersionParseException {
+        versions = corpus(corpus);
+        versionInfos = new GitFlowVersionInfo[versions.length];
+        for (int i = 0; i < versions.length; i++) {
+            versionInfos[i] = new GitFlowVersionInfo(versions[i]);
+        }
+    }
+
+    /**
+     * Creates corpus of versions.
+     *
+     * @param name
+     *            Name of the corpus.
+     * @return Versions.
+     */
+    static String[] corpus(final String name) {
+        final String[] versions = new String[256];
+        for (int i = 0; i < versions.length; i++) {
+            final int major = i % 7;
+            final int minor = i % 13;
+            final int patch = i % 31;
+            final String snapshot = i % 2 == 0 ? "-SNAPSHOT" : "";
+            if ("plain".equals(name)) {
+                versions[i] = major + "." + minor + "." + patch + snapshot;
+            } else if ("qualifier".equals(name)) {
+                final String[] qualifiers = { "-alpha-1", "-beta-2", "-rc-3", "-RC1", "-M4", "-Final", "-jre",
+                        "-feature-login" };
+                versions[i] = major + "." + minor + "." + patch + qualifiers[i % qualifiers.length] + snapshot;
+            } else if ("digits".equals(name)) {
+                final StringBuilder sb = new StringBuilder().append(major);
+                for (int j = 0; j < 3 + i % 6; j++) {
+                    sb.append('.').append((i + j) % 17);
+                }
+                versions[i] = sb.append(snapshot).toString();
+            } else if ("build".equals(name)) {
+                final String[] builds = { "-" + (100 + i), "." + (20190903 + i) + "-r", "-b" + i, "_" + i };
+                versions[i] = major + "." + minor + "." + patch + builds[i % builds.length] + snapshot;
+            } else {
+                throw new IllegalArgumentException("Unknown corpus '" + name + "'.");
+            }
+        }
+        return versions;
+    }
+
+    @Benchmark
+    public void parse(final Blackhole blackhole) throws VersionParseException {
+        for (String version : versions) {
+            blackhole.consume(new GitFlowVersionInfo(version));
+        }
+    }
+
+    @Benchmark
+    public void isValidVersion(final Blackhole blackhole) {
+        for (String version : versions) {
+            blackhole.consume(GitFlowVersionInfo.isValidVersion(version));
+        }
+    }
+
+    @Benchmark
+    public void nextSnapshotVersion(final Blackhole blackhole) {
+        for (GitFlowVersionInfo versionInfo : versionInfos) {
+            blackhole.consume(versionInfo.nextSnapshotVersion());
+        }
+    }
+
+    @Benchmark
+    public void nextSnapshotVersionIndex(final Blackhole blackhole) {
+        for (GitFlowVersionInfo versionInfo : versionInfos) {
+            blackhole.consume(versionInfo.nextSnapshotVersion(1));
+        }
+    }
+
+    @Benchmark
+    public void featureVersion(final Blackhole blackhole) {
+        for (GitFlowVersionInfo versionInfo : versionInfos) {
+            blackhole.consume(versionInfo.featureVersion("login"));
+        }
+    }
+
+    @Benchmark
+    public void hotfixVersion(final Blackhole blackhole) {
+        for (GitFlowVersionInfo versionInfo : versionInfos) {
+            blackhole.consume(versionInfo.hotfixVersion(true));
+        }
+    }
+
+    @Benchmark
+    public void paddedVersion(final Blackhole blackhole) throws VersionParseException {
+        for (GitFlowVersionInfo versionInfo : versionInfos) {
+            blackhole.consume(versionInfo.getPaddedVersion(5));
+        }
+    }
+
+    @Benchmark
+    public void digitsVersionInfo(final Blackhole blackhole) throws VersionParseException {
+        for (GitFlowVersionInfo versionInfo : versionInfos) {
+            blackhole.consume(versionInfo.digitsVersionInfo());
+        }
+    }
+
+    /**
+     * Parses and computes next versions the same way the goals do.
+     *
+     * @param blackhole
+     *            Blackhole.
+     * @throws VersionParseException
+     *             If version cannot be parsed.
+     */
+    @Benchmark
+    public void parseAndNextSnapshotVersion(final Blackhole blackhole) throws VersionParseException {
+        for (String version : versions) {
+            blackhole.consume(new GitFlowVersionInfo(version).nextSnapshotVersion());
+        }
+    }
+}
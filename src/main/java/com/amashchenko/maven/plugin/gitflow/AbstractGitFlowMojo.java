@@ -17,14 +17,22 @@ package com.amashchenko.maven.plugin.gitflow;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.ArtifactUtils;
+import org.apache.maven.Maven;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionResult;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.LegacySupport;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuilder;
+import org.apache.maven.project.ProjectBuildingRequest;
 import org.apache.maven.project.ProjectBuildingResult;
 import org.apache.maven.settings.Settings;
 import org.codehaus.plexus.components.interactivity.Prompter;
@@ -32,15 +40,36 @@ import org.codehaus.plexus.util.StringUtils;
 import org.codehaus.plexus.util.cli.CommandLineException;
 import org.codehaus.plexus.util.cli.CommandLineUtils;
 import org.codehaus.plexus.util.cli.Commandline;
+import org.codehaus.plexus.util.cli.StreamConsumer;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 /**
@@ -63,6 +92,24 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
     /** Success exit code. */
     private static final int SUCCESS_EXIT_CODE = 0;
 
+    /** Git notes ref marking trees which were tested successfully. */
+    private static final String TESTED_NOTES_REF = "refs/notes/gitflow-tested";
+
+    /** Prefix of the line of tested note with the key of the tested arguments. */
+    private static final String TESTED_NOTE_KEY = "Key: ";
+
+    /** Maven invocation testing the project. */
+    private static final String MVN_TEST = "test";
+    /** Maven invocation installing the project. */
+    private static final String MVN_INSTALL = "install";
+    /** Maven invocation updating versions. */
+    private static final String MVN_VERSIONS = "versions";
+    /** Maven invocation running custom goals. */
+    private static final String MVN_GOALS = "goals";
+
+    /** Pattern of the Maven build threads argument. */
+    private static final Pattern THREADS_PATTERN = Pattern.compile("(^|\\s)(-T\\s*|--threads[=\\s]\\s*)[^\\s-]\\S*");
+
     /** Pattern of disallowed characters in Maven commands. */
     private static final Pattern MAVEN_DISALLOWED_PATTERN = Pattern
             .compile("[&|;]");
@@ -72,6 +119,18 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
     /** Command line for Maven executable. */
     private final Commandline cmdMvn = new Commandline();
 
+    /** Refs of the repository, loaded on demand. */
+    private final RefSnapshot refSnapshot = new RefSnapshot();
+
+    /** Cache of reloaded projects. */
+    private final ProjectModelCache projectCache = new ProjectModelCache();
+
+    /** Tags created during this execution. */
+    private final List<String> createdTags = new ArrayList<>();
+
+    /** Git backend, initialized on demand. */
+    private GitBackend backend;
+
     /** Git flow configuration. */
     @Parameter(defaultValue = "${gitFlowConfig}")
     protected GitFlowConfig gitFlowConfig;
@@ -124,6 +183,57 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
     @Parameter(property = "argLine")
     private String argLine;
 
+    /**
+     * Additional command line arguments of the Maven command testing the
+     * project, appended to <code>argLine</code>.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "testArgLine")
+    private String testArgLine;
+
+    /**
+     * Additional command line arguments of the Maven command installing the
+     * project, appended to <code>argLine</code>.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "installArgLine")
+    private String installArgLine;
+
+    /**
+     * Additional command line arguments of the Maven commands updating
+     * versions, appended to <code>argLine</code>.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "versionsArgLine")
+    private String versionsArgLine;
+
+    /**
+     * Additional command line arguments of the Maven commands running custom
+     * goals, appended to <code>argLine</code>.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "goalsArgLine")
+    private String goalsArgLine;
+
+    /**
+     * Number of threads of the Maven commands testing and installing the
+     * project and running custom goals, i.e. the <code>-T</code> argument.
+     * <code>auto</code> uses the number of available processors, but not more
+     * than the number of projects in the reactor. Any value accepted by
+     * <code>-T</code>, e.g. <code>4</code> or <code>1C</code>, can be used,
+     * blank or <code>1</code> builds with a single thread. Not used if
+     * <code>-T</code> is already in the arguments. Versions are always
+     * updated with a single thread.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "buildThreads", defaultValue = "auto")
+    private String buildThreads = "auto";
+
     /**
      * Whether to make a GPG-signed commit.
      *
@@ -171,19 +281,221 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      */
     @Parameter(property = "mvnExecutable")
     private String mvnExecutable;
+
+    /**
+     * Maven backend of the Maven commands. Either <code>mvn</code> to start a
+     * new Maven process for every command or <code>mvnd</code> to run them in
+     * the Maven daemon, which keeps warm JVMs with loaded plugins between the
+     * commands and goals. Falls back to <code>mvn</code> if the
+     * <code>mvnd</code> executable is not found on the <code>PATH</code> or
+     * its client fails to connect to the daemon. Not used if
+     * <code>mvnExecutable</code> is set, daemon is used without fallback if
+     * its name starts with <code>mvnd</code>.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "mavenBackend", defaultValue = "mvn")
+    private String mavenBackend = "mvn";
+
+    /** Whether Maven commands are executed by the Maven daemon. */
+    private boolean mvnDaemon;
+
     /**
      * The path to the Git executable. Defaults to "git".
      */
     @Parameter(property = "gitExecutable")
     private String gitExecutable;
 
+    /**
+     * Git backend to use. Either <code>cli</code> to run the Git executable for
+     * every operation or <code>jgit</code> to read refs, commit, merge and tag
+     * in-process with JGit. Remote operations, GPG-signing and rebase are
+     * always done with the Git executable.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "gitBackend", defaultValue = "cli")
+    private String gitBackend = "cli";
+
+    /**
+     * How to update versions in pom.xml files. Either <code>plugin</code> to
+     * run versions-maven-plugin in a separate Maven process or
+     * <code>inprocess</code> to rewrite pom.xml files of the reactor directly.
+     * Ignored for Tycho builds.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "versionUpdater", defaultValue = "plugin")
+    private String versionUpdater = "plugin";
+
+    /**
+     * How to execute Maven goals of the pre/post goals parameters. Either
+     * <code>fork</code> to run them in a separate Maven process or
+     * <code>session</code> to run them in the current Maven JVM reusing loaded
+     * plugins and resolved dependencies. Goals with command line options other
+     * than <code>-D</code>, <code>-P</code>, <code>-o</code> and
+     * <code>-B</code> are always executed in a separate process.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "goalsExecution", defaultValue = "fork")
+    private String goalsExecution = "fork";
+
+    /**
+     * Comma separated list of goals or phases which are always executed in a
+     * separate Maven process when {@link #goalsExecution} is
+     * <code>session</code>, e.g. <code>deploy,site:deploy</code>.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "forkedGoals")
+    private String forkedGoals;
+
+    /**
+     * Number of last output lines of Maven commands kept in memory for error
+     * reporting.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "outputTailLines", defaultValue = "500")
+    private int outputTailLines = 500;
+
+    /**
+     * Whether to write the full output of every Maven command to a file in
+     * <code>target/gitflow</code> directory.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "spillOutput", defaultValue = "false")
+    private boolean spillOutput = false;
+
+    /** Number of executed Maven commands, used in output file names. */
+    private int mvnCommandCount;
+
+    /** Whether branches are checked out in separate worktrees. */
+    private boolean worktrees;
+
+    /** Top level directory of the main working tree. */
+    private File mainTopLevel;
+
+    /** Directory to create worktrees in. */
+    private File worktreesRoot;
+
+    /** Branch checked out in the main working tree. */
+    private String mainBranch;
+
+    /** Worktrees created by this execution by branch name. */
+    private final Map<String, File> worktreeDirs = new LinkedHashMap<>();
+
+    /** Branch of the active worktree or <code>null</code> for the main one. */
+    private String activeBranch;
+
+    /**
+     * Whether to write timing of the goal steps, git and Maven commands to the
+     * <code>target/gitflow-report.json</code> file and log the summary.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "performanceReport", defaultValue = "true")
+    private boolean performanceReport = true;
+
+    /** Timing spans of this execution, created on demand. */
+    private PerformanceReport report;
+
+    /**
+     * Whether to only plan the goal. Git and Maven commands which change the
+     * repository, e.g. checkout, commit, merge, tag, fetch and push, and
+     * updates of versions, tests and goals are not executed but printed and
+     * written to the <code>target/gitflow-plan.json</code> file. Read-only git
+     * commands are executed. Always uses the <code>cli</code> git backend and
+     * no worktrees.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "dryRun", defaultValue = "false")
+    private boolean dryRun = false;
+
+    /** Actions planned in dry run mode, created on demand. */
+    private ExecutionPlan plan;
+
+    /**
+     * Whether to skip testing of the project when the same sources, i.e. the
+     * git tree of <code>HEAD</code>, were already tested successfully with the
+     * same Maven arguments. Successful test runs are recorded under
+     * <code>.git/gitflow/test-cache</code>. Changes outside of the sources,
+     * e.g. updated SNAPSHOT dependencies or activated profiles, are not
+     * detected.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "testCache", defaultValue = "false")
+    private boolean testCache = false;
+
+    /**
+     * Whether to share successful test runs through git notes. Tested trees
+     * are marked with notes under <code>refs/notes/gitflow-tested</code>,
+     * which are fetched with the branches and pushed after them. Testing is
+     * skipped if the tree of <code>HEAD</code> has a note, e.g. added by CI.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "shareTestResults", defaultValue = "false")
+    private boolean shareTestResults = false;
+
+    /**
+     * Comma separated beginnings of tested notes which are trusted without
+     * checking the tested arguments, e.g. <code>CI build</code> for notes
+     * added by CI. Other notes are trusted only if they were written after a
+     * test run with the same arguments.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "trustedTestedNotes")
+    private String trustedTestedNotes;
+
+    /** Whether tested notes were added by this execution and not pushed. */
+    private boolean testedNotesChanged;
+
+    /**
+     * Whether to install the project without <code>clean</code> and tests
+     * if it was tested by the goal and the sources differ only in versions
+     * since then. The build outputs of the test run are reused, so files
+     * named with the old version stay in <code>target</code> directories.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "reuseTestBuild", defaultValue = "false")
+    private boolean reuseTestBuild = false;
+
+    /** Tree id of the sources built by the last test run, if outputs are reusable. */
+    private String testBuildTree;
+
+    /** Directory of the last test run. */
+    private File testBuildDir;
+
+    /** Journal of the completed steps, <code>null</code> if not used. */
+    private GitFlowJournal journal;
+
+    /** Git directory shared by all worktrees, resolved on demand. */
+    private File gitCommonDir;
+
     /** Maven session. */
     @Parameter(defaultValue = "${session}", readonly = true)
     protected MavenSession mavenSession;
 
+    /** Mojo execution. */
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+    private MojoExecution mojoExecution;
+
     @Component
     protected ProjectBuilder projectBuilder;
 
+    @Component
+    private Maven maven;
+
+    @Component
+    private LegacySupport legacySupport;
+
     /** Default prompter. */
     @Component
     protected Prompter prompter;
@@ -191,6 +503,32 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
     @Parameter(defaultValue = "${settings}", readonly = true)
     protected Settings settings;
 
+    /**
+     * Checks that the Maven daemon client can connect to the daemon, starting
+     * it if needed.
+     *
+     * @return <code>true</code> if the client exited with the success status.
+     */
+    private boolean connectMvnDaemon() {
+        final Commandline cmd = new Commandline();
+        cmd.setExecutable("mvnd");
+        cmd.addArguments(new String[] { "--version" });
+        final TailStreamConsumer out = new TailStreamConsumer(getLog(), false, outputTailLines, null);
+        try {
+            final int exitCode = CommandLineUtils.executeCommandLine(cmd, out, out);
+            if (exitCode == SUCCESS_EXIT_CODE) {
+                return true;
+            }
+            getLog().warn("Maven daemon client failed to connect to the daemon with exit code " + exitCode
+                    + ", using 'mvn'. " + StringUtils.strip(out.getOutput()));
+        } catch (CommandLineException e) {
+            getLog().warn("Maven daemon client failed to start, using 'mvn'. " + e.getMessage());
+        } finally {
+            out.close();
+        }
+        return false;
+    }
+
     /**
      * Initializes command line executables.
      *
@@ -199,7 +537,15 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
         if (StringUtils.isBlank(cmdMvn.getExecutable())) {
             if (StringUtils.isBlank(mvnExecutable)) {
                 mvnExecutable = "mvn";
+                if ("mvnd".equalsIgnoreCase(mavenBackend)) {
+                    if (findOnPath(System.getenv("PATH"), "mvnd") == null) {
+                        getLog().warn("Maven daemon executable 'mvnd' is not found on the PATH, using 'mvn'.");
+                    } else if (connectMvnDaemon()) {
+                        mvnExecutable = "mvnd";
+                    }
+                }
             }
+            mvnDaemon = new File(mvnExecutable).getName().toLowerCase(Locale.ENGLISH).startsWith("mvnd");
             cmdMvn.setExecutable(mvnExecutable);
         }
         if (StringUtils.isBlank(cmdGit.getExecutable())) {
@@ -210,6 +556,58 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
         }
     }
 
+    /**
+     * Finds executable on the path.
+     *
+     * @param path
+     *            Value of the <code>PATH</code> environment variable.
+     * @param name
+     *            Name of the executable without extension.
+     * @return Executable file or <code>null</code> if not found.
+     */
+    static File findOnPath(final String path, final String name) {
+        if (StringUtils.isBlank(path)) {
+            return null;
+        }
+        for (String dir : path.split(Pattern.quote(File.pathSeparator))) {
+            if (StringUtils.isBlank(dir)) {
+                continue;
+            }
+            for (String extension : new String[] { "", ".cmd", ".exe" }) {
+                final File file = new File(dir, name + extension);
+                if (file.isFile() && file.canExecute()) {
+                    return file;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets configured git backend.
+     *
+     * @return Git backend.
+     * @throws MojoFailureException
+     *             If configured backend is unknown.
+     */
+    private GitBackend getGitBackend() throws MojoFailureException {
+        if (backend == null) {
+            final GitBackend cli = new CliGitBackend(this);
+            if (StringUtils.isBlank(gitBackend) || "cli".equalsIgnoreCase(gitBackend)) {
+                backend = cli;
+            } else if (dryRun && "jgit".equalsIgnoreCase(gitBackend)) {
+                // JGit changes the repository in-process
+                getLog().info("Using 'cli' git backend in dry run mode.");
+                backend = cli;
+            } else if ("jgit".equalsIgnoreCase(gitBackend)) {
+                backend = new JGitBackend(new File(mavenSession.getExecutionRootDirectory()), cli);
+            } else {
+                throw new MojoFailureException("Unknown git backend '" + gitBackend + "'. Use 'cli' or 'jgit'.");
+            }
+        }
+        return backend;
+    }
+
     /**
      * Validates plugin configuration. Throws exception if configuration is not
      * valid.
@@ -226,6 +624,27 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
             throw new MojoFailureException(
                     "The argLine doesn't match allowed pattern.");
         }
+        for (String line : new String[] { testArgLine, installArgLine, versionsArgLine, goalsArgLine,
+                buildThreads }) {
+            if (StringUtils.isNotBlank(line) && MAVEN_DISALLOWED_PATTERN.matcher(line).find()) {
+                throw new MojoFailureException("The Maven arguments '" + line + "' don't match allowed pattern.");
+            }
+        }
+        if (StringUtils.isNotBlank(mavenBackend) && !"mvn".equalsIgnoreCase(mavenBackend)
+                && !"mvnd".equalsIgnoreCase(mavenBackend)) {
+            throw new MojoFailureException(
+                    "Unknown Maven backend '" + mavenBackend + "'. Use 'mvn' or 'mvnd'.");
+        }
+        if (StringUtils.isNotBlank(versionUpdater) && !"plugin".equalsIgnoreCase(versionUpdater)
+                && !"inprocess".equalsIgnoreCase(versionUpdater)) {
+            throw new MojoFailureException(
+                    "Unknown version updater '" + versionUpdater + "'. Use 'plugin' or 'inprocess'.");
+        }
+        if (StringUtils.isNotBlank(goalsExecution) && !"fork".equalsIgnoreCase(goalsExecution)
+                && !"session".equalsIgnoreCase(goalsExecution)) {
+            throw new MojoFailureException(
+                    "Unknown goals execution '" + goalsExecution + "'. Use 'fork' or 'session'.");
+        }
         if (params != null && params.length > 0) {
             for (String p : params) {
                 if (StringUtils.isNotBlank(p)
@@ -244,6 +663,12 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      * @throws MojoFailureException
      */
     protected String getCurrentProjectVersion() throws MojoFailureException {
+        if (dryRun) {
+            final String version = getPlannedProjectVersion();
+            if (version != null) {
+                return version;
+            }
+        }
         final MavenProject reloadedProject = reloadProject(mavenSession.getCurrentProject());
         if (reloadedProject.getVersion() == null) {
             throw new MojoFailureException(
@@ -252,6 +677,57 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
         return reloadedProject.getVersion();
     }
 
+    /**
+     * Gets project version of the simulated current branch in dry run mode.
+     * Version is read from the pom.xml committed in the branch, if the
+     * branch is not checked out in the working tree.
+     *
+     * @return Version or <code>null</code> if version should be read from the
+     *         working tree.
+     * @throws MojoFailureException
+     */
+    private String getPlannedProjectVersion() throws MojoFailureException {
+        String branchName = null;
+        try {
+            final ExecutionPlan plan = getPlan();
+            branchName = plan.getCurrentBranch();
+            if (branchName == null) {
+                return null;
+            }
+            final String version = plan.getVersion(branchName);
+            if (version != null) {
+                return version;
+            }
+            final String versionBranch = plan.getVersionBranch(branchName);
+            if (versionBranch.equals(plan.getWorkingTreeBranch())) {
+                return null;
+            }
+
+            final File pomFile = mavenSession.getCurrentProject().getFile();
+            final String path = new File(System.getProperty("user.dir")).getCanonicalFile().toPath()
+                    .relativize(pomFile.getCanonicalFile().toPath()).toString().replace(File.separatorChar, '/');
+            final String xml = executeGitCommandReturn("show", versionBranch + ":./" + path);
+            final PomDocument.Node root = new PomDocument(pomFile, StandardCharsets.UTF_8, xml).getRoot();
+            String branchVersion = root.getChildText("version");
+            if (branchVersion == null && root.getChild("parent") != null) {
+                branchVersion = root.getChild("parent").getChildText("version");
+            }
+            if (branchVersion != null && branchVersion.startsWith("${") && branchVersion.endsWith("}")
+                    && root.getChild("properties") != null) {
+                branchVersion = root.getChild("properties").getChildText(
+                        branchVersion.substring(2, branchVersion.length() - 1));
+            }
+            if (StringUtils.isBlank(branchVersion) || branchVersion.contains("${")) {
+                throw new MojoFailureException("Cannot get project version of '" + versionBranch
+                        + "' branch in dry run mode.");
+            }
+            return branchVersion;
+        } catch (IOException | CommandLineException e) {
+            throw new MojoFailureException(branchName == null ? "Cannot get current branch in dry run mode."
+                    : "Cannot get project version of '" + branchName + "' branch in dry run mode.", e);
+        }
+    }
+
     /**
      * Gets current project {@link #REPRODUCIBLE_BUILDS_PROPERTY} property value
      * from pom.xml file.
@@ -265,18 +741,48 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
     }
 
     /**
-     * Reloads project info from file
+     * Reloads project info from file. Reloaded project is cached until the
+     * pom.xml or its parents change.
      *
      * @param project
      * @return
      * @throws MojoFailureException
      */
     private MavenProject reloadProject(MavenProject project) throws MojoFailureException {
+        return reloadProject(project, mavenSession.getProjectBuildingRequest());
+    }
+
+    /**
+     * Reloads project info from file using the given building request.
+     *
+     * @param project
+     *            Project to reload.
+     * @param buildingRequest
+     *            Project building request.
+     * @return Reloaded project.
+     * @throws MojoFailureException
+     */
+    private MavenProject reloadProject(final MavenProject project, final ProjectBuildingRequest buildingRequest)
+            throws MojoFailureException {
+        final PerformanceReport.Span span = getReport().start(PerformanceReport.PROJECT, "reload project",
+                String.valueOf(project.getFile()));
         try {
-            ProjectBuildingResult result = projectBuilder.build(project.getFile(), mavenSession.getProjectBuildingRequest());
-            return result.getProject();
+            final String key = projectCache.key(worktreeFile(project.getFile()));
+            MavenProject reloadedProject = projectCache.get(key);
+            if (reloadedProject == null) {
+                ProjectBuildingResult result = projectBuilder.build(worktreeFile(project.getFile()), buildingRequest);
+                reloadedProject = result.getProject();
+                projectCache.put(key, reloadedProject);
+            }
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Project model cache: " + projectCache.getHits() + " hit(s), "
+                        + projectCache.getMisses() + " miss(es).");
+            }
+            return reloadedProject;
         } catch (Exception e) {
             throw new MojoFailureException("Error re-loading project info", e);
+        } finally {
+            span.end();
         }
     }
 
@@ -300,47 +806,105 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
     protected void checkUncommittedChanges() throws MojoFailureException,
             CommandLineException {
         getLog().info("Checking for uncommitted changes.");
-        if (executeGitHasUncommitted()) {
+        if (getGitBackend().hasUncommittedChanges()) {
             throw new MojoFailureException(
                     "You have some uncommitted files. Commit or discard local changes in order to proceed.");
         }
     }
 
     protected void checkSnapshotDependencies() throws MojoFailureException {
-        getLog().info("Checking for SNAPSHOT versions in dependencies.");
+        final PerformanceReport.Span step = startStep("check snapshots");
+        try {
+            if (dryRun) {
+                try {
+                    if (!isPlannedWorkingTreeBranch()) {
+                        getLog().info("Checking for SNAPSHOT versions in dependencies is planned.");
+                        getPlan().add(ExecutionPlan.CHECK, "check SNAPSHOT versions in dependencies");
+                        return;
+                    }
+                } catch (CommandLineException e) {
+                    throw new MojoFailureException("Error planning SNAPSHOT versions check.", e);
+                }
+            }
 
-        List<String> snapshots = new ArrayList<String>();
-        List<String> builtArtifacts = new ArrayList<String>();
+            getLog().info("Checking for SNAPSHOT versions in dependencies.");
 
-        // Validate Parent
-        Artifact parentArtifact = mavenSession.getTopLevelProject().getParentArtifact();
-        if (parentArtifact != null && parentArtifact.isSnapshot()) {
-            throw new MojoFailureException("Parent cannot be a snapshot: " + parentArtifact.getId());
-        }
+            final long start = System.currentTimeMillis();
+
+            List<String> snapshots = new ArrayList<String>();
+            Set<String> builtArtifacts = new HashSet<String>();
+
+            // Validate Parent
+            Artifact parentArtifact = mavenSession.getTopLevelProject().getParentArtifact();
+            if (parentArtifact != null && parentArtifact.isSnapshot()) {
+                throw new MojoFailureException("Parent cannot be a snapshot: " + parentArtifact.getId());
+            }
 
-        // Validate Dependencies
-        List<MavenProject> projects = mavenSession.getProjects();
-        for (MavenProject project : projects) {
-            final MavenProject reloadedProject = reloadProject(project);
+            // Validate Dependencies
+            List<MavenProject> reloadedProjects = reloadProjects(mavenSession.getProjects());
+            for (MavenProject reloadedProject : reloadedProjects) {
+                builtArtifacts.add(reloadedProject.getGroupId() + ":" + reloadedProject.getArtifactId() + ":" + reloadedProject.getVersion());
+            }
+            for (MavenProject reloadedProject : reloadedProjects) {
+                List<Dependency> dependencies = reloadedProject.getDependencies();
+                for (Dependency d : dependencies) {
+                    String id = d.getGroupId() + ":" + d.getArtifactId() + ":" + d.getVersion();
+                    if (!builtArtifacts.contains(id) && ArtifactUtils.isSnapshot(d.getVersion())) {
+                        snapshots.add(reloadedProject + " -> " + d);
+                    }
+                }
+            }
 
-            builtArtifacts.add(reloadedProject.getGroupId() + ":" + reloadedProject.getArtifactId() + ":" + reloadedProject.getVersion());
+            getLog().info("Checked " + reloadedProjects.size() + " project(s) for SNAPSHOT dependencies in "
+                    + (System.currentTimeMillis() - start) + " ms.");
 
-            List<Dependency> dependencies = reloadedProject.getDependencies();
-            for (Dependency d : dependencies) {
-                String id = d.getGroupId() + ":" + d.getArtifactId() + ":" + d.getVersion();
-                if (!builtArtifacts.contains(id) && ArtifactUtils.isSnapshot(d.getVersion())) {
-                    snapshots.add(reloadedProject + " -> " + d);
+            if (!snapshots.isEmpty()) {
+                for (String s : snapshots) {
+                    getLog().warn(s);
                 }
+                throw new MojoFailureException(
+                        "There is some SNAPSHOT dependencies in the project, see warnings above."
+                        + " Change them or ignore with `allowSnapshots` property.");
             }
+        } finally {
+            step.end();
         }
+    }
 
-        if (!snapshots.isEmpty()) {
-            for (String s : snapshots) {
-                getLog().warn(s);
+    /**
+     * Reloads projects in parallel.
+     *
+     * @param projects
+     *            Projects to reload.
+     * @return Reloaded projects in the same order.
+     * @throws MojoFailureException
+     */
+    private List<MavenProject> reloadProjects(final List<MavenProject> projects) throws MojoFailureException {
+        final List<MavenProject> reloadedProjects = new ArrayList<>(projects.size());
+        final int threads = Math.min(Runtime.getRuntime().availableProcessors(), projects.size());
+        if (threads <= 1) {
+            for (MavenProject project : projects) {
+                reloadedProjects.add(reloadProject(project));
             }
-            throw new MojoFailureException(
-                    "There is some SNAPSHOT dependencies in the project, see warnings above."
-                    + " Change them or ignore with `allowSnapshots` property.");
+            return reloadedProjects;
+        }
+
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final List<Callable<MavenProject>> tasks = new ArrayList<>(projects.size());
+        for (final MavenProject project : projects) {
+            tasks.add(new Callable<MavenProject>() {
+                @Override
+                public MavenProject call() throws Exception {
+                    Thread.currentThread().setContextClassLoader(classLoader);
+                    return reloadProject(project,
+                            new DefaultProjectBuildingRequest(mavenSession.getProjectBuildingRequest()));
+                }
+            });
+        }
+        try {
+            return executeInParallel(tasks, threads);
+        } catch (CommandLineException e) {
+            throw new MojoFailureException("Error re-loading project info", e);
         }
     }
 
@@ -356,51 +920,7 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      */
     protected boolean validBranchName(final String branchName)
             throws MojoFailureException, CommandLineException {
-        CommandResult res = executeGitCommandExitCode("check-ref-format",
-                "--allow-onelevel", branchName);
-        return res.getExitCode() == SUCCESS_EXIT_CODE;
-    }
-
-    /**
-     * Executes git commands to check for uncommitted changes.
-     *
-     * @return <code>true</code> when there are uncommitted changes,
-     *         <code>false</code> otherwise.
-     * @throws CommandLineException
-     * @throws MojoFailureException
-     */
-    private boolean executeGitHasUncommitted() throws MojoFailureException,
-            CommandLineException {
-        boolean uncommited = false;
-
-        // 1 if there were differences and 0 means no differences
-
-        // git diff --no-ext-diff --ignore-submodules --quiet --exit-code
-        final CommandResult diffCommandResult = executeGitCommandExitCode(
-                "diff", "--no-ext-diff", "--ignore-submodules", "--quiet",
-                "--exit-code");
-
-        String error = null;
-
-        if (diffCommandResult.getExitCode() == SUCCESS_EXIT_CODE) {
-            // git diff-index --cached --quiet --ignore-submodules HEAD --
-            final CommandResult diffIndexCommandResult = executeGitCommandExitCode(
-                    "diff-index", "--cached", "--quiet", "--ignore-submodules",
-                    "HEAD", "--");
-            if (diffIndexCommandResult.getExitCode() != SUCCESS_EXIT_CODE) {
-                error = diffIndexCommandResult.getError();
-                uncommited = true;
-            }
-        } else {
-            error = diffCommandResult.getError();
-            uncommited = true;
-        }
-
-        if (StringUtils.isNotBlank(error)) {
-            throw new MojoFailureException(error);
-        }
-
-        return uncommited;
+        return getGitBackend().isValidBranchName(branchName);
     }
 
     /**
@@ -440,18 +960,14 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      * @throws MojoFailureException
      * @throws CommandLineException
      */
-    private void gitSetConfig(final String name, String value)
+    private void gitSetConfig(final String name, final String value)
             throws MojoFailureException, CommandLineException {
-        if (value == null || value.isEmpty()) {
-            value = "\"\"";
-        }
-
-        // ignore error exit codes
-        executeGitCommandExitCode("config", name, value);
+        getGitBackend().setConfig(name, value);
     }
 
     /**
-     * Executes git for-each-ref with <code>refname:short</code> format.
+     * Finds branches in the ref snapshot, the same way as git for-each-ref with
+     * <code>refname:short</code> format does.
      *
      * @param branchName
      *            Branch name to find.
@@ -467,7 +983,8 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
     }
 
     /**
-     * Executes git for-each-ref with <code>refname:short</code> format.
+     * Finds refs in the ref snapshot, the same way as git for-each-ref with
+     * <code>refname:short</code> format does.
      *
      * @param refs
      *            Refs to search.
@@ -487,67 +1004,56 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
             wildcard = "**";
         }
 
-        String branches;
-        if (firstMatch) {
-            branches = executeGitCommandReturn("for-each-ref", "--count=1",
-                    "--format=\"%(refname:short)\"", refs + branchName + wildcard);
-        } else {
-            branches = executeGitCommandReturn("for-each-ref",
-                    "--format=\"%(refname:short)\"", refs + branchName + wildcard);
-        }
-
-        // on *nix systems return values from git for-each-ref are wrapped in
-        // quotes
-        // https://github.com/aleksandr-m/gitflow-maven-plugin/issues/3
-        branches = removeQuotes(branches);
-        branches = StringUtils.strip(branches);
+        final List<String> branches = getRefSnapshot().find(refs + branchName + wildcard, firstMatch);
 
-        return branches;
+        return StringUtils.join(branches.iterator(), LS);
     }
 
     /**
-     * Executes git for-each-ref to get all tags.
+     * Gets all tags sorted by <code>*authordate</code> from the ref snapshot.
      *
      * @return Git tags.
      * @throws MojoFailureException
      * @throws CommandLineException
      */
     protected String gitFindTags() throws MojoFailureException, CommandLineException {
-        String tags = executeGitCommandReturn("for-each-ref", "--sort=*authordate", "--format=\"%(refname:short)\"",
-                "refs/tags/");
-        // https://github.com/aleksandr-m/gitflow-maven-plugin/issues/3
-        tags = removeQuotes(tags);
-        return tags;
+        final StringBuilder tags = new StringBuilder();
+        for (String tag : getRefSnapshot().getTags()) {
+            tags.append(tag).append(LS);
+        }
+        return tags.toString();
     }
 
     /**
-     * Executes git for-each-ref to get the last tag.
+     * Gets the last tag from the ref snapshot.
      *
      * @return Last tag.
      * @throws MojoFailureException
      * @throws CommandLineException
      */
     protected String gitFindLastTag() throws MojoFailureException, CommandLineException {
-        String tag = executeGitCommandReturn("for-each-ref", "--sort=\"-version:refname\"", "--sort=-taggerdate",
-                "--count=1", "--format=\"%(refname:short)\"", "refs/tags/");
-        // https://github.com/aleksandr-m/gitflow-maven-plugin/issues/3
-        tag = removeQuotes(tag);
-        tag = tag.replaceAll("\\r?\\n", "");
-        return tag;
+        final String tag = getRefSnapshot().getLastTag();
+        return tag == null ? "" : tag;
     }
 
     /**
-     * Removes double quotes from the string.
+     * Gets the ref snapshot, reloading it with git for-each-ref if it was
+     * invalidated.
      *
-     * @param str
-     *            String to remove quotes from.
-     * @return String without quotes.
+     * @return Loaded ref snapshot.
+     * @throws MojoFailureException
+     * @throws CommandLineException
      */
-    private String removeQuotes(String str) {
-        if (str != null && !str.isEmpty()) {
-            str = str.replaceAll("\"", "");
+    private RefSnapshot getRefSnapshot() throws MojoFailureException, CommandLineException {
+        if (!refSnapshot.isLoaded()) {
+            getGitBackend().loadRefs(refSnapshot);
+
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Ref snapshot loaded with " + refSnapshot.size() + " refs (reloads: "
+                        + refSnapshot.getReloads() + ", hits: " + refSnapshot.getHits() + ").");
+            }
         }
-        return str;
+        return refSnapshot;
     }
 
     /**
@@ -558,9 +1064,15 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      * @throws CommandLineException
      */
     protected String gitCurrentBranch() throws MojoFailureException, CommandLineException {
-        String name = executeGitCommandReturn("symbolic-ref", "-q", "--short", "HEAD");
-        name = StringUtils.strip(name);
-        return name;
+        if (dryRun && getPlan().getCurrentBranch() != null) {
+            return getPlan().getCurrentBranch();
+        }
+        String name = getRefSnapshot().getCurrentBranch();
+        if (name != null) {
+            return name;
+        }
+        // detached HEAD, let the backend report it
+        return getGitBackend().getCurrentBranch();
     }
 
     /**
@@ -575,9 +1087,10 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      */
     protected boolean gitCheckBranchExists(final String branchName)
             throws MojoFailureException, CommandLineException {
-        CommandResult commandResult = executeGitCommandExitCode("show-ref",
-                "--verify", "--quiet", "refs/heads/" + branchName);
-        return commandResult.getExitCode() == SUCCESS_EXIT_CODE;
+        if (dryRun && getPlan().hasBranch(branchName) != null) {
+            return getPlan().hasBranch(branchName);
+        }
+        return getRefSnapshot().hasRef("refs/heads/" + branchName);
     }
 
     /**
@@ -590,9 +1103,10 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      * @throws CommandLineException
      */
     protected boolean gitCheckTagExists(final String tagName) throws MojoFailureException, CommandLineException {
-        CommandResult commandResult = executeGitCommandExitCode("show-ref", "--verify", "--quiet",
-                "refs/tags/" + tagName);
-        return commandResult.getExitCode() == SUCCESS_EXIT_CODE;
+        if (dryRun && getPlan().hasTag(tagName)) {
+            return true;
+        }
+        return getRefSnapshot().hasRef("refs/tags/" + tagName);
     }
 
     /**
@@ -607,7 +1121,16 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
             throws MojoFailureException, CommandLineException {
         getLog().info("Checking out '" + branchName + "' branch.");
 
-        executeGitCommand("checkout", branchName);
+        if (worktrees) {
+            switchWorktree(branchName, null);
+            return;
+        }
+
+        getGitBackend().checkout(branchName);
+        refSnapshot.invalidate();
+        if (dryRun) {
+            getPlan().checkout(branchName);
+        }
     }
 
     /**
@@ -627,39 +1150,409 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
                 "Creating a new branch '" + newBranchName + "' from '"
                         + fromBranchName + "' and checking it out.");
 
-        executeGitCommand("checkout", "-b", newBranchName, fromBranchName);
+        final GitFlowJournal.Step step = beginJournalStep("create branch", newBranchName + " " + fromBranchName,
+                "refs/heads/" + newBranchName);
+        if (step != null && step.isCompleted()) {
+            if (worktrees) {
+                switchWorktree(newBranchName, null);
+            } else {
+                getGitBackend().checkout(newBranchName);
+                refSnapshot.invalidate();
+            }
+            return;
+        }
+
+        if (worktrees) {
+            switchWorktree(newBranchName, fromBranchName);
+        } else {
+            getGitBackend().createAndCheckout(newBranchName, fromBranchName);
+            refSnapshot.invalidate();
+            if (dryRun) {
+                getPlan().createBranch(newBranchName, fromBranchName);
+                getPlan().checkout(newBranchName);
+            }
+        }
+        completeJournalStep(step, true, "refs/heads/" + newBranchName);
     }
 
     /**
-     * Executes git branch.
+     * Starts checking out branches in separate worktrees under
+     * <code>.git/gitflow-worktrees</code>, so the branch of the main working
+     * tree is never switched. Must be followed by {@link #removeWorktrees()}.
      *
-     * @param newBranchName
-     *            Create branch with this name.
-     * @param fromBranchName
-     *            Create branch from this branch.
      * @throws MojoFailureException
      * @throws CommandLineException
      */
-    protected void gitCreateBranch(final String newBranchName, final String fromBranchName)
-            throws MojoFailureException, CommandLineException {
-        getLog().info(
-                "Creating a new branch '" + newBranchName + "' from '"
-                        + fromBranchName + "'.");
-
-        executeGitCommand("branch", newBranchName, fromBranchName);
+    protected void startWorktrees() throws MojoFailureException, CommandLineException {
+        if (dryRun) {
+            getLog().info("Worktrees are not used in dry run mode.");
+            return;
+        }
+        if ("jgit".equalsIgnoreCase(gitBackend)) {
+            throw new MojoFailureException("The 'useWorktrees' cannot be used with 'jgit' git backend.");
+        }
+        final String topLevel = StringUtils.strip(executeGitCommandReturn("rev-parse", "--show-toplevel"));
+        try {
+            mainTopLevel = new File(topLevel).getCanonicalFile();
+        } catch (IOException e) {
+            throw new MojoFailureException("Cannot resolve working tree directory '" + topLevel + "'.", e);
+        }
+        // not in target directory, mvn clean in the main working tree would delete it
+        worktreesRoot = new File(getGitCommonDir(), "gitflow-worktrees");
+        mainBranch = gitCurrentBranch();
+        worktrees = true;
     }
 
     /**
-     * Replaces properties in message.
+     * Gets git directory shared by all worktrees, i.e. <code>.git</code>.
      *
-     * @param message
-     * @param map
-     *            Key is a string to replace wrapped in <code>@{...}</code>. Value
-     *            is a string to replace with.
-     * @return
+     * @return Git directory.
+     * @throws MojoFailureException
+     * @throws CommandLineException
      */
-    private String replaceProperties(String message, Map<String, String> map) {
-        if (map != null) {
+    private File getGitCommonDir() throws MojoFailureException, CommandLineException {
+        if (gitCommonDir == null) {
+            File gitDir = new File(StringUtils.strip(executeGitCommandReturn("rev-parse", "--git-common-dir")));
+            if (!gitDir.isAbsolute()) {
+                gitDir = new File(System.getProperty("user.dir"), gitDir.getPath());
+            }
+            gitCommonDir = gitDir;
+        }
+        return gitCommonDir;
+    }
+
+    /**
+     * Starts writing completed steps to the
+     * <code>.git/gitflow/{goal}.journal</code> file. When resuming, the steps
+     * completed by the failed execution are skipped, the refs must have the
+     * same values as the failed execution left them with, only new commits on
+     * the branches are allowed, e.g. merge conflict resolved manually. Must be
+     * followed by {@link #completeJournal()} when the goal succeeds.
+     *
+     * @param resume
+     *            Whether to resume the failed execution.
+     * @throws MojoFailureException
+     *             If failed execution cannot be resumed.
+     * @throws CommandLineException
+     */
+    protected void startJournal(final boolean resume) throws MojoFailureException, CommandLineException {
+        if (dryRun) {
+            return;
+        }
+        final String goal = mojoExecution != null ? mojoExecution.getGoal() : getClass().getSimpleName();
+        final File file = new File(getGitCommonDir(), "gitflow" + File.separator + goal + ".journal");
+
+        List<GitFlowJournal.Step> completed = Collections.emptyList();
+        if (resume && file.isFile()) {
+            try {
+                completed = GitFlowJournal.read(file, goal);
+            } catch (IOException | RuntimeException e) {
+                throw new MojoFailureException("Cannot read journal " + file + ".", e);
+            }
+            for (Entry<String, String> ref : GitFlowJournal.finalRefs(completed).entrySet()) {
+                final String value = StringUtils.defaultString(getRefSnapshot().getObjectId(ref.getKey()));
+                if (value.equals(ref.getValue())) {
+                    continue;
+                }
+                if (ref.getKey().startsWith("refs/heads/") && !value.isEmpty() && !ref.getValue().isEmpty()
+                        && executeGitCommandExitCode("merge-base", "--is-ancestor", ref.getValue(), value)
+                                .getExitCode() == SUCCESS_EXIT_CODE) {
+                    getLog().info("Ref '" + ref.getKey() + "' has new commits since the failed execution.");
+                    continue;
+                }
+                throw new MojoFailureException("Ref '" + ref.getKey() + "' was changed since the failed execution"
+                        + " and the goal cannot be resumed. Finish it manually or delete " + file
+                        + " and execute it again.");
+            }
+            getLog().info("Resuming failed execution, " + completed.size()
+                    + " completed step(s) from " + file + " will be skipped.");
+        } else if (resume) {
+            getLog().info("There is no failed execution to resume, executing all steps.");
+        } else if (file.isFile()) {
+            getLog().warn("Journal " + file + " of the failed execution is replaced."
+                    + " Use 'resume' parameter to resume failed execution.");
+        }
+        journal = new GitFlowJournal(file, goal, completed);
+    }
+
+    /**
+     * Deletes the journal of the goal, called when the goal succeeds.
+     *
+     * @throws MojoFailureException
+     */
+    protected void completeJournal() throws MojoFailureException {
+        if (journal == null) {
+            return;
+        }
+        if (journal.getRemaining() > 0) {
+            getLog().warn(journal.getRemaining() + " step(s) completed by the failed execution were not reached.");
+        }
+        try {
+            journal.delete();
+        } catch (IOException e) {
+            throw new MojoFailureException("Cannot delete journal.", e);
+        }
+        journal = null;
+    }
+
+    /**
+     * Begins journaled step. If the step was completed by the resumed
+     * execution it must be skipped.
+     *
+     * @param name
+     *            Name of the step.
+     * @param detail
+     *            Arguments of the step.
+     * @param refNames
+     *            Refs changed by the step in addition to the current branch.
+     * @return Step or <code>null</code> if journal is not used.
+     * @throws MojoFailureException
+     *             If step doesn't match the completed step of the resumed
+     *             execution.
+     * @throws CommandLineException
+     */
+    private GitFlowJournal.Step beginJournalStep(final String name, final String detail, final String... refNames)
+            throws MojoFailureException, CommandLineException {
+        if (journal == null) {
+            return null;
+        }
+        final String branchName = worktrees ? (activeBranch != null ? activeBranch : mainBranch)
+                : getRefSnapshot().getCurrentBranch();
+        try {
+            final GitFlowJournal.Step step = journal.begin(name, detail, branchName,
+                    journalRefs(branchName, refNames));
+            if (step.isCompleted()) {
+                getLog().info("Skipping step " + step + " completed by the failed execution.");
+            }
+            return step;
+        } catch (IOException e) {
+            throw new MojoFailureException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes completed step to the journal.
+     *
+     * @param step
+     *            Step, may be <code>null</code>.
+     * @param refsChanged
+     *            Whether the step changed local refs.
+     * @param refNames
+     *            Refs changed by the step in addition to the current branch.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    private void completeJournalStep(final GitFlowJournal.Step step, final boolean refsChanged,
+            final String... refNames) throws MojoFailureException, CommandLineException {
+        if (step == null || step.isCompleted()) {
+            return;
+        }
+        try {
+            journal.complete(step, refsChanged ? journalRefs(step.getBranch(), refNames) : step.getBefore());
+        } catch (IOException e) {
+            throw new MojoFailureException("Cannot write journal.", e);
+        }
+    }
+
+    /**
+     * Writes step which left uncommitted changes to the journal together with
+     * the following commit.
+     *
+     * @param step
+     *            Step, may be <code>null</code>.
+     */
+    private void deferJournalStep(final GitFlowJournal.Step step) {
+        if (step != null && !step.isCompleted()) {
+            journal.defer(step);
+        }
+    }
+
+    private Map<String, String> journalRefs(final String branchName, final String... refNames)
+            throws MojoFailureException, CommandLineException {
+        final Map<String, String> refs = new LinkedHashMap<>();
+        if (StringUtils.isNotBlank(branchName)) {
+            refs.put("refs/heads/" + branchName,
+                    StringUtils.defaultString(getRefSnapshot().getObjectId("refs/heads/" + branchName)));
+        }
+        for (String refName : refNames) {
+            refs.put(refName, StringUtils.defaultString(getRefSnapshot().getObjectId(refName)));
+        }
+        return refs;
+    }
+
+    /**
+     * Removes worktrees created by this execution. Errors are only logged, so
+     * it is safe to call it in <code>finally</code> block.
+     */
+    protected void removeWorktrees() {
+        if (!worktrees) {
+            return;
+        }
+        activeBranch = null;
+        try {
+            for (String branchName : new ArrayList<>(worktreeDirs.keySet())) {
+                removeWorktree(branchName);
+            }
+            executeGitCommandExitCode("worktree", "prune");
+        } catch (Exception e) {
+            getLog().warn("Error removing worktrees: " + e.getMessage());
+        }
+        refSnapshot.invalidate();
+        worktrees = false;
+    }
+
+    /**
+     * Makes the worktree of the branch active, creating it if needed.
+     *
+     * @param branchName
+     *            Branch name.
+     * @param fromBranchName
+     *            Create new branch from this branch or <code>null</code> to
+     *            use existing one.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    private void switchWorktree(final String branchName, final String fromBranchName)
+            throws MojoFailureException, CommandLineException {
+        refSnapshot.invalidate();
+        if (fromBranchName == null && branchName.equals(mainBranch)) {
+            activeBranch = null;
+            return;
+        }
+        if (worktreeDirs.containsKey(branchName)) {
+            activeBranch = branchName;
+            return;
+        }
+
+        activeBranch = null;
+        final File dir = new File(worktreesRoot, branchName.replaceAll("[^A-Za-z0-9._-]", "_"));
+        if (dir.exists()) {
+            // leftover of the failed execution
+            executeGitCommandExitCode("worktree", "remove", "--force", dir.getPath());
+            executeGitCommandExitCode("worktree", "prune");
+        }
+        getLog().debug("Adding worktree '" + dir + "' for '" + branchName + "' branch.");
+        if (fromBranchName == null) {
+            executeGitCommand("worktree", "add", "--quiet", dir.getPath(), branchName);
+        } else {
+            executeGitCommand("worktree", "add", "--quiet", "-b", branchName, dir.getPath(), fromBranchName);
+        }
+        worktreeDirs.put(branchName, dir);
+        activeBranch = branchName;
+    }
+
+    /**
+     * Removes worktree of the branch.
+     *
+     * @param branchName
+     *            Branch name.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    private void removeWorktree(final String branchName) throws MojoFailureException, CommandLineException {
+        final File dir = worktreeDirs.remove(branchName);
+        if (dir != null) {
+            if (branchName.equals(activeBranch)) {
+                activeBranch = null;
+            }
+            getLog().debug("Removing worktree '" + dir + "'.");
+            executeGitCommandExitCode("worktree", "remove", "--force", dir.getPath());
+            refSnapshot.invalidate();
+        }
+    }
+
+    /**
+     * Releases the branch from worktrees before it is deleted. If branch is
+     * checked out in the main working tree, the main working tree is switched
+     * to the active branch, or to the development branch.
+     *
+     * @param branchName
+     *            Branch name.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    private void releaseWorktreeBranch(final String branchName) throws MojoFailureException, CommandLineException {
+        removeWorktree(branchName);
+        if (!branchName.equals(mainBranch)) {
+            return;
+        }
+        String target = activeBranch;
+        if (target == null || target.equals(branchName)) {
+            target = gitFlowConfig.getDevelopmentBranch();
+        }
+        if (target.equals(branchName)) {
+            target = gitFlowConfig.getProductionBranch();
+        }
+        removeWorktree(target);
+        getLog().info("Branch '" + branchName + "' is checked out in the working tree, checking out '" + target
+                + "' branch.");
+        getGitBackend().checkout(target);
+        refSnapshot.invalidate();
+        mainBranch = target;
+    }
+
+    /**
+     * Maps file of the main working tree to the active worktree.
+     *
+     * @param file
+     *            File in the main working tree.
+     * @return File in the active worktree.
+     * @throws MojoFailureException
+     */
+    private File worktreeFile(final File file) throws MojoFailureException {
+        final File root = activeBranch == null ? null : worktreeDirs.get(activeBranch);
+        if (root == null || file == null) {
+            return file;
+        }
+        try {
+            final String relative = mainTopLevel.toPath().relativize(file.getCanonicalFile().toPath()).toString();
+            return new File(root, relative);
+        } catch (IOException e) {
+            throw new MojoFailureException("Cannot map '" + file + "' to worktree.", e);
+        }
+    }
+
+    /**
+     * Executes git branch.
+     *
+     * @param newBranchName
+     *            Create branch with this name.
+     * @param fromBranchName
+     *            Create branch from this branch.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    protected void gitCreateBranch(final String newBranchName, final String fromBranchName)
+            throws MojoFailureException, CommandLineException {
+        getLog().info(
+                "Creating a new branch '" + newBranchName + "' from '"
+                        + fromBranchName + "'.");
+
+        final GitFlowJournal.Step step = beginJournalStep("create branch", newBranchName + " " + fromBranchName,
+                "refs/heads/" + newBranchName);
+        if (step != null && step.isCompleted()) {
+            return;
+        }
+
+        getGitBackend().createBranch(newBranchName, fromBranchName);
+        refSnapshot.invalidate();
+        if (dryRun) {
+            getPlan().createBranch(newBranchName, fromBranchName);
+        }
+        completeJournalStep(step, true, "refs/heads/" + newBranchName);
+    }
+
+    /**
+     * Replaces properties in message.
+     *
+     * @param message
+     * @param map
+     *            Key is a string to replace wrapped in <code>@{...}</code>. Value
+     *            is a string to replace with.
+     * @return
+     */
+    private String replaceProperties(String message, Map<String, String> map) {
+        if (map != null) {
             for (Entry<String, String> entr : map.entrySet()) {
                 message = StringUtils.replace(message, "@{" + entr.getKey() + "}", entr.getValue());
             }
@@ -693,20 +1586,30 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      */
     protected void gitCommit(String message, Map<String, String> messageProperties)
             throws MojoFailureException, CommandLineException {
-        if (StringUtils.isNotBlank(commitMessagePrefix)) {
-            message = commitMessagePrefix + message;
-        }
+        final PerformanceReport.Span step = startStep("commit");
+        try {
+            if (StringUtils.isNotBlank(commitMessagePrefix)) {
+                message = commitMessagePrefix + message;
+            }
 
-        message = replaceProperties(message, messageProperties);
+            message = replaceProperties(message, messageProperties);
 
-        if (gpgSignCommit) {
-            getLog().info("Committing changes. GPG-signed.");
+            final GitFlowJournal.Step journalStep = beginJournalStep("commit", message);
+            if (journalStep != null && journalStep.isCompleted()) {
+                return;
+            }
 
-            executeGitCommand("commit", "-a", "-S", "-m", message);
-        } else {
-            getLog().info("Committing changes.");
+            if (gpgSignCommit) {
+                getLog().info("Committing changes. GPG-signed.");
+            } else {
+                getLog().info("Committing changes.");
+            }
 
-            executeGitCommand("commit", "-a", "-m", message);
+            getGitBackend().commit(message, gpgSignCommit);
+            refSnapshot.invalidate();
+            completeJournalStep(journalStep, true);
+        } finally {
+            step.end();
         }
     }
 
@@ -731,32 +1634,43 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
     protected void gitMerge(final String branchName, boolean rebase, boolean noff, boolean ffonly, String message,
             Map<String, String> messageProperties)
             throws MojoFailureException, CommandLineException {
-        String sign = "";
-        if (gpgSignCommit) {
-            sign = "-S";
-        }
-        String msgParam = "";
-        String msg = "";
-        if (StringUtils.isNotBlank(message)) {
-            if (StringUtils.isNotBlank(commitMessagePrefix)) {
-                message = commitMessagePrefix + message;
+        final PerformanceReport.Span step = startStep("merge");
+        try {
+            String msg = null;
+            if (StringUtils.isNotBlank(message)) {
+                if (StringUtils.isNotBlank(commitMessagePrefix)) {
+                    message = commitMessagePrefix + message;
+                }
+
+                msg = replaceProperties(message, messageProperties);
             }
 
-            msgParam = "-m";
-            msg = replaceProperties(message, messageProperties);
-        }
-        if (rebase) {
-            getLog().info("Rebasing '" + branchName + "' branch.");
-            executeGitCommand("rebase", sign, branchName);
-        } else if (ffonly) {
-            getLog().info("Merging (--ff-only) '" + branchName + "' branch.");
-            executeGitCommand("merge", "--ff-only", sign, branchName);
-        } else if (noff) {
-            getLog().info("Merging (--no-ff) '" + branchName + "' branch.");
-            executeGitCommand("merge", "--no-ff", sign, branchName, msgParam, msg);
-        } else {
-            getLog().info("Merging '" + branchName + "' branch.");
-            executeGitCommand("merge", sign, branchName, msgParam, msg);
+            final GitFlowJournal.Step journalStep = beginJournalStep(rebase ? "rebase" : "merge",
+                    branchName + (ffonly ? " --ff-only" : noff ? " --no-ff" : ""));
+            if (journalStep != null && journalStep.isCompleted()) {
+                return;
+            }
+
+            if (rebase) {
+                getLog().info("Rebasing '" + branchName + "' branch.");
+                getGitBackend().rebase(branchName, gpgSignCommit);
+            } else if (ffonly) {
+                getLog().info("Merging (--ff-only) '" + branchName + "' branch.");
+                getGitBackend().merge(branchName, false, true, null, gpgSignCommit);
+            } else if (noff) {
+                getLog().info("Merging (--no-ff) '" + branchName + "' branch.");
+                getGitBackend().merge(branchName, true, false, msg, gpgSignCommit);
+            } else {
+                getLog().info("Merging '" + branchName + "' branch.");
+                getGitBackend().merge(branchName, false, false, msg, gpgSignCommit);
+            }
+            refSnapshot.invalidate();
+            if (dryRun) {
+                getPlan().merge(branchName);
+            }
+            completeJournalStep(journalStep, true);
+        } finally {
+            step.end();
         }
     }
 
@@ -788,8 +1702,23 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      */
     protected void gitMergeSquash(final String branchName)
             throws MojoFailureException, CommandLineException {
-        getLog().info("Squashing '" + branchName + "' branch.");
-        executeGitCommand("merge", "--squash", branchName);
+        final PerformanceReport.Span step = startStep("merge");
+        try {
+            final GitFlowJournal.Step journalStep = beginJournalStep("merge", branchName + " --squash");
+            if (journalStep != null && journalStep.isCompleted()) {
+                return;
+            }
+
+            getLog().info("Squashing '" + branchName + "' branch.");
+            getGitBackend().mergeSquash(branchName);
+            refSnapshot.invalidate();
+            if (dryRun) {
+                getPlan().merge(branchName);
+            }
+            deferJournalStep(journalStep);
+        } finally {
+            step.end();
+        }
     }
 
     /**
@@ -808,16 +1737,31 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      */
     protected void gitTag(final String tagName, String message, boolean gpgSignTag, Map<String, String> messageProperties)
             throws MojoFailureException, CommandLineException {
-        message = replaceProperties(message, messageProperties);
+        final PerformanceReport.Span step = startStep("tag");
+        try {
+            message = replaceProperties(message, messageProperties);
 
-        if (gpgSignTag) {
-            getLog().info("Creating GPG-signed '" + tagName + "' tag.");
+            final GitFlowJournal.Step journalStep = beginJournalStep("tag", tagName, "refs/tags/" + tagName);
+            if (journalStep != null && journalStep.isCompleted()) {
+                createdTags.add(tagName);
+                return;
+            }
 
-            executeGitCommand("tag", "-a", "-s", tagName, "-m", message);
-        } else {
-            getLog().info("Creating '" + tagName + "' tag.");
+            if (gpgSignTag) {
+                getLog().info("Creating GPG-signed '" + tagName + "' tag.");
+            } else {
+                getLog().info("Creating '" + tagName + "' tag.");
+            }
 
-            executeGitCommand("tag", "-a", tagName, "-m", message);
+            getGitBackend().tag(tagName, message, gpgSignTag);
+            refSnapshot.invalidate();
+            createdTags.add(tagName);
+            if (dryRun) {
+                getPlan().createTag(tagName);
+            }
+            completeJournalStep(journalStep, true, "refs/tags/" + tagName);
+        } finally {
+            step.end();
         }
     }
 
@@ -831,9 +1775,23 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      */
     protected void gitBranchDelete(final String branchName)
             throws MojoFailureException, CommandLineException {
+        final GitFlowJournal.Step step = beginJournalStep("delete branch", branchName, "refs/heads/" + branchName);
+        if (step != null && step.isCompleted()) {
+            return;
+        }
+
         getLog().info("Deleting '" + branchName + "' branch.");
 
-        executeGitCommand("branch", "-d", branchName);
+        if (worktrees) {
+            releaseWorktreeBranch(branchName);
+        }
+
+        getGitBackend().deleteBranch(branchName, false);
+        refSnapshot.invalidate();
+        if (dryRun) {
+            getPlan().deleteBranch(branchName);
+        }
+        completeJournalStep(step, true, "refs/heads/" + branchName);
     }
 
     /**
@@ -846,9 +1804,23 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      */
     protected void gitBranchDeleteForce(final String branchName)
             throws MojoFailureException, CommandLineException {
+        final GitFlowJournal.Step step = beginJournalStep("delete branch", branchName, "refs/heads/" + branchName);
+        if (step != null && step.isCompleted()) {
+            return;
+        }
+
         getLog().info("Deleting (-D) '" + branchName + "' branch.");
 
-        executeGitCommand("branch", "-D", branchName);
+        if (worktrees) {
+            releaseWorktreeBranch(branchName);
+        }
+
+        getGitBackend().deleteBranch(branchName, true);
+        refSnapshot.invalidate();
+        if (dryRun) {
+            getPlan().deleteBranch(branchName);
+        }
+        completeJournalStep(step, true, "refs/heads/" + branchName);
     }
 
     /**
@@ -861,51 +1833,90 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      */
     protected void gitFetchRemoteAndCreate(final String branchName)
             throws MojoFailureException, CommandLineException {
-        if (!gitCheckBranchExists(branchName)) {
-            getLog().info(
-                "Local branch '"
-                    + branchName
-                    + "' doesn't exist. Trying to fetch and check it out from '"
-                    + gitFlowConfig.getOrigin() + "'.");
-            gitFetchRemote(branchName);
-            gitCreateAndCheckout(branchName, gitFlowConfig.getOrigin() + "/"
-                + branchName);
-        } else {
-            gitCheckout(branchName);
-            executeGitCommand("pull", gitFlowConfig.getOrigin(), branchName);
+        final PerformanceReport.Span step = startStep("fetch");
+        try {
+            if (!gitCheckBranchExists(branchName)) {
+                getLog().info(
+                    "Local branch '"
+                        + branchName
+                        + "' doesn't exist. Trying to fetch and check it out from '"
+                        + gitFlowConfig.getOrigin() + "'.");
+                gitFetchRemote(branchName);
+                gitCreateAndCheckout(branchName, gitFlowConfig.getOrigin() + "/"
+                    + branchName);
+            } else {
+                gitCheckout(branchName);
+                final GitFlowJournal.Step journalStep = beginJournalStep("pull",
+                        gitFlowConfig.getOrigin() + " " + branchName);
+                if (journalStep == null || !journalStep.isCompleted()) {
+                    getGitBackend().pull(gitFlowConfig.getOrigin(), branchName);
+                    refSnapshot.invalidate();
+                    completeJournalStep(journalStep, true);
+                }
+            }
+        } finally {
+            step.end();
         }
     }
 
     /**
-     * Executes git fetch and compares local branch with the remote.
+     * Executes git fetch and compares local branches with the remote. All
+     * branches are fetched with a single git fetch and compared in one pass.
      *
-     * @param branchName
-     *            Branch name to fetch and compare.
+     * @param branchNames
+     *            Branch names to fetch and compare, <code>null</code> values
+     *            are ignored.
      * @throws MojoFailureException
      * @throws CommandLineException
      */
-    protected void gitFetchRemoteAndCompare(final String branchName)
+    protected void gitFetchRemoteAndCompare(final String... branchNames)
             throws MojoFailureException, CommandLineException {
-        if (gitFetchRemote(branchName)) {
-            getLog().info(
-                    "Comparing local branch '" + branchName + "' with remote '"
-                            + gitFlowConfig.getOrigin() + "/" + branchName
-                            + "'.");
-            String revlistout = executeGitCommandReturn("rev-list",
-                    "--left-right", "--count", branchName + "..."
-                            + gitFlowConfig.getOrigin() + "/" + branchName);
-
-            String[] counts = org.apache.commons.lang3.StringUtils.split(
-                    revlistout, '\t');
-            if (counts != null && counts.length > 1) {
-                if (!"0".equals(org.apache.commons.lang3.StringUtils
-                        .deleteWhitespace(counts[1]))) {
+        final PerformanceReport.Span step = startStep("fetch/compare");
+        try {
+            final List<String> branches = new ArrayList<>();
+            for (String branchName : branchNames) {
+                if (StringUtils.isNotBlank(branchName) && !branches.contains(branchName)) {
+                    branches.add(branchName);
+                }
+            }
+            if (branches.isEmpty()) {
+                return;
+            }
+
+            final String origin = gitFlowConfig.getOrigin();
+            final List<String> fetched = gitFetchRemote(branches);
+            final List<String> compared = new ArrayList<>();
+            for (String branchName : fetched) {
+                if (!gitCheckBranchExists(branchName)) {
+                    getLog().warn("Local branch '" + branchName + "' doesn't exist, it is not compared with remote '"
+                            + origin + "/" + branchName + "'.");
+                } else if (!getRefSnapshot().hasRef("refs/remotes/" + origin + "/" + branchName)) {
+                    getLog().warn("Remote branch '" + origin + "/" + branchName
+                            + "' doesn't exist, local branch '" + branchName + "' is not compared with it.");
+                } else {
+                    getLog().info(
+                            "Comparing local branch '" + branchName + "' with remote '"
+                                    + origin + "/" + branchName
+                                    + "'.");
+                    compared.add(branchName);
+                }
+            }
+            if (compared.isEmpty()) {
+                return;
+            }
+
+            final Map<String, int[]> counts = getGitBackend().countAheadBehind(origin, compared);
+            for (String branchName : compared) {
+                final int[] count = counts.get(branchName);
+                if (count != null && count[1] != 0) {
                     throw new MojoFailureException("Remote branch '"
-                            + gitFlowConfig.getOrigin() + "/" + branchName
+                            + origin + "/" + branchName
                             + "' is ahead of the local branch '" + branchName
                             + "'. Execute git pull.");
                 }
             }
+        } finally {
+            step.end();
         }
     }
 
@@ -957,10 +1968,8 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
                 "Fetching remote branch '" + gitFlowConfig.getOrigin() + " "
                         + branchName + "'.");
 
-        CommandResult result = executeGitCommandExitCode("fetch", "--quiet",
-                gitFlowConfig.getOrigin(), branchName);
-
-        boolean success = result.getExitCode() == SUCCESS_EXIT_CODE;
+        boolean success = getGitBackend().fetch(gitFlowConfig.getOrigin(), branchName);
+        refSnapshot.invalidate();
         if (!success) {
             getLog().warn(
                     "There were some problems fetching remote branch '"
@@ -973,6 +1982,71 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
         return success;
     }
 
+    /**
+     * Executes single git fetch with all branches. If it fails, e.g. because
+     * some branch doesn't exist on the remote, only existing branches are
+     * fetched.
+     *
+     * @param branchNames
+     *            Branch names to fetch.
+     * @return Branch names which were fetched successfully.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    private List<String> gitFetchRemote(final List<String> branchNames)
+            throws MojoFailureException, CommandLineException {
+        if (branchNames.size() == 1 && !shareTestResults) {
+            return gitFetchRemote(branchNames.get(0)) ? branchNames : Collections.<String> emptyList();
+        }
+
+        getLog().info(
+                "Fetching remote branches '" + gitFlowConfig.getOrigin() + " "
+                        + StringUtils.join(branchNames.iterator(), " ") + "'.");
+
+        boolean success = getGitBackend().fetch(gitFlowConfig.getOrigin(), branchNames, fetchRefSpecs());
+        refSnapshot.invalidate();
+        if (success) {
+            return branchNames;
+        }
+
+        final List<String> existing = getGitBackend().findRemoteBranches(gitFlowConfig.getOrigin(), branchNames);
+        if (existing != null) {
+            for (String branchName : branchNames) {
+                if (!existing.contains(branchName)) {
+                    getLog().warn(
+                            "Remote branch '" + gitFlowConfig.getOrigin() + " " + branchName
+                                    + "' doesn't exist. You can turn off remote branch fetching by setting the 'fetchRemote' parameter to false.");
+                }
+            }
+            if (existing.isEmpty()) {
+                return existing;
+            }
+            if (getGitBackend().fetch(gitFlowConfig.getOrigin(), existing, fetchRefSpecs())) {
+                refSnapshot.invalidate();
+                return existing;
+            }
+        }
+
+        final List<String> fetched = new ArrayList<>();
+        for (String branchName : branchNames) {
+            if (gitFetchRemote(branchName)) {
+                fetched.add(branchName);
+            }
+        }
+        return fetched;
+    }
+
+    /**
+     * @return Ref specs fetched together with the branches.
+     */
+    private List<String> fetchRefSpecs() {
+        if (!shareTestResults) {
+            return Collections.emptyList();
+        }
+        // glob doesn't fail if the notes don't exist on the remote yet
+        return Collections.singletonList("+" + TESTED_NOTES_REF + "*:" + remoteTestedNotesRef() + "*");
+    }
+
     /**
      * Executes git push, optionally with the <code>--follow-tags</code>
      * argument.
@@ -987,37 +2061,107 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      */
     protected void gitPush(final String branchName, boolean pushTags)
             throws MojoFailureException, CommandLineException {
-        getLog().info(
-                "Pushing '" + branchName + "' branch" + " to '"
-                        + gitFlowConfig.getOrigin() + "'.");
+        final PerformanceReport.Span step = startStep("push");
+        try {
+            final GitFlowJournal.Step journalStep = beginJournalStep("push",
+                    gitFlowConfig.getOrigin() + " " + branchName);
+            if (journalStep != null && journalStep.isCompleted()) {
+                return;
+            }
 
-        if (pushTags) {
-            executeGitCommand("push", "--quiet", "-u", "--follow-tags",
-                    gitFlowConfig.getOrigin(), branchName);
-        } else {
-            executeGitCommand("push", "--quiet", "-u",
-                    gitFlowConfig.getOrigin(), branchName);
+            getLog().info(
+                    "Pushing '" + branchName + "' branch" + " to '"
+                            + gitFlowConfig.getOrigin() + "'.");
+
+            getGitBackend().push(gitFlowConfig.getOrigin(), branchName, pushTags);
+            refSnapshot.invalidate();
+            completeJournalStep(journalStep, false);
+            gitPushTestedNotes();
+        } finally {
+            step.end();
         }
     }
 
     protected void gitPushDelete(final String branchName)
             throws MojoFailureException, CommandLineException {
-        getLog().info(
-                "Deleting remote branch '" + branchName + "' from '"
-                        + gitFlowConfig.getOrigin() + "'.");
+        final PerformanceReport.Span step = startStep("push");
+        try {
+            final GitFlowJournal.Step journalStep = beginJournalStep("push",
+                    "--delete " + gitFlowConfig.getOrigin() + " " + branchName);
+            if (journalStep != null && journalStep.isCompleted()) {
+                return;
+            }
 
-        CommandResult result = executeGitCommandExitCode("push", "--delete",
-            gitFlowConfig.getOrigin(), branchName);
+            getLog().info(
+                    "Deleting remote branch '" + branchName + "' from '"
+                            + gitFlowConfig.getOrigin() + "'.");
 
-        if (result.getExitCode() != SUCCESS_EXIT_CODE) {
-            getLog().warn(
-                "There were some problems deleting remote branch '"
-                    + branchName + "' from '"
-                    + gitFlowConfig.getOrigin() + "'.");
+            boolean success = getGitBackend().pushDelete(gitFlowConfig.getOrigin(), branchName);
+            refSnapshot.invalidate();
+            completeJournalStep(journalStep, false);
+
+            if (!success) {
+                getLog().warn(
+                    "There were some problems deleting remote branch '"
+                        + branchName + "' from '"
+                        + gitFlowConfig.getOrigin() + "'.");
+            }
+        } finally {
+            step.end();
         }
     }
 
-    protected String getPromptReleaseVersion(String defaultVersion) throws MojoFailureException {
+    /**
+     * Pushes branches together with tags created during this execution and
+     * deletes remote branches with a single <code>git push --atomic</code>.
+     * Only branches which exist on the remote are deleted.
+     *
+     * @param branchNames
+     *            Branch names to push.
+     * @param pushTags
+     *            Whether to push tags created during this execution.
+     * @param deleteBranchNames
+     *            Branch names to delete from the remote.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    protected void gitPushAtomic(final List<String> branchNames, final boolean pushTags,
+            final List<String> deleteBranchNames) throws MojoFailureException, CommandLineException {
+        final PerformanceReport.Span step = startStep("push");
+        try {
+            final String remote = gitFlowConfig.getOrigin();
+
+            final GitFlowJournal.Step journalStep = beginJournalStep("push",
+                    "--atomic " + remote + " " + branchNames + " " + deleteBranchNames);
+            if (journalStep != null && journalStep.isCompleted()) {
+                return;
+            }
+
+            List<String> deletes = Collections.emptyList();
+            if (!deleteBranchNames.isEmpty()) {
+                deletes = getGitBackend().findRemoteBranches(remote, deleteBranchNames);
+                if (deletes == null) {
+                    getLog().warn("Cannot list remote branches of '" + remote + "', remote branches "
+                            + deleteBranchNames + " are not deleted.");
+                    deletes = Collections.emptyList();
+                }
+            }
+            final List<String> tags = pushTags ? createdTags : Collections.<String> emptyList();
+
+            getLog().info("Pushing branches " + branchNames + (tags.isEmpty() ? "" : ", tags " + tags)
+                    + (deletes.isEmpty() ? "" : " and deleting branches " + deletes) + " to '" + remote
+                    + "' atomically.");
+
+            getGitBackend().pushAtomic(remote, branchNames, tags, deletes);
+            refSnapshot.invalidate();
+            completeJournalStep(journalStep, false);
+            gitPushTestedNotes();
+        } finally {
+            step.end();
+        }
+    }
+
+    protected String getPromptReleaseVersion(String defaultVersion) throws MojoFailureException {
         String version = null;
         if (settings.isInteractiveMode()) {
             try {
@@ -1047,67 +2191,155 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      * @throws CommandLineException
      */
     protected void mvnSetVersions(final String version) throws MojoFailureException, CommandLineException {
-        getLog().info("Updating version(s) to '" + version + "'.");
+        final PerformanceReport.Span step = startStep("set versions");
+        try {
+            final GitFlowJournal.Step journalStep = beginJournalStep("set versions", version);
+            if (journalStep != null && journalStep.isCompleted()) {
+                return;
+            }
 
-        String newVersion = "-DnewVersion=" + version;
-        String grp = "";
-        String art = "";
-        if (versionsForceUpdate) {
-            grp = "-DgroupId=";
-            art = "-DartifactId=";
-        }
+            getLog().info("Updating version(s) to '" + version + "'.");
 
-        if (tychoBuild) {
-            String prop = "";
-            if (StringUtils.isNotBlank(versionProperty)) {
-                prop = "-Dproperties=" + versionProperty;
-                getLog().info("Updating property '" + versionProperty + "' to '" + version + "'.");
+            String newVersion = "-DnewVersion=" + version;
+            String grp = "";
+            String art = "";
+            if (versionsForceUpdate) {
+                grp = "-DgroupId=";
+                art = "-DartifactId=";
             }
 
-            executeMvnCommand(TYCHO_VERSIONS_PLUGIN_SET_GOAL, prop, newVersion, "-Dtycho.mode=maven");
-        } else {
-            boolean runCommand = false;
-            List<String> args = new ArrayList<>();
-            args.add("-DgenerateBackupPoms=false");
-            args.add(newVersion);
-            if (!skipUpdateVersion) {
-                runCommand = true;
-                args.add(VERSIONS_MAVEN_PLUGIN_SET_GOAL);
-                args.add(grp);
-                args.add(art);
-            }
-
-            if (StringUtils.isNotBlank(versionProperty)) {
-                runCommand = true;
-                getLog().info("Updating property '" + versionProperty + "' to '" + version + "'.");
-
-                args.add(VERSIONS_MAVEN_PLUGIN_SET_PROPERTY_GOAL);
-                args.add("-Dproperty=" + versionProperty);
-            }
-            if (runCommand) {
-                executeMvnCommand(args.toArray(new String[0]));
-
-                String timestamp = getCurrentProjectOutputTimestamp();
-                if (timestamp != null && timestamp.length() > 1) {
-                    if (StringUtils.isNumeric(timestamp)) {
-                        // int representing seconds since the epoch
-                        timestamp = String.valueOf(System.currentTimeMillis() / 1000l);
+            if (tychoBuild) {
+                String prop = "";
+                if (StringUtils.isNotBlank(versionProperty)) {
+                    prop = "-Dproperties=" + versionProperty;
+                    getLog().info("Updating property '" + versionProperty + "' to '" + version + "'.");
+                }
+
+                executeMvnCommand(MVN_VERSIONS, TYCHO_VERSIONS_PLUGIN_SET_GOAL, prop, newVersion, "-Dtycho.mode=maven");
+            } else if ("inprocess".equalsIgnoreCase(versionUpdater)) {
+                if (!skipUpdateVersion || StringUtils.isNotBlank(versionProperty)) {
+                    if (StringUtils.isNotBlank(versionProperty)) {
+                        getLog().info("Updating property '" + versionProperty + "' to '" + version + "'.");
+                    }
+
+                    String timestamp = newOutputTimestamp(getCurrentProjectOutputTimestamp());
+                    if (timestamp != null) {
+                        getLog().info("Updating property '" + REPRODUCIBLE_BUILDS_PROPERTY + "' to '" + timestamp + "'.");
+                    }
+
+                    if (dryRun) {
+                        getPlan().add(ExecutionPlan.POM, "update version(s) in pom.xml files to '" + version + "'"
+                                + (StringUtils.isNotBlank(versionProperty) ? ", property '" + versionProperty + "'"
+                                        : "")
+                                + (timestamp != null ? ", property '" + REPRODUCIBLE_BUILDS_PROPERTY + "'" : ""));
                     } else {
-                        // ISO-8601
-                        DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
-                        df.setTimeZone(TimeZone.getTimeZone("UTC"));
-                        timestamp = df.format(new Date());
+                        try {
+                            List<File> files = new PomVersionRewriter(worktreeFile(mavenSession.getCurrentProject().getFile())).rewrite(
+                                    version, !skipUpdateVersion, versionsForceUpdate, versionProperty, timestamp);
+                            getLog().debug("Updated " + files.size() + " pom.xml file(s).");
+                        } catch (IOException e) {
+                            throw new MojoFailureException("Error updating versions in pom.xml files.", e);
+                        }
                     }
+                }
+            } else {
+                boolean runCommand = false;
+                List<String> args = new ArrayList<>();
+                args.add("-DgenerateBackupPoms=false");
+                args.add(newVersion);
+                if (!skipUpdateVersion) {
+                    runCommand = true;
+                    args.add(VERSIONS_MAVEN_PLUGIN_SET_GOAL);
+                    args.add(grp);
+                    args.add(art);
+                }
 
-                    getLog().info("Updating property '" + REPRODUCIBLE_BUILDS_PROPERTY + "' to '" + timestamp + "'.");
+                final Properties properties = new Properties();
+                if (StringUtils.isNotBlank(versionProperty)) {
+                    runCommand = true;
+                    getLog().info("Updating property '" + versionProperty + "' to '" + version + "'.");
+                    properties.setProperty(versionProperty, version);
+                }
+                if (runCommand) {
+                    // decided before the versions are changed, so the project model is not reloaded
+                    String timestamp = newOutputTimestamp(getCurrentProjectOutputTimestamp());
+                    if (timestamp != null) {
+                        getLog().info("Updating property '" + REPRODUCIBLE_BUILDS_PROPERTY + "' to '" + timestamp + "'.");
+                        properties.setProperty(REPRODUCIBLE_BUILDS_PROPERTY, timestamp);
+                    }
 
-                    executeMvnCommand(VERSIONS_MAVEN_PLUGIN_SET_PROPERTY_GOAL, "-DgenerateBackupPoms=false",
-                            "-Dproperty=" + REPRODUCIBLE_BUILDS_PROPERTY, "-DnewVersion=" + timestamp);
+                    File propertiesFile = null;
+                    try {
+                        if (properties.size() == 1 && timestamp == null) {
+                            args.add(VERSIONS_MAVEN_PLUGIN_SET_PROPERTY_GOAL);
+                            args.add("-Dproperty=" + versionProperty);
+                        } else if (!properties.isEmpty()) {
+                            // newVersion is used by the set goal, properties with other values go to the file
+                            propertiesFile = writePropertiesVersionsFile(properties);
+                            args.add(VERSIONS_MAVEN_PLUGIN_SET_PROPERTY_GOAL);
+                            args.add("-DpropertiesVersionsFile=" + propertiesFile.getPath());
+                        }
+                        executeMvnCommand(MVN_VERSIONS, args.toArray(new String[0]));
+                    } finally {
+                        if (propertiesFile != null && !propertiesFile.delete()) {
+                            getLog().debug("Cannot delete " + propertiesFile + ".");
+                        }
+                    }
                 }
             }
+            if (dryRun && !skipUpdateVersion) {
+                getPlan().setVersion(version);
+            }
+            deferJournalStep(journalStep);
+        } finally {
+            step.end();
         }
     }
 
+    /**
+     * Writes properties to update with the set-property goal of the
+     * versions-maven-plugin to a temporary file.
+     *
+     * @param properties
+     *            Properties and their new values.
+     * @return File.
+     * @throws MojoFailureException
+     *             If file cannot be written.
+     */
+    private File writePropertiesVersionsFile(final Properties properties) throws MojoFailureException {
+        try {
+            final File file = File.createTempFile("gitflow-versions", ".properties");
+            try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            return file;
+        } catch (IOException e) {
+            throw new MojoFailureException("Error writing properties to update.", e);
+        }
+    }
+
+    /**
+     * Creates new value of the {@link #REPRODUCIBLE_BUILDS_PROPERTY} property
+     * in the same format as the current one.
+     *
+     * @param timestamp
+     *            Current value of the property.
+     * @return New value or <code>null</code> if property should not be updated.
+     */
+    private String newOutputTimestamp(final String timestamp) {
+        if (timestamp == null || timestamp.length() <= 1) {
+            return null;
+        }
+        if (StringUtils.isNumeric(timestamp)) {
+            // int representing seconds since the epoch
+            return String.valueOf(System.currentTimeMillis() / 1000l);
+        }
+        // ISO-8601
+        DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        df.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return df.format(new Date());
+    }
+
     /**
      * Executes mvn clean test.
      *
@@ -1116,14 +2348,517 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      */
     protected void mvnCleanTest() throws MojoFailureException,
             CommandLineException {
-        getLog().info("Cleaning and testing the project.");
-        if (tychoBuild) {
-            executeMvnCommand("clean", "verify");
+        mvnCleanTest(null);
+    }
+
+    /**
+     * Executes mvn clean test of the given modules, the modules depending on
+     * them and their dependencies in the reactor.
+     *
+     * @param modules
+     *            Module directories relative to the execution root,
+     *            <code>null</code> to test all modules.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    protected void mvnCleanTest(final List<String> modules) throws MojoFailureException,
+            CommandLineException {
+        final PerformanceReport.Span step = startStep("test");
+        try {
+            final GitFlowJournal.Step journalStep = beginJournalStep("test",
+                    modules == null ? null : StringUtils.join(modules.iterator(), ","));
+            if (journalStep != null && journalStep.isCompleted()) {
+                return;
+            }
+            if (modules != null && modules.isEmpty()) {
+                getLog().info("Skipping testing of the project, no modules were changed.");
+                completeJournalStep(journalStep, false);
+                return;
+            }
+
+            final List<String> argList = new ArrayList<>(Arrays.asList("clean", tychoBuild ? "verify" : "test"));
+            if (modules != null) {
+                argList.add("-pl");
+                argList.add(StringUtils.join(modules.iterator(), ","));
+                // unchanged dependencies can have a not installed feature version
+                argList.add("-am");
+                argList.add("-amd");
+            }
+            final String[] args = argList.toArray(new String[0]);
+            final String tree = dryRun || !(testCache || shareTestResults || reuseTestBuild) ? null : headTree();
+            final String cacheKey = tree == null || !testCache ? null : testCacheKey(tree, args);
+            final TestResultCache cache = cacheKey == null ? null
+                    : new TestResultCache(new File(getGitCommonDir(), "gitflow" + File.separator + "test-cache"));
+            if (cache != null && cache.contains(cacheKey)) {
+                getLog().info("Skipping testing of the project, the same sources were already tested successfully ("
+                        + cacheKey + ").");
+                completeJournalStep(journalStep, false);
+                return;
+            }
+            final String noteKey = tree != null && shareTestResults ? testedNoteKey(tree, args) : null;
+            if (noteKey != null) {
+                final String note = findTestedNote(tree, noteKey);
+                if (note != null) {
+                    getLog().info("Skipping testing of the project, the same sources were already tested successfully"
+                            + " (" + note + ").");
+                    completeJournalStep(journalStep, false);
+                    return;
+                }
+            }
+
+            getLog().info("Cleaning and testing the project.");
+            executeMvnCommand(MVN_TEST, args);
+            final String commandLine = ExecutionPlan.commandLine(cmdMvn.getExecutable(), mvnArgLine(MVN_TEST), args);
+            if (cache != null) {
+                try {
+                    cache.put(cacheKey, commandLine);
+                } catch (IOException e) {
+                    getLog().warn("Cannot write test cache: " + e.getMessage());
+                }
+            }
+            if (modules != null) {
+                // only the whole project is recorded as tested
+                testBuildTree = null;
+                completeJournalStep(journalStep, false);
+                return;
+            }
+            if (noteKey != null) {
+                if (skipsTests(StringUtils.defaultString(argLine) + " " + StringUtils.defaultString(testArgLine))) {
+                    getLog().info("Tested note is not added, arguments skip tests.");
+                } else {
+                    addTestedNote(tree, noteKey, commandLine);
+                }
+            }
+            if (reuseTestBuild && !tychoBuild) {
+                testBuildTree = tree;
+                testBuildDir = mvnWorkingDirectory();
+            }
+            completeJournalStep(journalStep, false);
+        } finally {
+            step.end();
+        }
+    }
+
+    /**
+     * Finds reactor modules changed in the branch since it diverged from the
+     * base branch.
+     *
+     * @param baseBranchName
+     *            Base branch name, e.g. development branch.
+     * @param branchName
+     *            Branch name.
+     * @return Module directories relative to the execution root or
+     *         <code>null</code> if all modules must be tested, e.g. the root
+     *         pom.xml was changed.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    protected List<String> gitChangedModules(final String baseBranchName, final String branchName)
+            throws MojoFailureException, CommandLineException {
+        final CommandResult diff = executeGitCommandExitCode("diff", "--name-only", "--no-renames",
+                baseBranchName + "..." + branchName);
+        final CommandResult prefix = executeGitCommandExitCode("rev-parse", "--show-prefix");
+        if (diff.getExitCode() != SUCCESS_EXIT_CODE || prefix.getExitCode() != SUCCESS_EXIT_CODE) {
+            getLog().warn("Cannot find changed files, testing all modules.");
+            return null;
+        }
+
+        final File root = new File(mavenSession.getExecutionRootDirectory());
+        final List<String> moduleDirs = new ArrayList<>();
+        for (MavenProject project : mavenSession.getProjects()) {
+            final String dir = relativePath(root, project.getBasedir());
+            if (dir != null && !dir.isEmpty()) {
+                moduleDirs.add(dir);
+            }
+        }
+        final List<String> changedPaths = new ArrayList<>();
+        for (String line : StringUtils.split(diff.getOut(), "\r\n")) {
+            if (StringUtils.isNotBlank(line)) {
+                changedPaths.add(line.trim());
+            }
+        }
+        // feature versions in pom.xml files don't affect tests
+        final Set<String> versionOnlyPaths = new HashSet<>();
+        final CommandResult mergeBase = executeGitCommandExitCode("merge-base", baseBranchName, branchName);
+        if (mergeBase.getExitCode() == SUCCESS_EXIT_CODE) {
+            for (String path : changedPaths) {
+                if (isVersionOnlyPomChange(mergeBase.getOut().trim(), branchName, path)) {
+                    versionOnlyPaths.add(path);
+                }
+            }
+        }
+
+        final List<String> modules = changedModules(StringUtils.strip(prefix.getOut()), moduleDirs, changedPaths,
+                versionOnlyPaths);
+        if (modules == null) {
+            getLog().info("Files outside of the modules or pom.xml files were changed, testing all modules.");
+        } else {
+            getLog().info("Changed modules: " + (modules.isEmpty() ? "none" : StringUtils.join(modules.iterator(), ", "))
+                    + ".");
+        }
+        return modules;
+    }
+
+    /**
+     * Maps changed files to the modules.
+     *
+     * @param prefix
+     *            Path of the execution root relative to the top level
+     *            directory of the repository, ending with <code>/</code>, or
+     *            empty.
+     * @param moduleDirs
+     *            Module directories relative to the execution root, not
+     *            including the root project.
+     * @param changedPaths
+     *            Changed files relative to the top level directory of the
+     *            repository.
+     * @param versionOnlyPaths
+     *            Changed pom.xml files with only versions changed, these are
+     *            ignored.
+     * @return Changed modules or <code>null</code> if a file which doesn't
+     *         belong to any module or other pom.xml file was changed.
+     */
+    static List<String> changedModules(final String prefix, final List<String> moduleDirs,
+            final List<String> changedPaths, final Collection<String> versionOnlyPaths) {
+        final List<String> dirs = new ArrayList<>(moduleDirs);
+        // the most nested module owns the file
+        Collections.sort(dirs, new Comparator<String>() {
+            @Override
+            public int compare(final String d1, final String d2) {
+                return d2.length() - d1.length();
+            }
+        });
+        final Set<String> modules = new LinkedHashSet<>();
+        for (String path : changedPaths) {
+            if (versionOnlyPaths.contains(path)) {
+                continue;
+            }
+            // e.g. other dependency versions change the build of all modules
+            if (!path.startsWith(prefix) || isPom(path)) {
+                return null;
+            }
+            final String relative = path.substring(prefix.length());
+            String owner = null;
+            for (String dir : dirs) {
+                if (relative.startsWith(dir + "/")) {
+                    owner = dir;
+                    break;
+                }
+            }
+            if (owner == null) {
+                return null;
+            }
+            modules.add(owner);
+        }
+        return new ArrayList<>(modules);
+    }
+
+    private static boolean isPom(final String path) {
+        return "pom.xml".equals(path.substring(path.lastIndexOf('/') + 1));
+    }
+
+    /**
+     * Checks if the pom.xml differs between the revisions only in the versions
+     * updated by the plugin, i.e. versions of the reactor artifacts,
+     * <code>versionProperty</code> and
+     * <code>project.build.outputTimestamp</code>.
+     *
+     * @param oldRevision
+     *            Old commit or tree.
+     * @param newRevision
+     *            New commit or tree.
+     * @param path
+     *            Path relative to the top level directory of the repository.
+     * @return <code>true</code> if only versions were changed,
+     *         <code>false</code> if file is not pom.xml, was added or
+     *         deleted.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    private boolean isVersionOnlyPomChange(final String oldRevision, final String newRevision, final String path)
+            throws MojoFailureException, CommandLineException {
+        if (!isPom(path)) {
+            return false;
+        }
+        final CommandResult oldPom = executeGitCommandExitCode("show", oldRevision + ":" + path);
+        final CommandResult newPom = executeGitCommandExitCode("show", newRevision + ":" + path);
+        if (oldPom.getExitCode() != SUCCESS_EXIT_CODE || newPom.getExitCode() != SUCCESS_EXIT_CODE) {
+            return false;
+        }
+        final Set<String> artifacts = new HashSet<>();
+        for (MavenProject project : mavenSession.getProjects()) {
+            artifacts.add(project.getGroupId() + ":" + project.getArtifactId());
+        }
+        final List<String> properties = new ArrayList<>();
+        properties.add(REPRODUCIBLE_BUILDS_PROPERTY);
+        if (StringUtils.isNotBlank(versionProperty)) {
+            properties.add(versionProperty);
+        }
+        return PomVersionRewriter.isVersionOnlyChange(oldPom.getOut(), newPom.getOut(), artifacts, properties);
+    }
+
+    private static String relativePath(final File root, final File file) {
+        try {
+            final String relative = root.getCanonicalFile().toPath().relativize(file.getCanonicalFile().toPath())
+                    .toString().replace(File.separatorChar, '/');
+            return relative.startsWith("..") ? null : relative;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets git tree id of the sources in the working tree.
+     *
+     * @return Tree id of <code>HEAD</code> or <code>null</code> if sources
+     *         cannot be identified, e.g. there are uncommitted changes.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    private String headTree() throws MojoFailureException, CommandLineException {
+        if (getGitBackend().hasUncommittedChanges()) {
+            getLog().debug("Sources are not identified by the tree, there are uncommitted changes.");
+            return null;
+        }
+        final CommandResult tree = executeGitCommandExitCode("rev-parse", "--verify", "--quiet", "HEAD^{tree}");
+        if (tree.getExitCode() != SUCCESS_EXIT_CODE || StringUtils.isBlank(tree.getOut())) {
+            return null;
+        }
+        return tree.getOut().trim();
+    }
+
+    /**
+     * Creates test cache key of the sources.
+     *
+     * @param tree
+     *            Tree id of the sources.
+     * @param args
+     *            Maven arguments of the test run.
+     * @return Key.
+     */
+    private String testCacheKey(final String tree, final String... args) {
+        initExecutables();
+        final List<String> key = new ArrayList<>();
+        key.add(cmdMvn.getExecutable());
+        key.addAll(testArguments(args));
+        // tests may pass on one JDK and fail on another
+        key.add(StringUtils.defaultString(System.getenv("JAVA_HOME")));
+        return TestResultCache.key(tree, key);
+    }
+
+    /**
+     * Creates key of the sources and the test arguments written to tested
+     * notes. Unlike {@link #testCacheKey} it doesn't depend on the paths of
+     * the machine.
+     *
+     * @param tree
+     *            Tree id of the sources.
+     * @param args
+     *            Maven arguments of the test run.
+     * @return Key.
+     */
+    private String testedNoteKey(final String tree, final String... args) {
+        return TestResultCache.key(tree, testArguments(args));
+    }
+
+    private List<String> testArguments(final String... args) {
+        final List<String> result = new ArrayList<>();
+        // number of threads doesn't change the result
+        result.add(stripThreads(StringUtils.defaultString(argLine) + " " + StringUtils.defaultString(testArgLine)));
+        result.addAll(Arrays.asList(args));
+        return result;
+    }
+
+    /**
+     * Checks if Maven arguments skip all or some of the tests.
+     *
+     * @param line
+     *            Arguments.
+     * @return <code>true</code> if tests are skipped or selected.
+     */
+    static boolean skipsTests(final String line) {
+        for (String arg : StringUtils.split(StringUtils.defaultString(line), " \t")) {
+            final int eq = arg.indexOf('=');
+            final String name = !arg.startsWith("-D") ? "" : eq == -1 ? arg.substring(2) : arg.substring(2, eq);
+            final String value = eq == -1 ? "true" : arg.substring(eq + 1);
+            if (("skipTests".equals(name) || "maven.test.skip".equals(name)) && !"false".equals(value)
+                    || "test".equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the tested note marks the sources as tested.
+     *
+     * @param note
+     *            Text of the note, possibly appended by several runs.
+     * @param key
+     *            Key of the sources and the test arguments.
+     * @param trusted
+     *            Comma separated beginnings of trusted notes or
+     *            <code>null</code>.
+     * @return Line of the note which marks the sources as tested or
+     *         <code>null</code>.
+     */
+    static String matchTestedNote(final String note, final String key, final String trusted) {
+        final List<String> trustedLines = new ArrayList<>();
+        for (String line : StringUtils.split(StringUtils.defaultString(trusted), ",")) {
+            if (StringUtils.isNotBlank(line)) {
+                trustedLines.add(line.trim());
+            }
+        }
+        String previous = null;
+        for (String line : StringUtils.split(StringUtils.defaultString(note), "\r\n")) {
+            line = line.trim();
+            for (String trustedLine : trustedLines) {
+                if (line.startsWith(trustedLine)) {
+                    return line;
+                }
+            }
+            if (line.equals(TESTED_NOTE_KEY + key)) {
+                // key follows the tested command line
+                return previous == null ? line : previous;
+            }
+            previous = line;
+        }
+        return null;
+    }
+
+    /**
+     * @return Ref the tested notes of the remote are fetched to.
+     */
+    private String remoteTestedNotesRef() {
+        return "refs/notes/remotes/" + gitFlowConfig.getOrigin() + "/gitflow-tested";
+    }
+
+    /**
+     * Finds note marking the tree as tested with the same arguments or a
+     * trusted note, either local or fetched from the remote.
+     *
+     * @param tree
+     *            Tree id.
+     * @param key
+     *            Key of the sources and the test arguments.
+     * @return Line of the note or <code>null</code> if tree is not marked as
+     *         tested.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    private String findTestedNote(final String tree, final String key)
+            throws MojoFailureException, CommandLineException {
+        for (String ref : Arrays.asList(TESTED_NOTES_REF, remoteTestedNotesRef())) {
+            if (!getRefSnapshot().hasRef(ref)) {
+                continue;
+            }
+            final CommandResult note = executeGitCommandExitCode("notes", "--ref=" + ref, "show", tree);
+            if (note.getExitCode() == SUCCESS_EXIT_CODE) {
+                final String line = matchTestedNote(note.getOut(), key, trustedTestedNotes);
+                if (line != null) {
+                    return ref + ": " + line;
+                }
+                getLog().debug("Tree is tested with other arguments: " + StringUtils.strip(note.getOut()));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Marks the tree as tested with a note, which is pushed with the branches.
+     * Notes fetched from the remote are merged first, so the push is a fast
+     * forward. Failures are only logged.
+     *
+     * @param tree
+     *            Tree id.
+     * @param key
+     *            Key of the sources and the test arguments.
+     * @param commandLine
+     *            Command line of the test run.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    private void addTestedNote(final String tree, final String key, final String commandLine)
+            throws MojoFailureException, CommandLineException {
+        if (getRefSnapshot().hasRef(remoteTestedNotesRef())) {
+            executeGitCommandExitCode("notes", "--ref=" + TESTED_NOTES_REF, "merge", "--quiet", "-s",
+                    "cat_sort_uniq", remoteTestedNotesRef());
+        }
+        final CommandResult result = executeGitCommandExitCode("notes", "--ref=" + TESTED_NOTES_REF, "append",
+                "-m", "Tested with " + commandLine, "-m", TESTED_NOTE_KEY + key, tree);
+        refSnapshot.invalidate();
+        if (result.getExitCode() == SUCCESS_EXIT_CODE) {
+            testedNotesChanged = true;
         } else {
-            executeMvnCommand("clean", "test");
+            getLog().warn("Cannot add tested note: " + StringUtils.strip(result.getError()));
+        }
+    }
+
+    /**
+     * Pushes tested notes added by this execution. Failures are only logged,
+     * notes are not essential.
+     *
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    private void gitPushTestedNotes() throws MojoFailureException, CommandLineException {
+        if (!testedNotesChanged) {
+            return;
+        }
+        testedNotesChanged = false;
+        getLog().info("Pushing tested notes to '" + gitFlowConfig.getOrigin() + "'.");
+        final CommandResult result = executeGitCommandExitCode("push", "--quiet", gitFlowConfig.getOrigin(),
+                TESTED_NOTES_REF + ":" + TESTED_NOTES_REF);
+        if (result.getExitCode() != SUCCESS_EXIT_CODE) {
+            getLog().warn("Cannot push tested notes: " + StringUtils.strip(result.getError()));
         }
     }
 
+    /**
+     * Checks if the project can be installed reusing the outputs of the test
+     * run, i.e. it runs in the same directory and the sources differ only in
+     * versions of the reactor artifacts and properties updated by the plugin.
+     *
+     * @return <code>true</code> if <code>clean</code> and tests can be
+     *         skipped.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    private boolean canReuseTestBuild() throws MojoFailureException, CommandLineException {
+        if (testBuildTree == null || dryRun || !mvnWorkingDirectory().equals(testBuildDir)) {
+            return false;
+        }
+        final String tree = headTree();
+        if (tree == null) {
+            return false;
+        }
+        if (tree.equals(testBuildTree)) {
+            return true;
+        }
+        final CommandResult diff = executeGitCommandExitCode("diff", "--name-only", "--no-renames", testBuildTree,
+                tree);
+        if (diff.getExitCode() != SUCCESS_EXIT_CODE) {
+            return false;
+        }
+        for (String path : StringUtils.split(diff.getOut(), "\r\n")) {
+            // e.g. other dependency version or scope changes the tested artifacts
+            if (StringUtils.isNotBlank(path) && !isVersionOnlyPomChange(testBuildTree, tree, path.trim())) {
+                getLog().debug("Outputs of the tests are not reused, " + path.trim() + " was changed.");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Directory Maven commands are executed in.
+     * @throws MojoFailureException
+     */
+    private File mvnWorkingDirectory() throws MojoFailureException {
+        final File dir = new File(System.getProperty("user.dir"));
+        return worktrees ? worktreeFile(dir) : dir;
+    }
+
     /**
      * Executes mvn clean install.
      *
@@ -1132,9 +2867,26 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      */
     protected void mvnCleanInstall() throws MojoFailureException,
             CommandLineException {
-        getLog().info("Cleaning and installing the project.");
+        final PerformanceReport.Span step = startStep("install");
+        try {
+            final GitFlowJournal.Step journalStep = beginJournalStep("install", null);
+            if (journalStep != null && journalStep.isCompleted()) {
+                return;
+            }
 
-        executeMvnCommand("clean", "install");
+            if (canReuseTestBuild()) {
+                getLog().info("Installing the project reusing the outputs of the tests,"
+                        + " sources differ only in versions.");
+                executeMvnCommand(MVN_INSTALL, "install", "-DskipTests");
+            } else {
+                getLog().info("Cleaning and installing the project.");
+                executeMvnCommand(MVN_INSTALL, "clean", "install");
+            }
+            testBuildTree = null;
+            completeJournalStep(journalStep, false);
+        } finally {
+            step.end();
+        }
     }
 
     /**
@@ -1145,9 +2897,114 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      * @throws Exception
      */
     protected void mvnRun(final String goals) throws Exception {
-        getLog().info("Running Maven goals: " + goals);
+        final PerformanceReport.Span step = startStep("run goals");
+        try {
+            final GitFlowJournal.Step journalStep = beginJournalStep("run goals", goals);
+            if (journalStep != null && journalStep.isCompleted()) {
+                return;
+            }
+
+            getLog().info("Running Maven goals: " + goals);
+            // goals may change or clean the build outputs
+            testBuildTree = null;
+
+            final String[] args = CommandLineUtils.translateCommandline(goals);
+            if ("session".equalsIgnoreCase(goalsExecution) && !dryRun && !isForkedGoal(args)) {
+                List<String> allArgs = new ArrayList<>(Arrays.asList(args));
+                if (StringUtils.isNotBlank(argLine)) {
+                    allArgs.addAll(Arrays.asList(CommandLineUtils.translateCommandline(argLine)));
+                }
+                if (StringUtils.isNotBlank(goalsArgLine)) {
+                    allArgs.addAll(Arrays.asList(CommandLineUtils.translateCommandline(goalsArgLine)));
+                }
+                GoalsInvocation invocation = GoalsInvocation.parse(allArgs.toArray(new String[0]));
+                if (invocation != null) {
+                    executeInSession(goals, invocation);
+                    // goals may commit, tag or checkout
+                    refSnapshot.invalidate();
+                    completeJournalStep(journalStep, true);
+                    return;
+                }
+                getLog().info("Goals cannot be executed in the current session, running separate Maven process.");
+            }
 
-        executeMvnCommand(CommandLineUtils.translateCommandline(goals));
+            executeMvnCommand(MVN_GOALS, args);
+            refSnapshot.invalidate();
+            completeJournalStep(journalStep, true);
+        } finally {
+            step.end();
+        }
+    }
+
+    /**
+     * Checks if any of the goals is configured in {@link #forkedGoals}.
+     *
+     * @param args
+     *            Maven command line arguments.
+     * @return <code>true</code> if goals must be executed in a separate
+     *         process.
+     */
+    private boolean isForkedGoal(final String[] args) {
+        if (StringUtils.isBlank(forkedGoals)) {
+            return false;
+        }
+        final List<String> forked = new ArrayList<>();
+        for (String goal : forkedGoals.split(",")) {
+            forked.add(goal.trim());
+        }
+        for (String arg : args) {
+            if (forked.contains(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Executes Maven goals in the current Maven JVM.
+     *
+     * @param goals
+     *            The goals to execute, used for messages.
+     * @param invocation
+     *            Translated command line arguments.
+     * @throws MojoFailureException
+     *             If build fails.
+     */
+    private void executeInSession(final String goals, final GoalsInvocation invocation)
+            throws MojoFailureException {
+        final MavenExecutionRequest request = DefaultMavenExecutionRequest.copy(mavenSession.getRequest());
+        request.setGoals(invocation.getGoals());
+        request.setUserProperties(invocation.getUserProperties());
+        request.addActiveProfiles(invocation.getActiveProfiles());
+        request.addInactiveProfiles(invocation.getInactiveProfiles());
+        request.setSelectedProjects(new ArrayList<String>());
+        request.setExcludedProjects(new ArrayList<String>());
+        request.setResumeFrom(null);
+        request.setMakeBehavior(null);
+        request.setStartTime(new Date());
+        if (request.getPom() != null) {
+            request.setPom(worktreeFile(request.getPom()));
+            request.setBaseDirectory(request.getPom().getParentFile());
+        }
+        if (invocation.isOffline()) {
+            request.setOffline(true);
+        }
+
+        final Thread thread = Thread.currentThread();
+        final ClassLoader classLoader = thread.getContextClassLoader();
+        final MavenExecutionResult result;
+        try {
+            thread.setContextClassLoader(maven.getClass().getClassLoader());
+            result = maven.execute(request);
+        } finally {
+            thread.setContextClassLoader(classLoader);
+            legacySupport.setSession(mavenSession);
+        }
+
+        if (result.hasExceptions()) {
+            throw new MojoFailureException("Error executing Maven goals: " + goals,
+                    result.getExceptions().get(0));
+        }
     }
 
     /**
@@ -1159,7 +3016,7 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      * @throws CommandLineException
      * @throws MojoFailureException
      */
-    private String executeGitCommandReturn(final String... args)
+    String executeGitCommandReturn(final String... args)
             throws CommandLineException, MojoFailureException {
         return executeCommand(cmdGit, true, null, args).getOut();
     }
@@ -1173,7 +3030,7 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      * @throws CommandLineException
      * @throws MojoFailureException
      */
-    private CommandResult executeGitCommandExitCode(final String... args)
+    CommandResult executeGitCommandExitCode(final String... args)
             throws CommandLineException, MojoFailureException {
         return executeCommand(cmdGit, false, null, args);
     }
@@ -1186,22 +3043,139 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
      * @throws CommandLineException
      * @throws MojoFailureException
      */
-    private void executeGitCommand(final String... args)
+    void executeGitCommand(final String... args)
             throws CommandLineException, MojoFailureException {
         executeCommand(cmdGit, true, null, args);
     }
 
+    /**
+     * Gets additional arguments of the Maven invocation, i.e.
+     * <code>argLine</code>, arguments of the invocation and the number of
+     * build threads.
+     *
+     * @param invocation
+     *            Kind of the invocation, e.g. {@link #MVN_TEST}.
+     * @return Arguments or <code>null</code>.
+     */
+    private String mvnArgLine(final String invocation) {
+        final String extra;
+        if (MVN_TEST.equals(invocation)) {
+            extra = testArgLine;
+        } else if (MVN_INSTALL.equals(invocation)) {
+            extra = installArgLine;
+        } else if (MVN_VERSIONS.equals(invocation)) {
+            extra = versionsArgLine;
+        } else {
+            extra = goalsArgLine;
+        }
+        String line = StringUtils.defaultString(argLine);
+        if (MVN_VERSIONS.equals(invocation)) {
+            // versions are updated in a single aggregator execution
+            line = stripThreads(line);
+        }
+        if (StringUtils.isNotBlank(extra)) {
+            line = line + " " + extra;
+        }
+        if (!THREADS_PATTERN.matcher(line).find()) {
+            final String threads = MVN_VERSIONS.equals(invocation) ? null : buildThreadsArg();
+            if (threads != null) {
+                line = line + " -T " + threads;
+            } else if (mvnDaemon) {
+                // daemon builds in parallel by default
+                line = line + " -T 1";
+            }
+        }
+        if (mvnDaemon) {
+            // plain output without the rich console
+            line = "-B --raw-streams " + line;
+        }
+        return StringUtils.isBlank(line) ? null : line.trim();
+    }
+
+    /**
+     * Removes <code>-T</code> argument.
+     *
+     * @param line
+     *            Arguments.
+     * @return Arguments without number of threads.
+     */
+    static String stripThreads(final String line) {
+        return THREADS_PATTERN.matcher(line).replaceAll("$1").trim();
+    }
+
+    /**
+     * @return Value of the <code>-T</code> argument or <code>null</code> to
+     *         build with a single thread.
+     */
+    private String buildThreadsArg() {
+        if (StringUtils.isBlank(buildThreads) || "1".equals(buildThreads.trim())) {
+            return null;
+        }
+        if (!"auto".equalsIgnoreCase(buildThreads.trim())) {
+            return buildThreads.trim();
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (mavenSession != null && mavenSession.getProjects() != null) {
+            threads = Math.min(threads, mavenSession.getProjects().size());
+        }
+        return threads > 1 ? String.valueOf(threads) : null;
+    }
+
     /**
      * Executes Maven command.
      *
+     * @param invocation
+     *            Kind of the invocation, e.g. {@link #MVN_TEST}.
      * @param args
      *            Maven command line arguments.
      * @throws CommandLineException
      * @throws MojoFailureException
      */
-    private void executeMvnCommand(final String... args)
+    private void executeMvnCommand(final String invocation, final String... args)
             throws CommandLineException, MojoFailureException {
-        executeCommand(cmdMvn, true, argLine, args);
+        initExecutables();
+        final String mvnArgLine = mvnArgLine(invocation);
+        if (dryRun) {
+            getPlan().add(ExecutionPlan.MVN, ExecutionPlan.commandLine(cmdMvn.getExecutable(), mvnArgLine, args));
+            return;
+        }
+        File spillFile = null;
+        mvnCommandCount++;
+        if (spillOutput) {
+            String goal = args.length > 0 ? args[args.length - 1] : "";
+            for (String arg : args) {
+                if (StringUtils.isNotBlank(arg) && !arg.startsWith("-")) {
+                    goal = arg;
+                    break;
+                }
+            }
+            spillFile = new File(mavenSession.getCurrentProject().getBuild().getDirectory(),
+                    "gitflow" + File.separator + "mvn-"
+                            + new SimpleDateFormat("yyyyMMddHHmmss").format(mavenSession.getStartTime()) + "-"
+                            + mvnCommandCount + "-"
+                            + goal.replaceAll("[^A-Za-z0-9._-]", "_") + ".log");
+        }
+
+        final TailStreamConsumer out = new TailStreamConsumer(getLog(), verbose, outputTailLines, spillFile);
+        final TailStreamConsumer err = new TailStreamConsumer(getLog(), verbose, outputTailLines, null);
+        final int exitCode;
+        try {
+            exitCode = executeCommand(cmdMvn, mvnArgLine, out, err, args);
+        } finally {
+            out.close();
+        }
+
+        if (spillFile != null) {
+            getLog().info("Output of Maven command is written to " + spillFile);
+        }
+        if (exitCode != SUCCESS_EXIT_CODE) {
+            String errorStr = err.getOutput();
+            // not all commands print errors to error stream
+            if (StringUtils.isBlank(errorStr)) {
+                errorStr = out.getOutput();
+            }
+            throw new MojoFailureException(errorStr);
+        }
     }
 
     /**
@@ -1226,9 +3200,216 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
             final boolean failOnError, final String argStr,
             final String... args) throws CommandLineException,
             MojoFailureException {
+        if (dryRun && cmd == cmdGit && ExecutionPlan.isMutatingGitCommand(args)) {
+            initExecutables();
+            getPlan().add(ExecutionPlan.GIT, ExecutionPlan.commandLine(cmd.getExecutable(), argStr, args));
+            return new CommandResult(SUCCESS_EXIT_CODE, "", "");
+        }
+
+        final StringBufferStreamConsumer out = new StringBufferStreamConsumer(
+                verbose);
+
+        final CommandLineUtils.StringStreamConsumer err = new CommandLineUtils.StringStreamConsumer();
+
+        // execute
+        final int exitCode = executeCommand(cmd, argStr, out, err, args);
+
+        String errorStr = err.getOutput();
+        String outStr = out.getOutput();
+
+        if (failOnError && exitCode != SUCCESS_EXIT_CODE) {
+            // not all commands print errors to error stream
+            if (StringUtils.isBlank(errorStr) && StringUtils.isNotBlank(outStr)) {
+                errorStr = outStr;
+            }
+
+            throw new MojoFailureException(errorStr);
+        }
+
+        return new CommandResult(exitCode, outStr, errorStr);
+    }
+
+    /**
+     * Executes Maven command in the given directory. Unlike other commands it
+     * can be executed from several threads at once, the output is not passed
+     * to the performance report.
+     *
+     * @param dir
+     *            Working directory.
+     * @param argStr
+     *            Additional string arguments.
+     * @param logFile
+     *            File to write the full output to or <code>null</code>.
+     * @param args
+     *            Command line arguments.
+     * @return {@link CommandResult} instance holding command exit code and the
+     *         last lines of the output.
+     * @throws CommandLineException
+     */
+    protected CommandResult executeMvnCommandIn(final File dir, final String argStr, final File logFile,
+            final String... args) throws CommandLineException {
+        final Commandline cmd = new Commandline();
+        cmd.setExecutable(getMvnExecutable());
+        cmd.setWorkingDirectory(dir);
+        cmd.addArguments(args);
+        if (StringUtils.isNotBlank(argStr)) {
+            cmd.createArg().setLine(argStr);
+        }
+        if (getLog().isDebugEnabled()) {
+            getLog().debug(dir + ": " + StringUtils.join(cmd.getCommandline(), " "));
+        }
+
+        final TailStreamConsumer out = new TailStreamConsumer(getLog(), false, outputTailLines, logFile);
+        final int exitCode;
+        try {
+            exitCode = CommandLineUtils.executeCommandLine(cmd, out, out);
+        } finally {
+            out.close();
+        }
+        return new CommandResult(exitCode, out.getOutput(), "");
+    }
+
+    /**
+     * @return Maven executable.
+     */
+    protected synchronized String getMvnExecutable() {
+        initExecutables();
+        return cmdMvn.getExecutable();
+    }
+
+    /**
+     * Executes git command in the given directory. Like
+     * {@link #executeMvnCommandIn} it can be executed from several threads at
+     * once.
+     *
+     * @param dir
+     *            Working directory.
+     * @param args
+     *            Command line arguments.
+     * @return {@link CommandResult} instance holding command exit code, output
+     *         and error if any.
+     * @throws CommandLineException
+     */
+    protected CommandResult executeGitCommandIn(final File dir, final String... args) throws CommandLineException {
+        final Commandline cmd = new Commandline();
+        synchronized (this) {
+            initExecutables();
+            cmd.setExecutable(cmdGit.getExecutable());
+        }
+        cmd.setWorkingDirectory(dir);
+        cmd.addArguments(args);
+        if (getLog().isDebugEnabled()) {
+            getLog().debug(dir + ": " + StringUtils.join(cmd.getCommandline(), " "));
+        }
+
+        final StringBufferStreamConsumer out = new StringBufferStreamConsumer(false);
+        final CommandLineUtils.StringStreamConsumer err = new CommandLineUtils.StringStreamConsumer();
+        final int exitCode = CommandLineUtils.executeCommandLine(cmd, out, err);
+        return new CommandResult(exitCode, out.getOutput(), err.getOutput());
+    }
+
+    /**
+     * Executes git commit -a -m in the given directory, replacing
+     * <code>@{map.key}</code> with <code>map.value</code>. Can be executed
+     * from several threads at once.
+     *
+     * @param dir
+     *            Working directory.
+     * @param message
+     *            Commit message.
+     * @param messageProperties
+     *            Properties to replace in message.
+     * @throws MojoFailureException
+     *             If commit fails.
+     * @throws CommandLineException
+     */
+    protected void gitCommitIn(final File dir, String message, final Map<String, String> messageProperties)
+            throws MojoFailureException, CommandLineException {
+        if (StringUtils.isNotBlank(commitMessagePrefix)) {
+            message = commitMessagePrefix + message;
+        }
+        message = replaceProperties(message, messageProperties);
+
+        final CommandResult result = gpgSignCommit ? executeGitCommandIn(dir, "commit", "-a", "-S", "-m", message)
+                : executeGitCommandIn(dir, "commit", "-a", "-m", message);
+        if (result.getExitCode() != SUCCESS_EXIT_CODE) {
+            throw new MojoFailureException(StringUtils.isBlank(result.getError()) ? result.getOut()
+                    : result.getError());
+        }
+    }
+
+    /**
+     * Executes tasks on a pool of threads, e.g. tasks working with different
+     * repositories.
+     *
+     * @param tasks
+     *            Tasks.
+     * @param threads
+     *            Maximum number of threads, the number of available processors
+     *            if not positive.
+     * @return Results of the tasks in the same order.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    protected <T> List<T> executeInParallel(final List<Callable<T>> tasks, final int threads)
+            throws MojoFailureException, CommandLineException {
+        final List<T> results = new ArrayList<>(tasks.size());
+        if (tasks.isEmpty()) {
+            return results;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), tasks.size()));
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MojoFailureException) {
+                throw (MojoFailureException) e.getCause();
+            }
+            if (e.getCause() instanceof CommandLineException) {
+                throw (CommandLineException) e.getCause();
+            }
+            throw new MojoFailureException("Error executing tasks", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoFailureException("Interrupted while executing tasks", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Executes command line passing its output to the consumers.
+     *
+     * @param cmd
+     *            Command line.
+     * @param argStr
+     *            Additional string arguments.
+     * @param out
+     *            Consumer of the standard output.
+     * @param err
+     *            Consumer of the error output.
+     * @param args
+     *            Command line arguments.
+     * @return Exit code.
+     * @throws CommandLineException
+     */
+    private int executeCommand(final Commandline cmd, final String argStr, final StreamConsumer out,
+            final StreamConsumer err, final String... args) throws CommandLineException {
         // initialize executables
         initExecutables();
 
+        if (worktrees) {
+            final File dir = new File(System.getProperty("user.dir"));
+            try {
+                cmd.setWorkingDirectory(worktreeFile(dir));
+            } catch (MojoFailureException e) {
+                throw new CommandLineException(e.getMessage(), e);
+            }
+        }
+
         if (getLog().isDebugEnabled()) {
             getLog().debug(
                     cmd.getExecutable() + " " + StringUtils.join(args, " ")
@@ -1242,30 +3423,155 @@ public abstract class AbstractGitFlowMojo extends AbstractMojo {
             cmd.createArg().setLine(argStr);
         }
 
-        final StringBufferStreamConsumer out = new StringBufferStreamConsumer(
-                verbose);
+        final PerformanceReport.Span span = getReport().start(PerformanceReport.COMMAND,
+                new File(cmd.getExecutable()).getName(),
+                cmd.getExecutable() + " " + StringUtils.join(args, " ") + (argStr == null ? "" : " " + argStr));
+        try {
+            return CommandLineUtils.executeCommandLine(cmd, countingConsumer(out, span),
+                    countingConsumer(err, span));
+        } finally {
+            span.end();
+        }
+    }
 
-        final CommandLineUtils.StringStreamConsumer err = new CommandLineUtils.StringStreamConsumer();
+    /**
+     * Wraps stream consumer to add size of the consumed lines to the span.
+     *
+     * @param consumer
+     *            Consumer to pass lines to.
+     * @param span
+     *            Span to add output size to.
+     * @return Counting consumer.
+     */
+    private static StreamConsumer countingConsumer(final StreamConsumer consumer, final PerformanceReport.Span span) {
+        return new StreamConsumer() {
+            @Override
+            public void consumeLine(final String line) {
+                span.addOutput(line.length() + 1);
+                consumer.consumeLine(line);
+            }
+        };
+    }
 
-        // execute
-        final int exitCode = CommandLineUtils.executeCommandLine(cmd, out, err);
+    /**
+     * @return Timing spans of this execution.
+     */
+    protected synchronized PerformanceReport getReport() {
+        if (report == null) {
+            report = new PerformanceReport(mojoExecution != null ? mojoExecution.getGoal()
+                    : getClass().getSimpleName());
+        }
+        return report;
+    }
 
-        String errorStr = err.getOutput();
-        String outStr = out.getOutput();
+    /**
+     * Starts timing span of the goal step.
+     *
+     * @param name
+     *            Name of the step.
+     * @return Started span.
+     */
+    protected PerformanceReport.Span startStep(final String name) {
+        return getReport().start(PerformanceReport.STEP, name, null);
+    }
 
-        if (failOnError && exitCode != SUCCESS_EXIT_CODE) {
-            // not all commands print errors to error stream
-            if (StringUtils.isBlank(errorStr) && StringUtils.isNotBlank(outStr)) {
-                errorStr = outStr;
+    /**
+     * Gets plan of the dry run, creating it with the branch checked out in the
+     * working tree.
+     *
+     * @return Plan.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    private ExecutionPlan getPlan() throws MojoFailureException, CommandLineException {
+        if (plan == null) {
+            plan = new ExecutionPlan(mojoExecution != null ? mojoExecution.getGoal() : getClass().getSimpleName(),
+                    getRefSnapshot().getCurrentBranch());
+        }
+        return plan;
+    }
+
+    /**
+     * @return <code>true</code> if the simulated current branch is checked out
+     *         in the working tree.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    private boolean isPlannedWorkingTreeBranch() throws MojoFailureException, CommandLineException {
+        final ExecutionPlan p = getPlan();
+        return p.getCurrentBranch() != null && p.getCurrentBranch().equals(p.getWorkingTreeBranch())
+                && p.getVersion(p.getCurrentBranch()) == null
+                && p.getVersionBranch(p.getCurrentBranch()).equals(p.getWorkingTreeBranch());
+    }
+
+    /**
+     * @return <code>true</code> if the goal is executed in the dry run mode.
+     */
+    protected boolean isDryRun() {
+        return dryRun;
+    }
+
+    /**
+     * @return <code>true</code> if the dry run plan of the goal should be
+     *         written, <code>false</code> for goals which only run other goals.
+     */
+    protected boolean hasDryRunPlan() {
+        return true;
+    }
+
+    /**
+     * Logs the dry run plan and writes it to the
+     * <code>target/gitflow-plan.json</code> file. Never throws.
+     */
+    private void writePlan() {
+        if (!dryRun || !hasDryRunPlan()) {
+            return;
+        }
+        try {
+            final ExecutionPlan p = getPlan();
+            final File file = new File(mavenSession.getCurrentProject().getBuild().getDirectory(),
+                    "gitflow-plan.json");
+            p.write(file);
+
+            getLog().info("Dry run, nothing was changed. Planned actions, also written to " + file + ":");
+            for (String line : p.lines()) {
+                getLog().info(line);
             }
+        } catch (Exception e) {
+            getLog().warn("Cannot write dry run plan: " + e.getMessage());
+        }
+    }
 
-            throw new MojoFailureException(errorStr);
+    /**
+     * Writes timing spans to the <code>target/gitflow-report.json</code> file
+     * and logs the summary, in dry run mode also the plan. Called at the end
+     * of the goal, never throws.
+     */
+    protected void writeReport() {
+        writePlan();
+        if (journal != null && journal.getStepCount() > 0) {
+            getLog().info("Completed steps are written to the journal. Fix the problem and execute the goal with"
+                    + " 'resume' parameter set to 'true' to skip them.");
+        }
+        journal = null;
+        if (!performanceReport || report == null) {
+            return;
         }
+        try {
+            final File file = new File(mavenSession.getCurrentProject().getBuild().getDirectory(),
+                    "gitflow-report.json");
+            report.write(file);
 
-        return new CommandResult(exitCode, outStr, errorStr);
+            getLog().info("Performance summary, details in " + file + ":");
+            for (String line : report.summary()) {
+                getLog().info(line);
+            }
+        } catch (Exception e) {
+            getLog().warn("Cannot write performance report: " + e.getMessage());
+        }
     }
 
-    private static class CommandResult {
+    static class CommandResult {
         private final int exitCode;
         private final String out;
         private final String error;
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.codehaus.plexus.util.StringUtils;
+import org.codehaus.plexus.util.cli.CommandLineException;
+
+import com.amashchenko.maven.plugin.gitflow.AbstractGitFlowMojo.CommandResult;
+
+/**
+ * Git backend which runs git executable for every operation.
+ *
+ */
+public class CliGitBackend implements GitBackend {
+    /** Success exit code. */
+    private static final int SUCCESS_EXIT_CODE = 0;
+
+    /** Minimal git version supporting <code>%(ahead-behind)</code> atom. */
+    private static final int[] AHEAD_BEHIND_VERSION = { 2, 41 };
+
+    private static final Pattern VERSION_PATTERN = Pattern.compile("(\\d+)\\.(\\d+)");
+
+    private final AbstractGitFlowMojo mojo;
+
+    private Boolean aheadBehindSupported;
+
+    /**
+     * Creates backend which executes git commands through the given mojo.
+     *
+     * @param mojo
+     *            Mojo which executes commands.
+     */
+    public CliGitBackend(final AbstractGitFlowMojo mojo) {
+        this.mojo = mojo;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void loadRefs(final RefSnapshot snapshot) throws MojoFailureException, CommandLineException {
+        String refs = mojo.executeGitCommandReturn("for-each-ref", "--format=\"" + RefSnapshot.FORMAT + "\"");
+        // on *nix systems return values from git for-each-ref are wrapped in
+        // quotes
+        // https://github.com/aleksandr-m/gitflow-maven-plugin/issues/3
+        snapshot.load(removeQuotes(refs));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getCurrentBranch() throws MojoFailureException, CommandLineException {
+        String name = mojo.executeGitCommandReturn("symbolic-ref", "-q", "--short", "HEAD");
+        return StringUtils.strip(name);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasUncommittedChanges() throws MojoFailureException, CommandLineException {
+        boolean uncommited = false;
+
+        // 1 if there were differences and 0 means no differences
+
+        // git diff --no-ext-diff --ignore-submodules --quiet --exit-code
+        final CommandResult diffCommandResult = mojo.executeGitCommandExitCode(
+                "diff", "--no-ext-diff", "--ignore-submodules", "--quiet",
+                "--exit-code");
+
+        String error = null;
+
+        if (diffCommandResult.getExitCode() == SUCCESS_EXIT_CODE) {
+            // git diff-index --cached --quiet --ignore-submodules HEAD --
+            final CommandResult diffIndexCommandResult = mojo.executeGitCommandExitCode(
+                    "diff-index", "--cached", "--quiet", "--ignore-submodules",
+                    "HEAD", "--");
+            if (diffIndexCommandResult.getExitCode() != SUCCESS_EXIT_CODE) {
+                error = diffIndexCommandResult.getError();
+                uncommited = true;
+            }
+        } else {
+            error = diffCommandResult.getError();
+            uncommited = true;
+        }
+
+        if (StringUtils.isNotBlank(error)) {
+            throw new MojoFailureException(error);
+        }
+
+        return uncommited;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isValidBranchName(final String branchName) throws MojoFailureException, CommandLineException {
+        CommandResult res = mojo.executeGitCommandExitCode("check-ref-format",
+                "--allow-onelevel", branchName);
+        return res.getExitCode() == SUCCESS_EXIT_CODE;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setConfig(final String name, String value) throws MojoFailureException, CommandLineException {
+        if (value == null || value.isEmpty()) {
+            value = "\"\"";
+        }
+
+        // ignore error exit codes
+        mojo.executeGitCommandExitCode("config", name, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void checkout(final String branchName) throws MojoFailureException, CommandLineException {
+        mojo.executeGitCommand("checkout", branchName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void createAndCheckout(final String newBranchName, final String fromBranchName)
+            throws MojoFailureException, CommandLineException {
+        mojo.executeGitCommand("checkout", "-b", newBranchName, fromBranchName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void createBranch(final String newBranchName, final String fromBranchName)
+            throws MojoFailureException, CommandLineException {
+        mojo.executeGitCommand("branch", newBranchName, fromBranchName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void commit(final String message, final boolean sign) throws MojoFailureException, CommandLineException {
+        if (sign) {
+            mojo.executeGitCommand("commit", "-a", "-S", "-m", message);
+        } else {
+            mojo.executeGitCommand("commit", "-a", "-m", message);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void rebase(final String branchName, final boolean sign) throws MojoFailureException, CommandLineException {
+        mojo.executeGitCommand("rebase", signArg(sign), branchName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void merge(final String branchName, final boolean noff, final boolean ffonly, final String message,
+            final boolean sign) throws MojoFailureException, CommandLineException {
+        String msgParam = "";
+        String msg = "";
+        if (StringUtils.isNotBlank(message)) {
+            msgParam = "-m";
+            msg = message;
+        }
+        if (ffonly) {
+            mojo.executeGitCommand("merge", "--ff-only", signArg(sign), branchName);
+        } else if (noff) {
+            mojo.executeGitCommand("merge", "--no-ff", signArg(sign), branchName, msgParam, msg);
+        } else {
+            mojo.executeGitCommand("merge", signArg(sign), branchName, msgParam, msg);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void mergeSquash(final String branchName) throws MojoFailureException, CommandLineException {
+        mojo.executeGitCommand("merge", "--squash", branchName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void tag(final String tagName, final String message, final boolean sign)
+            throws MojoFailureException, CommandLineException {
+        if (sign) {
+            mojo.executeGitCommand("tag", "-a", "-s", tagName, "-m", message);
+        } else {
+            mojo.executeGitCommand("tag", "-a", tagName, "-m", message);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void deleteBranch(final String branchName, final boolean force)
+            throws MojoFailureException, CommandLineException {
+        mojo.executeGitCommand("branch", force ? "-D" : "-d", branchName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean fetch(final String remote, final String branchName)
+            throws MojoFailureException, CommandLineException {
+        CommandResult result = mojo.executeGitCommandExitCode("fetch", "--quiet", remote, branchName);
+        return result.getExitCode() == SUCCESS_EXIT_CODE;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean fetch(final String remote, final List<String> branchNames, final List<String> refSpecs)
+            throws MojoFailureException, CommandLineException {
+        final List<String> args = new ArrayList<>();
+        args.add("fetch");
+        args.add("--quiet");
+        args.add(remote);
+        for (String branchName : branchNames) {
+            args.add("+refs/heads/" + branchName + ":refs/remotes/" + remote + "/" + branchName);
+        }
+        args.addAll(refSpecs);
+        CommandResult result = mojo.executeGitCommandExitCode(args.toArray(new String[0]));
+        return result.getExitCode() == SUCCESS_EXIT_CODE;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<String> findRemoteBranches(final String remote, final List<String> branchNames)
+            throws MojoFailureException, CommandLineException {
+        final List<String> args = new ArrayList<>();
+        args.add("ls-remote");
+        args.add("--heads");
+        args.add(remote);
+        for (String branchName : branchNames) {
+            args.add("refs/heads/" + branchName);
+        }
+        final CommandResult result = mojo.executeGitCommandExitCode(args.toArray(new String[0]));
+        if (result.getExitCode() != SUCCESS_EXIT_CODE) {
+            return null;
+        }
+        final List<String> existing = new ArrayList<>();
+        for (String line : StringUtils.split(result.getOut(), "\r\n")) {
+            final String[] fields = line.split("\t");
+            if (fields.length > 1 && fields[1].trim().startsWith("refs/heads/")) {
+                final String name = fields[1].trim().substring("refs/heads/".length());
+                if (branchNames.contains(name) && !existing.contains(name)) {
+                    existing.add(name);
+                }
+            }
+        }
+        return existing;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void pull(final String remote, final String branchName) throws MojoFailureException, CommandLineException {
+        mojo.executeGitCommand("pull", remote, branchName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int[] countAheadBehind(final String branchName, final String otherBranchName)
+            throws MojoFailureException, CommandLineException {
+        final CommandResult result = mojo.executeGitCommandExitCode("rev-list",
+                "--left-right", "--count", branchName + "..." + otherBranchName);
+        if (result.getExitCode() != SUCCESS_EXIT_CODE) {
+            // e.g. branch doesn't exist
+            return null;
+        }
+
+        String[] counts = org.apache.commons.lang3.StringUtils.split(result.getOut(), '\t');
+        if (counts != null && counts.length > 1) {
+            try {
+                return new int[] {
+                        Integer.parseInt(org.apache.commons.lang3.StringUtils.deleteWhitespace(counts[0])),
+                        Integer.parseInt(org.apache.commons.lang3.StringUtils.deleteWhitespace(counts[1])) };
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, int[]> countAheadBehind(final String remote, final List<String> branchNames)
+            throws MojoFailureException, CommandLineException {
+        if (isAheadBehindSupported()) {
+            final List<String> args = new ArrayList<>();
+            args.add("for-each-ref");
+            final StringBuilder format = new StringBuilder("%(refname)");
+            for (String branchName : branchNames) {
+                format.append("%09%(ahead-behind:refs/remotes/").append(remote).append('/').append(branchName)
+                        .append(')');
+            }
+            args.add("--format=\"" + format + "\"");
+            for (String branchName : branchNames) {
+                args.add("refs/heads/" + branchName);
+            }
+            final CommandResult result = mojo.executeGitCommandExitCode(args.toArray(new String[0]));
+            if (result.getExitCode() == SUCCESS_EXIT_CODE) {
+                return parseAheadBehind(removeQuotes(result.getOut()), branchNames);
+            }
+        }
+
+        final Map<String, int[]> counts = new LinkedHashMap<>();
+        for (String branchName : branchNames) {
+            int[] count = countAheadBehind(branchName, remote + "/" + branchName);
+            if (count != null) {
+                counts.put(branchName, count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Parses output of for-each-ref with <code>%(refname)</code> followed by
+     * <code>%(ahead-behind)</code> atom for every branch.
+     *
+     * @param output
+     *            Command output.
+     * @param branchNames
+     *            Branch names in the same order as atoms.
+     * @return Map of branch name to ahead and behind counts.
+     */
+    static Map<String, int[]> parseAheadBehind(final String output, final List<String> branchNames) {
+        final Map<String, int[]> counts = new LinkedHashMap<>();
+        for (String line : StringUtils.split(output, "\r\n")) {
+            final String[] fields = line.split("\t");
+            final String refName = fields[0].trim();
+            if (!refName.startsWith("refs/heads/")) {
+                continue;
+            }
+            final int idx = branchNames.indexOf(refName.substring("refs/heads/".length()));
+            if (idx == -1 || fields.length <= idx + 1) {
+                continue;
+            }
+            final String[] aheadBehind = StringUtils.split(fields[idx + 1].trim(), " ");
+            if (aheadBehind.length == 2) {
+                try {
+                    counts.put(branchNames.get(idx),
+                            new int[] { Integer.parseInt(aheadBehind[0]), Integer.parseInt(aheadBehind[1]) });
+                } catch (NumberFormatException e) {
+                    // skip, cannot be determined
+                }
+            }
+        }
+        return counts;
+    }
+
+    private boolean isAheadBehindSupported() throws MojoFailureException, CommandLineException {
+        if (aheadBehindSupported == null) {
+            final CommandResult result = mojo.executeGitCommandExitCode("version");
+            aheadBehindSupported = result.getExitCode() == SUCCESS_EXIT_CODE
+                    && isVersionAtLeast(result.getOut(), AHEAD_BEHIND_VERSION);
+        }
+        return aheadBehindSupported;
+    }
+
+    /**
+     * Checks output of <code>git version</code>.
+     *
+     * @param versionOutput
+     *            Output of <code>git version</code>, e.g.
+     *            <code>git version 2.41.0</code>.
+     * @param minVersion
+     *            Major and minor version.
+     * @return <code>true</code> if version is greater or equal to the given.
+     */
+    static boolean isVersionAtLeast(final String versionOutput, final int[] minVersion) {
+        final Matcher m = VERSION_PATTERN.matcher(versionOutput == null ? "" : versionOutput);
+        if (!m.find()) {
+            return false;
+        }
+        final int major = Integer.parseInt(m.group(1));
+        final int minor = Integer.parseInt(m.group(2));
+        return major > minVersion[0] || (major == minVersion[0] && minor >= minVersion[1]);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void push(final String remote, final String branchName, final boolean followTags)
+            throws MojoFailureException, CommandLineException {
+        if (followTags) {
+            mojo.executeGitCommand("push", "--quiet", "-u", "--follow-tags", remote, branchName);
+        } else {
+            mojo.executeGitCommand("push", "--quiet", "-u", remote, branchName);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean pushDelete(final String remote, final String branchName)
+            throws MojoFailureException, CommandLineException {
+        CommandResult result = mojo.executeGitCommandExitCode("push", "--delete", remote, branchName);
+        return result.getExitCode() == SUCCESS_EXIT_CODE;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void pushAtomic(final String remote, final List<String> branchNames, final List<String> tagNames,
+            final List<String> deleteBranchNames) throws MojoFailureException, CommandLineException {
+        final List<String> args = new ArrayList<>();
+        args.add("push");
+        args.add("--quiet");
+        args.add("--atomic");
+        args.add("-u");
+        args.add(remote);
+        for (String branchName : branchNames) {
+            args.add("refs/heads/" + branchName + ":refs/heads/" + branchName);
+        }
+        for (String tagName : tagNames) {
+            args.add("refs/tags/" + tagName + ":refs/tags/" + tagName);
+        }
+        for (String branchName : deleteBranchNames) {
+            args.add(":refs/heads/" + branchName);
+        }
+        mojo.executeGitCommand(args.toArray(new String[0]));
+    }
+
+    private static String signArg(final boolean sign) {
+        return sign ? "-S" : "";
+    }
+
+    /**
+     * Removes double quotes from the string.
+     *
+     * @param str
+     *            String to remove quotes from.
+     * @return String without quotes.
+     */
+    private static String removeQuotes(String str) {
+        if (str != null && !str.isEmpty()) {
+            str = str.replaceAll("\"", "");
+        }
+        return str;
+    }
+}
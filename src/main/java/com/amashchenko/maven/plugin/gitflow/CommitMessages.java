@@ -59,6 +59,8 @@ public class CommitMessages {
     private String supportStartMessage;
     private String supportFinishMessage;
 
+    private String propagateVersionMessage;
+
     public CommitMessages() {
         featureStartMessage = "Update versions for feature branch";
         featureFinishMessage = "Update versions for development branch";
@@ -91,6 +93,8 @@ public class CommitMessages {
 
         supportStartMessage = "[Support] Updated support version @{version}";
         supportFinishMessage = "[Support] Updated support version @{version}";
+
+        propagateVersionMessage = "Updated @{artifactId} version @{version}";
     }
 
     /**
@@ -451,4 +455,18 @@ public class CommitMessages {
         this.tagSupportMessage = tagSupportMessage;
     }
 
+    /**
+     * @return the propagateVersionMessage
+     */
+    public String getPropagateVersionMessage() {
+        return propagateVersionMessage;
+    }
+
+    /**
+     * @param propagateVersionMessage
+     *            the propagateVersionMessage to set
+     */
+    public void setPropagateVersionMessage(String propagateVersionMessage) {
+        this.propagateVersionMessage = propagateVersionMessage;
+    }
 }
@@ -0,0 +1,387 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Actions planned by a goal executed in dry run mode. Mutating commands are
+ * recorded instead of executed, while the effects the goal relies on later,
+ * i.e. the current branch, created and deleted branches and tags and project
+ * versions of the branches, are simulated.
+ *
+ */
+public class ExecutionPlan {
+    /** Git command. */
+    public static final String GIT = "git";
+    /** Maven command. */
+    public static final String MVN = "mvn";
+    /** Change of pom.xml files done by the plugin itself. */
+    public static final String POM = "pom";
+    /** Check which cannot be done without executing previous actions. */
+    public static final String CHECK = "check";
+
+    /** Git commands which change the repository or its configuration. */
+    private static final Set<String> MUTATING_GIT_COMMANDS = new HashSet<>(Arrays.asList("branch", "checkout",
+            "cherry-pick", "commit", "config", "fetch", "merge", "pull", "push", "rebase", "reset", "tag",
+            "worktree"));
+
+    private final String goal;
+    private final String workingTreeBranch;
+    private final List<Action> actions = new ArrayList<>();
+
+    private String currentBranch;
+    /** Versions set by the goal by branch name. */
+    private final Map<String, String> versions = new HashMap<>();
+    /** Branch which committed pom.xml holds the version, i.e. created from or merged. */
+    private final Map<String, String> versionSources = new HashMap<>();
+    /** Created (<code>true</code>) or deleted (<code>false</code>) branches. */
+    private final Map<String, Boolean> branches = new HashMap<>();
+    private final Set<String> tags = new HashSet<>();
+
+    /**
+     * Creates plan.
+     *
+     * @param goal
+     *            Name of the goal.
+     * @param workingTreeBranch
+     *            Branch checked out in the working tree or <code>null</code>
+     *            for detached HEAD.
+     */
+    public ExecutionPlan(final String goal, final String workingTreeBranch) {
+        this.goal = goal;
+        this.workingTreeBranch = workingTreeBranch;
+        this.currentBranch = workingTreeBranch;
+    }
+
+    /**
+     * Checks if git command changes the repository.
+     *
+     * @param args
+     *            Git command line arguments, starting with the command name.
+     * @return <code>true</code> if command must not be executed in dry run
+     *         mode.
+     */
+    public static boolean isMutatingGitCommand(final String... args) {
+        if (args.length == 0) {
+            return false;
+        }
+        if ("config".equals(args[0])) {
+            return !Arrays.asList(args).contains("--get");
+        }
+        if ("notes".equals(args[0])) {
+            for (int i = 1; i < args.length; i++) {
+                if (!args[i].startsWith("-")) {
+                    return !"show".equals(args[i]) && !"list".equals(args[i]);
+                }
+            }
+            // git notes without subcommand lists notes
+            return false;
+        }
+        return MUTATING_GIT_COMMANDS.contains(args[0]);
+    }
+
+    /**
+     * Creates printable command line, arguments with whitespaces are quoted
+     * and blank arguments are skipped.
+     *
+     * @param executable
+     *            Executable.
+     * @param argLine
+     *            Additional arguments as a string or <code>null</code>.
+     * @param args
+     *            Command line arguments.
+     * @return Command line.
+     */
+    public static String commandLine(final String executable, final String argLine, final String... args) {
+        final StringBuilder sb = new StringBuilder(executable);
+        for (String arg : args) {
+            if (arg == null || arg.trim().isEmpty()) {
+                continue;
+            }
+            sb.append(' ');
+            if (arg.matches(".*[\\s\"].*")) {
+                sb.append('"').append(arg.replace("\"", "\\\"")).append('"');
+            } else {
+                sb.append(arg);
+            }
+        }
+        if (argLine != null && !argLine.trim().isEmpty()) {
+            sb.append(' ').append(argLine.trim());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Records action on the current branch.
+     *
+     * @param type
+     *            Type of the action.
+     * @param command
+     *            Command line or description of the action.
+     */
+    public void add(final String type, final String command) {
+        actions.add(new Action(type, currentBranch, command));
+    }
+
+    /**
+     * @return Planned actions.
+     */
+    public List<Action> getActions() {
+        return new ArrayList<>(actions);
+    }
+
+    /**
+     * @return Branch checked out in the working tree or <code>null</code>.
+     */
+    public String getWorkingTreeBranch() {
+        return workingTreeBranch;
+    }
+
+    /**
+     * @return Simulated current branch or <code>null</code>.
+     */
+    public String getCurrentBranch() {
+        return currentBranch;
+    }
+
+    /**
+     * Simulates checkout of the branch.
+     *
+     * @param branchName
+     *            Branch name.
+     */
+    public void checkout(final String branchName) {
+        currentBranch = branchName;
+    }
+
+    /**
+     * Simulates creation of the branch.
+     *
+     * @param branchName
+     *            Branch name.
+     * @param fromBranchName
+     *            Branch to create from.
+     */
+    public void createBranch(final String branchName, final String fromBranchName) {
+        branches.put(branchName, Boolean.TRUE);
+        copyVersion(fromBranchName, branchName);
+    }
+
+    /**
+     * Simulates deletion of the branch.
+     *
+     * @param branchName
+     *            Branch name.
+     */
+    public void deleteBranch(final String branchName) {
+        branches.put(branchName, Boolean.FALSE);
+    }
+
+    /**
+     * Simulates merge of the branch into the current one. The version of the
+     * merged branch wins, the goals align versions before merging to avoid
+     * conflicts.
+     *
+     * @param branchName
+     *            Merged branch name.
+     */
+    public void merge(final String branchName) {
+        if (currentBranch != null && !currentBranch.equals(branchName)) {
+            copyVersion(branchName, currentBranch);
+        }
+    }
+
+    private void copyVersion(final String fromBranchName, final String toBranchName) {
+        final String version = versions.get(fromBranchName);
+        final String versionBranch = getVersionBranch(fromBranchName);
+        if (version != null) {
+            versions.put(toBranchName, version);
+            versionSources.remove(toBranchName);
+        } else {
+            versions.remove(toBranchName);
+            if (versionBranch.equals(toBranchName)) {
+                versionSources.remove(toBranchName);
+            } else {
+                versionSources.put(toBranchName, versionBranch);
+            }
+        }
+    }
+
+    /**
+     * Simulates update of the project version in the current branch.
+     *
+     * @param version
+     *            New version.
+     */
+    public void setVersion(final String version) {
+        if (currentBranch != null) {
+            versions.put(currentBranch, version);
+        }
+    }
+
+    /**
+     * Gets version set in the branch by the simulated actions.
+     *
+     * @param branchName
+     *            Branch name.
+     * @return Version or <code>null</code> if version of the branch is not
+     *         changed by the plan.
+     */
+    public String getVersion(final String branchName) {
+        return versions.get(branchName);
+    }
+
+    /**
+     * Gets branch which committed pom.xml holds the version of the given
+     * branch, if the version is not changed by the plan.
+     *
+     * @param branchName
+     *            Branch name.
+     * @return Branch name.
+     */
+    public String getVersionBranch(final String branchName) {
+        final String source = versionSources.get(branchName);
+        return source == null ? branchName : source;
+    }
+
+    /**
+     * Simulates creation of the tag.
+     *
+     * @param tagName
+     *            Tag name.
+     */
+    public void createTag(final String tagName) {
+        tags.add(tagName);
+    }
+
+    /**
+     * @param branchName
+     *            Branch name.
+     * @return <code>true</code> if branch is created, <code>false</code> if
+     *         deleted by the plan, <code>null</code> otherwise.
+     */
+    public Boolean hasBranch(final String branchName) {
+        return branches.get(branchName);
+    }
+
+    /**
+     * @param tagName
+     *            Tag name.
+     * @return <code>true</code> if tag is created by the plan.
+     */
+    public boolean hasTag(final String tagName) {
+        return tags.contains(tagName);
+    }
+
+    /**
+     * @return Printable lines of the plan.
+     */
+    public List<String> lines() {
+        final List<String> lines = new ArrayList<>();
+        for (int i = 0; i < actions.size(); i++) {
+            final Action action = actions.get(i);
+            lines.add(String.format("%3d. [%s] %s", i + 1, action.branch == null ? "" : action.branch,
+                    action.command));
+        }
+        return lines;
+    }
+
+    /**
+     * Writes plan as JSON.
+     *
+     * @param file
+     *            File to write to.
+     * @throws IOException
+     *             If file cannot be written.
+     */
+    public void write(final File file) throws IOException {
+        final File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        }
+    }
+
+    /**
+     * @return Plan as JSON.
+     */
+    public String toJson() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"goal\": ").append(PerformanceReport.quote(goal)).append(",\n");
+        sb.append("  \"workingTreeBranch\": ").append(quoteNullable(workingTreeBranch)).append(",\n");
+        sb.append("  \"actions\": [");
+        for (int i = 0; i < actions.size(); i++) {
+            final Action action = actions.get(i);
+            sb.append(i == 0 ? "\n" : ",\n");
+            sb.append("    {\"type\": ").append(PerformanceReport.quote(action.type));
+            sb.append(", \"branch\": ").append(quoteNullable(action.branch));
+            sb.append(", \"command\": ").append(PerformanceReport.quote(action.command));
+            sb.append("}");
+        }
+        sb.append(actions.isEmpty() ? "]\n" : "\n  ]\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static String quoteNullable(final String str) {
+        return str == null ? "null" : PerformanceReport.quote(str);
+    }
+
+    /**
+     * Planned action.
+     */
+    public static class Action {
+        private final String type;
+        private final String branch;
+        private final String command;
+
+        private Action(final String type, final String branch, final String command) {
+            this.type = type;
+            this.branch = branch;
+            this.command = command;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return Branch the action is executed on or <code>null</code>.
+         */
+        public String getBranch() {
+            return branch;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.codehaus.plexus.util.cli.CommandLineException;
+
+/**
+ * Git operations used by the git flow mojos.
+ *
+ */
+public interface GitBackend {
+
+    /**
+     * Loads all refs of the repository into the snapshot.
+     *
+     * @param snapshot
+     *            Snapshot to load.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    void loadRefs(RefSnapshot snapshot) throws MojoFailureException, CommandLineException;
+
+    /**
+     * Gets the current branch name.
+     *
+     * @return Current branch name.
+     * @throws MojoFailureException
+     *             If HEAD is not a branch.
+     * @throws CommandLineException
+     */
+    String getCurrentBranch() throws MojoFailureException, CommandLineException;
+
+    /**
+     * Checks for uncommitted changes in the working tree and in the index.
+     *
+     * @return <code>true</code> when there are uncommitted changes,
+     *         <code>false</code> otherwise.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    boolean hasUncommittedChanges() throws MojoFailureException, CommandLineException;
+
+    /**
+     * Checks if branch name is acceptable.
+     *
+     * @param branchName
+     *            Branch name to check.
+     * @return <code>true</code> when name is valid, <code>false</code>
+     *         otherwise.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    boolean isValidBranchName(String branchName) throws MojoFailureException, CommandLineException;
+
+    /**
+     * Sets repository configuration option.
+     *
+     * @param name
+     *            Option name.
+     * @param value
+     *            Option value.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    void setConfig(String name, String value) throws MojoFailureException, CommandLineException;
+
+    /**
+     * Checks out branch or tag.
+     *
+     * @param branchName
+     *            Branch name to checkout.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    void checkout(String branchName) throws MojoFailureException, CommandLineException;
+
+    /**
+     * Creates a new branch and checks it out.
+     *
+     * @param newBranchName
+     *            Create branch with this name.
+     * @param fromBranchName
+     *            Create branch from this branch.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    void createAndCheckout(String newBranchName, String fromBranchName)
+            throws MojoFailureException, CommandLineException;
+
+    /**
+     * Creates a new branch.
+     *
+     * @param newBranchName
+     *            Create branch with this name.
+     * @param fromBranchName
+     *            Create branch from this branch.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    void createBranch(String newBranchName, String fromBranchName) throws MojoFailureException, CommandLineException;
+
+    /**
+     * Commits all changes of the tracked files.
+     *
+     * @param message
+     *            Commit message.
+     * @param sign
+     *            Make a GPG-signed commit.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    void commit(String message, boolean sign) throws MojoFailureException, CommandLineException;
+
+    /**
+     * Rebases the current branch onto the given branch.
+     *
+     * @param branchName
+     *            Branch name to rebase onto.
+     * @param sign
+     *            Make GPG-signed commits.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    void rebase(String branchName, boolean sign) throws MojoFailureException, CommandLineException;
+
+    /**
+     * Merges the branch into the current branch.
+     *
+     * @param branchName
+     *            Branch name to merge.
+     * @param noff
+     *            Merge with --no-ff.
+     * @param ffonly
+     *            Merge with --ff-only.
+     * @param message
+     *            Merge commit message or <code>null</code> to use the default
+     *            one.
+     * @param sign
+     *            Make a GPG-signed merge commit.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    void merge(String branchName, boolean noff, boolean ffonly, String message, boolean sign)
+            throws MojoFailureException, CommandLineException;
+
+    /**
+     * Merges the branch into the working tree with --squash, without
+     * committing.
+     *
+     * @param branchName
+     *            Branch name to merge.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    void mergeSquash(String branchName) throws MojoFailureException, CommandLineException;
+
+    /**
+     * Creates annotated tag.
+     *
+     * @param tagName
+     *            Name of the tag.
+     * @param message
+     *            Tag message.
+     * @param sign
+     *            Make a GPG-signed tag.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    void tag(String tagName, String message, boolean sign) throws MojoFailureException, CommandLineException;
+
+    /**
+     * Deletes local branch.
+     *
+     * @param branchName
+     *            Branch name to delete.
+     * @param force
+     *            Delete even if branch is not merged.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    void deleteBranch(String branchName, boolean force) throws MojoFailureException, CommandLineException;
+
+    /**
+     * Fetches branch from the remote.
+     *
+     * @param remote
+     *            Name of the remote.
+     * @param branchName
+     *            Branch name to fetch or empty string to fetch all.
+     * @return <code>true</code> if fetch was successful, <code>false</code>
+     *         otherwise.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    boolean fetch(String remote, String branchName) throws MojoFailureException, CommandLineException;
+
+    /**
+     * Fetches branches from the remote with a single fetch, updating their
+     * remote tracking branches.
+     *
+     * @param remote
+     *            Name of the remote.
+     * @param branchNames
+     *            Branch names to fetch.
+     * @param refSpecs
+     *            Additional ref specs to fetch with the branches, e.g. notes.
+     * @return <code>true</code> if fetch was successful, <code>false</code>
+     *         otherwise.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    boolean fetch(String remote, List<String> branchNames, List<String> refSpecs)
+            throws MojoFailureException, CommandLineException;
+
+    /**
+     * Finds which of the branches exist on the remote.
+     *
+     * @param remote
+     *            Name of the remote.
+     * @param branchNames
+     *            Branch names to check.
+     * @return Branch names which exist on the remote or <code>null</code> if
+     *         the remote cannot be queried.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    List<String> findRemoteBranches(String remote, List<String> branchNames)
+            throws MojoFailureException, CommandLineException;
+
+    /**
+     * Pulls branch from the remote into the current branch.
+     *
+     * @param remote
+     *            Name of the remote.
+     * @param branchName
+     *            Branch name to pull.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    void pull(String remote, String branchName) throws MojoFailureException, CommandLineException;
+
+    /**
+     * Counts commits which are only in one of two branches.
+     *
+     * @param branchName
+     *            Local branch name.
+     * @param otherBranchName
+     *            Branch to compare with, e.g. remote tracking branch.
+     * @return Two element array with number of commits only in
+     *         <code>branchName</code> and number of commits only in
+     *         <code>otherBranchName</code>, or <code>null</code> if it cannot
+     *         be determined.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    int[] countAheadBehind(String branchName, String otherBranchName)
+            throws MojoFailureException, CommandLineException;
+
+    /**
+     * Counts commits which are only in the local branch or only in its remote
+     * tracking branch for every given branch.
+     *
+     * @param remote
+     *            Name of the remote.
+     * @param branchNames
+     *            Local branch names.
+     * @return Map of branch name to two element array with number of commits
+     *         only in the local branch and number of commits only in the
+     *         remote tracking branch. Branches for which it cannot be
+     *         determined are not in the map.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    Map<String, int[]> countAheadBehind(String remote, List<String> branchNames)
+            throws MojoFailureException, CommandLineException;
+
+    /**
+     * Pushes branch to the remote and sets upstream.
+     *
+     * @param remote
+     *            Name of the remote.
+     * @param branchName
+     *            Branch name to push.
+     * @param followTags
+     *            Also push annotated tags reachable from the branch.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    void push(String remote, String branchName, boolean followTags) throws MojoFailureException, CommandLineException;
+
+    /**
+     * Deletes branch from the remote.
+     *
+     * @param remote
+     *            Name of the remote.
+     * @param branchName
+     *            Branch name to delete.
+     * @return <code>true</code> if branch was deleted, <code>false</code>
+     *         otherwise.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    boolean pushDelete(String remote, String branchName) throws MojoFailureException, CommandLineException;
+
+    /**
+     * Pushes branches and tags and deletes remote branches with a single
+     * atomic push, so either all refs are updated on the remote or none.
+     *
+     * @param remote
+     *            Name of the remote.
+     * @param branchNames
+     *            Branch names to push, upstream is set for them.
+     * @param tagNames
+     *            Tag names to push.
+     * @param deleteBranchNames
+     *            Branch names to delete from the remote.
+     * @throws MojoFailureException
+     * @throws CommandLineException
+     */
+    void pushAtomic(String remote, List<String> branchNames, List<String> tagNames, List<String> deleteBranchNames)
+            throws MojoFailureException, CommandLineException;
+}
@@ -107,6 +107,30 @@ public class GitFlowFeatureFinishMojo extends AbstractGitFlowMojo {
     @Parameter(property = "incrementVersionAtFinish", defaultValue = "false")
     private boolean incrementVersionAtFinish;
 
+    /**
+     * Whether to test only the modules changed in the feature branch since it
+     * diverged from the development branch, the modules depending on them
+     * and their dependencies, i.e. <code>-pl {modules} -am -amd</code>.
+     * Changes of versions in pom.xml files are ignored. All modules are tested
+     * if other files outside of the modules, e.g. the root pom.xml, were
+     * changed.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "testChangedModules", defaultValue = "false")
+    private boolean testChangedModules = false;
+
+    /**
+     * Whether to resume the failed execution of the goal. Steps completed by
+     * the failed execution are written to the journal under
+     * <code>.git/gitflow</code> and skipped, if the refs were not changed
+     * since then.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "resume", defaultValue = "false")
+    private boolean resume = false;
+
     /** {@inheritDoc} */
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
@@ -116,6 +140,8 @@ public class GitFlowFeatureFinishMojo extends AbstractGitFlowMojo {
             // check uncommitted changes
             checkUncommittedChanges();
 
+            startJournal(resume);
+
             String featureBranchName = null;
             if (settings.isInteractiveMode()) {
                 featureBranchName = promptBranchName();
@@ -142,9 +168,7 @@ public class GitFlowFeatureFinishMojo extends AbstractGitFlowMojo {
 
             // fetch and check remote
             if (fetchRemote) {
-                gitFetchRemoteAndCompare(featureBranchName);
-
-                gitFetchRemoteAndCompare(gitFlowConfig.getDevelopmentBranch());
+                gitFetchRemoteAndCompare(featureBranchName, gitFlowConfig.getDevelopmentBranch());
             }
 
             if (!skipTestProject) {
@@ -152,7 +176,11 @@ public class GitFlowFeatureFinishMojo extends AbstractGitFlowMojo {
                 gitCheckout(featureBranchName);
 
                 // mvn clean test
-                mvnCleanTest();
+                if (testChangedModules) {
+                    mvnCleanTest(gitChangedModules(gitFlowConfig.getDevelopmentBranch(), featureBranchName));
+                } else {
+                    mvnCleanTest();
+                }
             }
 
             // maven goals before merge
@@ -251,8 +279,12 @@ public class GitFlowFeatureFinishMojo extends AbstractGitFlowMojo {
                     gitBranchDelete(featureBranchName);
                 }
             }
+
+            completeJournal();
         } catch (Exception e) {
             throw new MojoFailureException("feature-finish", e);
+        } finally {
+            writeReport();
         }
     }
 
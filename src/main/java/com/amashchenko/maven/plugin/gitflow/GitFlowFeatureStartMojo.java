@@ -161,6 +161,8 @@ public class GitFlowFeatureStartMojo extends AbstractGitFlowMojo {
             throw new MojoFailureException("feature-start", e);
         } catch (VersionParseException e) {
             throw new MojoFailureException("feature-start", e);
+        } finally {
+            writeReport();
         }
     }
 
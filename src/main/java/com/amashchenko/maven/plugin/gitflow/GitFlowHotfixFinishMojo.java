@@ -26,6 +26,7 @@ import org.codehaus.plexus.util.StringUtils;
 import org.codehaus.plexus.util.cli.CommandLineException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +62,16 @@ public class GitFlowHotfixFinishMojo extends AbstractGitFlowMojo {
     @Parameter(property = "pushRemote", defaultValue = "true")
     private boolean pushRemote;
 
+    /**
+     * Whether to push all branches, newly created tags and remote branch
+     * deletions with a single <code>git push --atomic</code>. Either all refs
+     * are updated on the remote or none.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "atomicPush", defaultValue = "false")
+    private boolean atomicPush = false;
+
     /**
      * Maven goals to execute in the hotfix branch before merging into the
      * production or support branch.
@@ -127,6 +138,28 @@ public class GitFlowHotfixFinishMojo extends AbstractGitFlowMojo {
     @Parameter(property = "skipMergeDevBranch", defaultValue = "false")
     private boolean skipMergeDevBranch = false;
 
+    /**
+     * Whether to merge, update versions, commit and tag in temporary git
+     * worktrees under <code>.git/gitflow-worktrees</code> instead of checking
+     * out branches in the working tree. Worktrees are removed at the end, even
+     * if the goal fails.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "useWorktrees", defaultValue = "false")
+    private boolean useWorktrees = false;
+
+    /**
+     * Whether to resume the failed execution of the goal. Steps completed by
+     * the failed execution are written to the journal under
+     * <code>.git/gitflow</code> and skipped, if the refs were not changed
+     * since then.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "resume", defaultValue = "false")
+    private boolean resume = false;
+
     /** {@inheritDoc} */
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
@@ -136,6 +169,12 @@ public class GitFlowHotfixFinishMojo extends AbstractGitFlowMojo {
             // check uncommitted changes
             checkUncommittedChanges();
 
+            if (useWorktrees) {
+                startWorktrees();
+            }
+
+            startJournal(resume);
+
             String hotfixBranchName = null;
             if (settings.isInteractiveMode()) {
                 hotfixBranchName = promptBranchName();
@@ -175,18 +214,17 @@ public class GitFlowHotfixFinishMojo extends AbstractGitFlowMojo {
 
             // fetch and check remote
             if (fetchRemote) {
-                gitFetchRemoteAndCompare(hotfixBranchName);
-
                 if (supportBranchName != null) {
                     gitFetchRemoteAndCreate(supportBranchName);
-                    gitFetchRemoteAndCompare(supportBranchName);
+                    gitFetchRemoteAndCompare(hotfixBranchName, supportBranchName);
                 } else {
                     if (notSameProdDevName()) {
                         gitFetchRemoteAndCreate(gitFlowConfig.getDevelopmentBranch());
-                        gitFetchRemoteAndCompare(gitFlowConfig.getDevelopmentBranch());
                     }
                     gitFetchRemoteAndCreate(gitFlowConfig.getProductionBranch());
-                    gitFetchRemoteAndCompare(gitFlowConfig.getProductionBranch());
+                    gitFetchRemoteAndCompare(hotfixBranchName,
+                            notSameProdDevName() ? gitFlowConfig.getDevelopmentBranch() : null,
+                            gitFlowConfig.getProductionBranch());
                 }
             }
 
@@ -340,21 +378,38 @@ public class GitFlowHotfixFinishMojo extends AbstractGitFlowMojo {
             }
 
             if (pushRemote) {
-                if (supportBranchName != null) {
-                    gitPush(supportBranchName, !skipTag);
+                if (atomicPush) {
+                    List<String> branches = new ArrayList<>();
+                    if (supportBranchName != null) {
+                        branches.add(supportBranchName);
+                    } else {
+                        branches.add(gitFlowConfig.getProductionBranch());
+
+                        if (StringUtils.isNotBlank(releaseBranch)) {
+                            branches.add(releaseBranch);
+                        } else if (notSameProdDevName()) { // if no release branch
+                            branches.add(gitFlowConfig.getDevelopmentBranch());
+                        }
+                    }
+                    gitPushAtomic(branches, !skipTag,
+                            keepBranch ? Collections.<String> emptyList() : Collections.singletonList(hotfixBranchName));
                 } else {
-                    gitPush(gitFlowConfig.getProductionBranch(), !skipTag);
-
-                    if (StringUtils.isNotBlank(releaseBranch)) {
-                        gitPush(releaseBranch, !skipTag);
-                    } else if (StringUtils.isBlank(releaseBranch)
-                            && notSameProdDevName()) { // if no release branch
-                        gitPush(gitFlowConfig.getDevelopmentBranch(), !skipTag);
+                    if (supportBranchName != null) {
+                        gitPush(supportBranchName, !skipTag);
+                    } else {
+                        gitPush(gitFlowConfig.getProductionBranch(), !skipTag);
+
+                        if (StringUtils.isNotBlank(releaseBranch)) {
+                            gitPush(releaseBranch, !skipTag);
+                        } else if (StringUtils.isBlank(releaseBranch)
+                                && notSameProdDevName()) { // if no release branch
+                            gitPush(gitFlowConfig.getDevelopmentBranch(), !skipTag);
+                        }
                     }
-                }
 
-                if (!keepBranch) {
-                    gitPushDelete(hotfixBranchName);
+                    if (!keepBranch) {
+                        gitPushDelete(hotfixBranchName);
+                    }
                 }
             }
 
@@ -367,8 +422,13 @@ public class GitFlowHotfixFinishMojo extends AbstractGitFlowMojo {
                     gitBranchDelete(hotfixBranchName);
                 }
             }
+
+            completeJournal();
         } catch (Exception e) {
             throw new MojoFailureException("hotfix-finish", e);
+        } finally {
+            removeWorktrees();
+            writeReport();
         }
     }
 
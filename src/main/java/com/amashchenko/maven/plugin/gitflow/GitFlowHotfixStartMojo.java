@@ -231,6 +231,8 @@ public class GitFlowHotfixStartMojo extends AbstractGitFlowMojo {
             throw new MojoFailureException("hotfix-start", e);
         } catch (VersionParseException e) {
             throw new MojoFailureException("hotfix-start", e);
+        } finally {
+            writeReport();
         }
     }
 
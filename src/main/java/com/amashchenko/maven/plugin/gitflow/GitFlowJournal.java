@@ -0,0 +1,351 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Journal of the completed steps of a goal with values of the refs before and
+ * after every step. It is written after each step, so when the goal fails it
+ * can be resumed: steps completed by the failed execution are matched in order
+ * and skipped. Steps which leave uncommitted changes, e.g. versions update, are
+ * deferred and written together with the next step which changes the refs, so
+ * a step is never skipped if its effect may be lost with the working tree.
+ *
+ */
+public class GitFlowJournal {
+    private final File file;
+    private final String goal;
+    private final List<Step> completed;
+    private final List<Step> steps = new ArrayList<>();
+    private final List<Step> pending = new ArrayList<>();
+    private int position;
+
+    /**
+     * Creates journal.
+     *
+     * @param file
+     *            Journal file.
+     * @param goal
+     *            Name of the goal.
+     * @param completed
+     *            Steps completed by the failed execution to skip, empty if
+     *            goal is not resumed.
+     */
+    public GitFlowJournal(final File file, final String goal, final List<Step> completed) {
+        this.file = file;
+        this.goal = goal;
+        this.completed = new ArrayList<>(completed);
+    }
+
+    /**
+     * Reads steps from the journal file.
+     *
+     * @param file
+     *            Journal file.
+     * @param goal
+     *            Name of the goal which wrote the journal.
+     * @return Completed steps.
+     * @throws IOException
+     *             If file cannot be read or it is journal of other goal.
+     */
+    public static List<Step> read(final File file, final String goal) throws IOException {
+        final Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            props.load(reader);
+        }
+        if (!goal.equals(props.getProperty("goal"))) {
+            throw new IOException("Journal " + file + " was written by '" + props.getProperty("goal")
+                    + "' goal, not by '" + goal + "'.");
+        }
+        final List<Step> result = new ArrayList<>();
+        final int count = Integer.parseInt(props.getProperty("steps", "0"));
+        for (int i = 0; i < count; i++) {
+            final String prefix = "step." + i + ".";
+            final Step step = new Step(props.getProperty(prefix + "name"), props.getProperty(prefix + "detail"),
+                    props.getProperty(prefix + "branch"), refs(props, prefix + "before."));
+            step.after = refs(props, prefix + "after.");
+            result.add(step);
+        }
+        return result;
+    }
+
+    private static Map<String, String> refs(final Properties props, final String prefix) {
+        final Map<String, String> refs = new LinkedHashMap<>();
+        for (String name : props.stringPropertyNames()) {
+            if (name.startsWith(prefix)) {
+                refs.put(name.substring(prefix.length()), props.getProperty(name));
+            }
+        }
+        return refs;
+    }
+
+    /**
+     * Gets values of the refs after all steps.
+     *
+     * @param steps
+     *            Steps.
+     * @return Ref values, empty string for not existing refs.
+     */
+    public static Map<String, String> finalRefs(final List<Step> steps) {
+        final Map<String, String> refs = new LinkedHashMap<>();
+        for (Step step : steps) {
+            refs.putAll(step.after);
+        }
+        return refs;
+    }
+
+    /**
+     * Begins the step. If it is the next step completed by the failed
+     * execution, it is marked as completed and must be skipped.
+     *
+     * @param name
+     *            Name of the step.
+     * @param detail
+     *            Arguments of the step, e.g. branch to merge.
+     * @param branch
+     *            Branch the step is executed on.
+     * @param before
+     *            Values of the refs before the step.
+     * @return Step.
+     * @throws IOException
+     *             If the step doesn't match the next completed step, i.e. the
+     *             goal cannot be resumed.
+     */
+    public Step begin(final String name, final String detail, final String branch, final Map<String, String> before)
+            throws IOException {
+        final Step step = new Step(name, detail, branch, before);
+        if (position < completed.size()) {
+            final Step done = completed.get(position);
+            if (!done.matches(step)) {
+                throw new IOException("Step " + step + " doesn't match step " + done
+                        + " completed by the failed execution, the goal cannot be resumed.");
+            }
+            position++;
+            step.completed = true;
+            step.after = done.after;
+            add(step);
+        }
+        return step;
+    }
+
+    /**
+     * Records completed step.
+     *
+     * @param step
+     *            Step.
+     * @param after
+     *            Values of the refs after the step.
+     * @throws IOException
+     *             If journal cannot be written.
+     */
+    public void complete(final Step step, final Map<String, String> after) throws IOException {
+        if (!step.completed) {
+            step.completed = true;
+            step.after = new LinkedHashMap<>(after);
+            if (pending.isEmpty() || !step.after.equals(step.before)) {
+                steps.addAll(pending);
+                pending.clear();
+                add(step);
+            } else {
+                pending.add(step);
+            }
+        }
+    }
+
+    /**
+     * Records step which changed only the working tree. It is written together
+     * with the next step which changes the refs, e.g. commit, steps completed
+     * in between are held back as well. If the goal fails before, the step is
+     * executed again when resumed.
+     *
+     * @param step
+     *            Step.
+     */
+    public void defer(final Step step) {
+        if (!step.completed) {
+            step.completed = true;
+            step.after = new LinkedHashMap<>(step.before);
+            pending.add(step);
+        }
+    }
+
+    private void add(final Step step) throws IOException {
+        steps.add(step);
+        write();
+    }
+
+    /**
+     * @return Number of steps written to the journal.
+     */
+    public int getStepCount() {
+        return steps.size();
+    }
+
+    /**
+     * @return Number of steps completed by the failed execution which were
+     *         not skipped yet.
+     */
+    public int getRemaining() {
+        return completed.size() - position;
+    }
+
+    /**
+     * Deletes journal file, called when the goal succeeds.
+     *
+     * @throws IOException
+     *             If file cannot be deleted.
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    private void write() throws IOException {
+        final File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        final File tmp = new File(file.getPath() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("# Steps completed by the " + goal + " goal, resume it with -Dresume=true\n");
+            line(writer, "goal", goal);
+            line(writer, "steps", String.valueOf(steps.size()));
+            for (int i = 0; i < steps.size(); i++) {
+                final Step step = steps.get(i);
+                final String prefix = "step." + i + ".";
+                line(writer, prefix + "name", step.name);
+                line(writer, prefix + "detail", step.detail);
+                line(writer, prefix + "branch", step.branch);
+                for (Map.Entry<String, String> ref : step.before.entrySet()) {
+                    line(writer, prefix + "before." + ref.getKey(), ref.getValue());
+                }
+                for (Map.Entry<String, String> ref : step.after.entrySet()) {
+                    line(writer, prefix + "after." + ref.getKey(), ref.getValue());
+                }
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void line(final Writer writer, final String key, final String value) throws IOException {
+        if (value != null) {
+            writer.write(escape(key, true) + "=" + escape(value, false) + "\n");
+        }
+    }
+
+    /**
+     * Escapes key or value in the format read by {@link Properties#load}.
+     */
+    private static String escape(final String str, final boolean key) {
+        final StringBuilder sb = new StringBuilder(str.length());
+        for (int i = 0; i < str.length(); i++) {
+            final char c = str.charAt(i);
+            switch (c) {
+            case '\\':
+            case '=':
+            case ':':
+            case '#':
+            case '!':
+                sb.append('\\').append(c);
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            case ' ':
+                sb.append(key || i == 0 ? "\\ " : " ");
+                break;
+            default:
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Step of the goal.
+     */
+    public static class Step {
+        private final String name;
+        private final String detail;
+        private final String branch;
+        private final Map<String, String> before;
+        private Map<String, String> after = Collections.emptyMap();
+        private boolean completed;
+
+        private Step(final String name, final String detail, final String branch, final Map<String, String> before) {
+            this.name = name;
+            this.detail = detail == null ? "" : detail;
+            this.branch = branch == null ? "" : branch;
+            this.before = new LinkedHashMap<>(before);
+        }
+
+        private boolean matches(final Step other) {
+            return name.equals(other.name) && detail.equals(other.detail) && branch.equals(other.branch);
+        }
+
+        /**
+         * @return <code>true</code> if step is completed, i.e. by the failed
+         *         execution which is resumed.
+         */
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+
+        public String getBranch() {
+            return branch;
+        }
+
+        public Map<String, String> getBefore() {
+            return Collections.unmodifiableMap(before);
+        }
+
+        public Map<String, String> getAfter() {
+            return Collections.unmodifiableMap(after);
+        }
+
+        @Override
+        public String toString() {
+            return "'" + name + (detail.isEmpty() ? "" : " " + detail) + "'"
+                    + (branch.isEmpty() ? "" : " on '" + branch + "'");
+        }
+    }
+}
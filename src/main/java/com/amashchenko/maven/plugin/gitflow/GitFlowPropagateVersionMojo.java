@@ -0,0 +1,253 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.StringUtils;
+import org.codehaus.plexus.util.cli.CommandLineException;
+
+/**
+ * The git flow propagate version mojo. Updates versions of the project
+ * artifacts in the development branches of the downstream repositories, e.g.
+ * after <code>release-finish</code>.
+ * 
+ * @since 1.16.3
+ */
+@Mojo(name = "propagate-version", aggregator = true)
+public class GitFlowPropagateVersionMojo extends AbstractGitFlowMojo {
+    private static final String UPDATED = "UPDATED";
+    private static final String UP_TO_DATE = "UP-TO-DATE";
+    private static final String FAILED = "FAILED";
+
+    /**
+     * Paths of the downstream repositories, relative to the execution root
+     * directory.
+     */
+    @Parameter(property = "downstreamRepositories")
+    private List<String> downstreamRepositories;
+
+    /**
+     * Version to propagate. Defaults to the version of the last tag.
+     */
+    @Parameter(property = "propagatedVersion")
+    private String propagatedVersion;
+
+    /**
+     * Whether to push to the remote.
+     */
+    @Parameter(property = "pushRemote", defaultValue = "true")
+    private boolean pushRemote;
+
+    /**
+     * Maximum number of repositories updated at the same time. Defaults to the
+     * number of available processors.
+     */
+    @Parameter(property = "repositoryThreads", defaultValue = "0")
+    private int repositoryThreads = 0;
+
+    /** {@inheritDoc} */
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        validateConfiguration();
+
+        try {
+            if (downstreamRepositories == null || downstreamRepositories.isEmpty()) {
+                throw new MojoFailureException(
+                        "No repositories to update, configure 'downstreamRepositories' parameter.");
+            }
+
+            final String version = propagatedVersion();
+            final Set<String> artifacts = new LinkedHashSet<>();
+            for (MavenProject project : mavenSession.getProjects()) {
+                artifacts.add(project.getGroupId() + ":" + project.getArtifactId());
+            }
+            getLog().info("Updating " + StringUtils.join(artifacts.iterator(), ", ") + " to '" + version + "' in "
+                    + downstreamRepositories.size() + " repositories.");
+
+            final Map<String, String> messageProperties = new HashMap<>();
+            messageProperties.put("version", version);
+            messageProperties.put("artifactId", mavenSession.getTopLevelProject().getArtifactId());
+
+            final File root = new File(mavenSession.getExecutionRootDirectory());
+            final List<Callable<RepositoryResult>> tasks = new ArrayList<>();
+            for (final String path : downstreamRepositories) {
+                final File dir = new File(path).isAbsolute() ? new File(path) : new File(root, path);
+                tasks.add(new Callable<RepositoryResult>() {
+                    @Override
+                    public RepositoryResult call() throws Exception {
+                        return update(dir, artifacts, version, messageProperties);
+                    }
+                });
+            }
+
+            final PerformanceReport.Span step = startStep("update repositories");
+            final List<RepositoryResult> results;
+            try {
+                results = executeInParallel(tasks, repositoryThreads);
+            } finally {
+                step.end();
+            }
+
+            final List<String> failed = logSummary(results);
+            if (!failed.isEmpty()) {
+                throw new MojoFailureException("Version update failed in " + StringUtils.join(failed.iterator(), ", ")
+                        + ".");
+            }
+        } catch (CommandLineException e) {
+            throw new MojoFailureException("propagate-version", e);
+        } finally {
+            writeReport();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean hasDryRunPlan() {
+        return false;
+    }
+
+    /**
+     * @return Version to propagate, the configured one or the version of the
+     *         last tag.
+     */
+    private String propagatedVersion() throws MojoFailureException, CommandLineException {
+        String version = propagatedVersion;
+        if (StringUtils.isBlank(version)) {
+            version = gitFindLastTag();
+            if (StringUtils.isNotBlank(gitFlowConfig.getVersionTagPrefix())
+                    && version.startsWith(gitFlowConfig.getVersionTagPrefix())) {
+                version = version.substring(gitFlowConfig.getVersionTagPrefix().length());
+            }
+        }
+        if (StringUtils.isBlank(version) || !GitFlowVersionInfo.isValidVersion(version)) {
+            throw new MojoFailureException("Version to propagate '" + version
+                    + "' is not valid, set 'propagatedVersion' parameter.");
+        }
+        return version;
+    }
+
+    /**
+     * Updates versions in the development branch of the repository, commits
+     * and pushes the changes. The repository is left on the development
+     * branch.
+     */
+    private RepositoryResult update(final File dir, final Set<String> artifacts, final String version,
+            final Map<String, String> messageProperties) throws CommandLineException {
+        final String name = dir.getName();
+        final long start = System.nanoTime();
+        try {
+            final String developmentBranch = gitFlowConfig.getDevelopmentBranch();
+            if (!isDryRun()) {
+                if (StringUtils.isNotBlank(git(dir, "status", "--porcelain", "--untracked-files=no"))) {
+                    throw new MojoFailureException("You have some uncommitted files.");
+                }
+                git(dir, "checkout", developmentBranch);
+                if (fetchRemote) {
+                    git(dir, "pull", "--ff-only", gitFlowConfig.getOrigin(), developmentBranch);
+                }
+            }
+
+            final List<File> files = new PomVersionRewriter(new File(dir, "pom.xml")).updateDependencies(artifacts,
+                    version, !isDryRun());
+            if (files.isEmpty()) {
+                return new RepositoryResult(name, UP_TO_DATE, 0, System.nanoTime() - start, "");
+            }
+            if (isDryRun()) {
+                return new RepositoryResult(name, UPDATED, files.size(), System.nanoTime() - start,
+                        "dry run, nothing was changed");
+            }
+
+            gitCommitIn(dir, commitMessages.getPropagateVersionMessage(), messageProperties);
+            final String commit = git(dir, "rev-parse", "--short", "HEAD").trim();
+            if (pushRemote) {
+                git(dir, "push", gitFlowConfig.getOrigin(), developmentBranch);
+            }
+            return new RepositoryResult(name, UPDATED, files.size(), System.nanoTime() - start,
+                    commit + (pushRemote ? " pushed" : ""));
+        } catch (MojoFailureException | IOException e) {
+            getLog().error("Version update of '" + name + "' failed: " + e.getMessage());
+            return new RepositoryResult(name, FAILED, 0, System.nanoTime() - start,
+                    StringUtils.abbreviate(StringUtils.strip(e.getMessage()).replaceAll("\\s+", " "), 80));
+        }
+    }
+
+    private String git(final File dir, final String... args) throws MojoFailureException, CommandLineException {
+        final CommandResult result = executeGitCommandIn(dir, args);
+        if (result.getExitCode() != 0) {
+            final String error = StringUtils.isBlank(result.getError()) ? result.getOut() : result.getError();
+            throw new MojoFailureException("git " + args[0] + " failed"
+                    + (StringUtils.isBlank(error) ? "" : ": " + error.trim()));
+        }
+        return result.getOut();
+    }
+
+    /**
+     * Logs status, number of changed files and time of every repository.
+     *
+     * @return Names of the failed repositories.
+     */
+    private List<String> logSummary(final List<RepositoryResult> results) {
+        int width = "Repository".length();
+        for (RepositoryResult result : results) {
+            width = Math.max(width, result.name.length());
+        }
+        final String format = "%-" + width + "s  %-10s  %5s  %8s  %s";
+
+        getLog().info("Version update summary:");
+        getLog().info(String.format(Locale.ENGLISH, format, "Repository", "Status", "Files", "Time", ""));
+        final List<String> failed = new ArrayList<>();
+        for (RepositoryResult result : results) {
+            getLog().info(String.format(Locale.ENGLISH, format, result.name, result.status, result.files,
+                    String.format(Locale.ENGLISH, "%.1f s", result.nanos / 1e9), result.detail));
+            if (FAILED.equals(result.status)) {
+                failed.add(result.name);
+            }
+        }
+        return failed;
+    }
+
+    private static class RepositoryResult {
+        private final String name;
+        private final String status;
+        private final int files;
+        private final long nanos;
+        private final String detail;
+
+        private RepositoryResult(final String name, final String status, final int files, final long nanos,
+                final String detail) {
+            this.name = name;
+            this.status = status;
+            this.files = files;
+            this.nanos = nanos;
+            this.detail = detail;
+        }
+    }
+}
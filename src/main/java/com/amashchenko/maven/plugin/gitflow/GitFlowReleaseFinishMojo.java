@@ -23,7 +23,10 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -81,6 +84,16 @@ public class GitFlowReleaseFinishMojo extends AbstractGitFlowMojo {
     @Parameter(property = "pushRemote", defaultValue = "true")
     private boolean pushRemote;
 
+    /**
+     * Whether to push all branches, newly created tags and remote branch
+     * deletions with a single <code>git push --atomic</code>. Either all refs
+     * are updated on the remote or none.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "atomicPush", defaultValue = "false")
+    private boolean atomicPush = false;
+
     /**
      * Whether to use <code>--ff-only</code> option when merging.
      *
@@ -170,6 +183,28 @@ public class GitFlowReleaseFinishMojo extends AbstractGitFlowMojo {
     @Parameter(property = "skipReleaseMergeProdBranch", defaultValue = "false")
     private boolean skipReleaseMergeProdBranch = false;
 
+    /**
+     * Whether to merge, update versions, commit and tag in temporary git
+     * worktrees under <code>.git/gitflow-worktrees</code> instead of checking
+     * out branches in the working tree. Worktrees are removed at the end, even
+     * if the goal fails.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "useWorktrees", defaultValue = "false")
+    private boolean useWorktrees = false;
+
+    /**
+     * Whether to resume the failed execution of the goal. Steps completed by
+     * the failed execution are written to the journal under
+     * <code>.git/gitflow</code> and skipped, if the refs were not changed
+     * since then.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "resume", defaultValue = "false")
+    private boolean resume = false;
+
     /** {@inheritDoc} */
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
@@ -179,6 +214,12 @@ public class GitFlowReleaseFinishMojo extends AbstractGitFlowMojo {
             // check uncommitted changes
             checkUncommittedChanges();
 
+            if (useWorktrees) {
+                startWorktrees();
+            }
+
+            startJournal(resume);
+
             // git for-each-ref --format='%(refname:short)' refs/heads/release/*
             String releaseBranch = gitFindBranches(gitFlowConfig.getReleaseBranchPrefix(), false).trim();
 
@@ -216,23 +257,17 @@ public class GitFlowReleaseFinishMojo extends AbstractGitFlowMojo {
             }
 
             if (fetchRemote) {
-                // fetch and check remote
-                gitFetchRemoteAndCompare(releaseBranch);
-
                 // checkout from remote if doesn't exist
                 gitFetchRemoteAndCreate(gitFlowConfig.getDevelopmentBranch());
 
-                // fetch and check remote
-                gitFetchRemoteAndCompare(gitFlowConfig.getDevelopmentBranch());
-
                 if (notSameProdDevName()) {
                     // checkout from remote if doesn't exist
                     gitFetchRemoteAndCreate(gitFlowConfig.getProductionBranch());
-
-                    // fetch and check remote
-                    gitFetchRemoteAndCompare(gitFlowConfig
-                        .getProductionBranch());
                 }
+
+                // fetch and check remote
+                gitFetchRemoteAndCompare(releaseBranch, gitFlowConfig.getDevelopmentBranch(),
+                        notSameProdDevName() ? gitFlowConfig.getProductionBranch() : null);
             }
 
             // git checkout release/...
@@ -381,13 +416,23 @@ public class GitFlowReleaseFinishMojo extends AbstractGitFlowMojo {
             }
 
             if (pushRemote) {
-                gitPush(gitFlowConfig.getProductionBranch(), !skipTag);
-                if (notSameProdDevName()) {
-                    gitPush(gitFlowConfig.getDevelopmentBranch(), !skipTag);
-                }
+                if (atomicPush) {
+                    List<String> branches = new ArrayList<>();
+                    branches.add(gitFlowConfig.getProductionBranch());
+                    if (notSameProdDevName()) {
+                        branches.add(gitFlowConfig.getDevelopmentBranch());
+                    }
+                    gitPushAtomic(branches, !skipTag,
+                            keepBranch ? Collections.<String> emptyList() : Collections.singletonList(releaseBranch));
+                } else {
+                    gitPush(gitFlowConfig.getProductionBranch(), !skipTag);
+                    if (notSameProdDevName()) {
+                        gitPush(gitFlowConfig.getDevelopmentBranch(), !skipTag);
+                    }
 
-                if (!keepBranch) {
-                    gitPushDelete(releaseBranch);
+                    if (!keepBranch) {
+                        gitPushDelete(releaseBranch);
+                    }
                 }
             }
 
@@ -395,8 +440,13 @@ public class GitFlowReleaseFinishMojo extends AbstractGitFlowMojo {
                 // git branch -d release/...
                 gitBranchDelete(releaseBranch);
             }
+
+            completeJournal();
         } catch (Exception e) {
             throw new MojoFailureException("release-finish", e);
+        } finally {
+            removeWorktrees();
+            writeReport();
         }
     }
 }
@@ -155,6 +155,17 @@ public class GitFlowReleaseMojo extends AbstractGitFlowMojo {
     @Parameter(property = "skipReleaseMergeProdBranch", defaultValue = "false")
     private boolean skipReleaseMergeProdBranch = false;
 
+    /**
+     * Whether to resume the failed execution of the goal. Steps completed by
+     * the failed execution are written to the journal under
+     * <code>.git/gitflow</code> and skipped, if the refs were not changed
+     * since then.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "resume", defaultValue = "false")
+    private boolean resume = false;
+
     /** {@inheritDoc} */
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
@@ -167,6 +178,8 @@ public class GitFlowReleaseMojo extends AbstractGitFlowMojo {
             // check uncommitted changes
             checkUncommittedChanges();
 
+            startJournal(resume);
+
             // git for-each-ref --count=1 refs/heads/release/*
             final String releaseBranch = gitFindBranches(
                     gitFlowConfig.getReleaseBranchPrefix(), true);
@@ -180,17 +193,14 @@ public class GitFlowReleaseMojo extends AbstractGitFlowMojo {
                 // checkout from remote if doesn't exist
                 gitFetchRemoteAndCreate(gitFlowConfig.getDevelopmentBranch());
 
-                // fetch and check remote
-                gitFetchRemoteAndCompare(gitFlowConfig.getDevelopmentBranch());
-
                 if (notSameProdDevName()) {
                     // checkout from remote if doesn't exist
                     gitFetchRemoteAndCreate(gitFlowConfig.getProductionBranch());
-
-                    // fetch and check remote
-                    gitFetchRemoteAndCompare(gitFlowConfig
-                            .getProductionBranch());
                 }
+
+                // fetch and check remote
+                gitFetchRemoteAndCompare(gitFlowConfig.getDevelopmentBranch(),
+                        notSameProdDevName() ? gitFlowConfig.getProductionBranch() : null);
             }
 
             // need to be in develop to check snapshots and to get correct
@@ -337,8 +347,12 @@ public class GitFlowReleaseMojo extends AbstractGitFlowMojo {
                     gitPush(gitFlowConfig.getDevelopmentBranch(), !skipTag);
                 }
             }
+
+            completeJournal();
         } catch (Exception e) {
             throw new MojoFailureException("release", e);
+        } finally {
+            writeReport();
         }
     }
 }
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.codehaus.plexus.util.StringUtils;
+import org.codehaus.plexus.util.cli.CommandLineException;
+
+/**
+ * The git flow release orchestrate mojo. Releases several repositories in the
+ * order of their dependencies, independent repositories are released in
+ * parallel.
+ * 
+ * @since 1.16.3
+ */
+@Mojo(name = "release-orchestrate", aggregator = true, requiresProject = false)
+public class GitFlowReleaseOrchestrateMojo extends AbstractGitFlowMojo {
+    private static final String SUCCESS = "SUCCESS";
+    private static final String FAILED = "FAILED";
+    private static final String SKIPPED = "SKIPPED";
+
+    /**
+     * Repositories to release. Each repository has a <code>path</code>
+     * relative to the execution root directory and optional
+     * <code>dependsOn</code> list with names, i.e. directory names, of the
+     * repositories which must be released before it.
+     * 
+     * <pre>
+     * &lt;repositories&gt;
+     *     &lt;repository&gt;
+     *         &lt;path&gt;../core&lt;/path&gt;
+     *     &lt;/repository&gt;
+     *     &lt;repository&gt;
+     *         &lt;path&gt;../web&lt;/path&gt;
+     *         &lt;dependsOn&gt;
+     *             &lt;name&gt;core&lt;/name&gt;
+     *         &lt;/dependsOn&gt;
+     *     &lt;/repository&gt;
+     * &lt;/repositories&gt;
+     * </pre>
+     */
+    @Parameter
+    private List<ReleaseRepository> repositories;
+
+    /**
+     * Goals executed in every repository. Goals without a plugin prefix are
+     * goals of this plugin, e.g. <code>release-start release-finish</code>.
+     */
+    @Parameter(property = "releaseGoals", defaultValue = "release")
+    private String releaseGoals = "release";
+
+    /**
+     * Additional arguments of the Maven commands executed in the
+     * repositories, e.g. <code>-DpushRemote=false</code>.
+     */
+    @Parameter(property = "repositoryArgLine")
+    private String repositoryArgLine;
+
+    /**
+     * Maximum number of repositories released at the same time. Defaults to
+     * the number of available processors.
+     */
+    @Parameter(property = "repositoryThreads", defaultValue = "0")
+    private int repositoryThreads = 0;
+
+    @Parameter(defaultValue = "${plugin}", readonly = true)
+    private PluginDescriptor plugin;
+
+    /** {@inheritDoc} */
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        validateConfiguration(releaseGoals, repositoryArgLine);
+
+        try {
+            if (repositories == null || repositories.isEmpty()) {
+                throw new MojoFailureException("No repositories to release, configure 'repositories' parameter.");
+            }
+            final List<List<ReleaseRepository>> levels = levels(repositories);
+
+            final File root = new File(mavenSession.getExecutionRootDirectory());
+            final Map<String, File> dirs = new HashMap<>();
+            for (ReleaseRepository repository : repositories) {
+                final File dir = new File(repository.getPath()).isAbsolute() ? new File(repository.getPath())
+                        : new File(root, repository.getPath());
+                if (!new File(dir, "pom.xml").isFile()) {
+                    throw new MojoFailureException("Repository '" + repository.getName() + "' has no pom.xml in "
+                            + dir + ".");
+                }
+                dirs.put(repository.getName(), dir);
+            }
+
+            final String[] args = releaseArgs();
+            final File logDir = new File(mavenSession.getCurrentProject().getBuild().getDirectory(),
+                    "gitflow" + File.separator + "release-orchestrate");
+            final Map<String, RepositoryResult> results = new HashMap<>();
+            final long start = System.nanoTime();
+            for (int i = 0; i < levels.size(); i++) {
+                final PerformanceReport.Span step = startStep("level " + (i + 1));
+                try {
+                    releaseLevel(levels.get(i), dirs, logDir, args, results);
+                } finally {
+                    step.end();
+                }
+            }
+            final List<String> failed = logSummary(levels, results, System.nanoTime() - start);
+            if (!failed.isEmpty()) {
+                throw new MojoFailureException("Release failed in " + StringUtils.join(failed.iterator(), ", ")
+                        + ". The output is in " + logDir + ".");
+            }
+        } catch (CommandLineException e) {
+            throw new MojoFailureException("release-orchestrate", e);
+        } finally {
+            writeReport();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean hasDryRunPlan() {
+        return false;
+    }
+
+    /**
+     * @return Arguments of the Maven command executed in the repositories.
+     */
+    private String[] releaseArgs() {
+        final List<String> args = new ArrayList<>();
+        args.add("-B");
+        if (isDryRun()) {
+            // every repository writes its own plan
+            args.add("-DdryRun=true");
+        }
+        for (String goal : releaseGoals.trim().split("[\\s,]+")) {
+            if (goal.indexOf(':') < 0) {
+                goal = plugin.getGroupId() + ":" + plugin.getArtifactId() + ":" + plugin.getVersion() + ":" + goal;
+            }
+            args.add(goal);
+        }
+        return args.toArray(new String[0]);
+    }
+
+    /**
+     * Releases repositories of the level in parallel. Repositories depending
+     * on repositories which weren't released are skipped.
+     */
+    private void releaseLevel(final List<ReleaseRepository> level, final Map<String, File> dirs, final File logDir,
+            final String[] args, final Map<String, RepositoryResult> results)
+            throws MojoFailureException, CommandLineException {
+        final List<ReleaseRepository> toRelease = new ArrayList<>();
+        for (ReleaseRepository repository : level) {
+            String notReleased = null;
+            for (String dependency : repository.getDependsOn()) {
+                final RepositoryResult result = results.get(dependency);
+                if (result != null && !SUCCESS.equals(result.status)) {
+                    notReleased = dependency;
+                    break;
+                }
+            }
+            if (notReleased != null) {
+                getLog().warn("Skipping '" + repository.getName() + "', repository '" + notReleased
+                        + "' it depends on wasn't released.");
+                results.put(repository.getName(), new RepositoryResult(SKIPPED, 0));
+            } else {
+                toRelease.add(repository);
+            }
+        }
+        final List<Callable<RepositoryResult>> tasks = new ArrayList<>();
+        for (final ReleaseRepository repository : toRelease) {
+            tasks.add(new Callable<RepositoryResult>() {
+                @Override
+                public RepositoryResult call() throws Exception {
+                    return release(repository.getName(), dirs.get(repository.getName()),
+                            new File(logDir, repository.getName() + ".log"), args);
+                }
+            });
+        }
+        final List<RepositoryResult> released = executeInParallel(tasks, repositoryThreads);
+        for (int i = 0; i < toRelease.size(); i++) {
+            results.put(toRelease.get(i).getName(), released.get(i));
+        }
+    }
+
+    private RepositoryResult release(final String name, final File dir, final File logFile, final String[] args)
+            throws CommandLineException {
+        getLog().info("Releasing '" + name + "'.");
+        final long start = System.nanoTime();
+        final CommandResult result = executeMvnCommandIn(dir, repositoryArgLine, logFile, args);
+        final long nanos = System.nanoTime() - start;
+        if (result.getExitCode() != 0) {
+            getLog().error("Release of '" + name + "' failed, full output is in " + logFile + ":\n"
+                    + result.getOut());
+            return new RepositoryResult(FAILED, nanos);
+        }
+        if (isDryRun()) {
+            getLog().info("Dry run of '" + name + "' succeeded, the plan is in " + logFile + ".");
+        } else {
+            getLog().info("Released '" + name + "' in " + seconds(nanos) + ".");
+        }
+        return new RepositoryResult(SUCCESS, nanos);
+    }
+
+    /**
+     * Logs status and time of every repository.
+     *
+     * @return Names of the failed repositories.
+     */
+    private List<String> logSummary(final List<List<ReleaseRepository>> levels,
+            final Map<String, RepositoryResult> results, final long nanos) {
+        int width = "Repository".length();
+        for (ReleaseRepository repository : repositories) {
+            width = Math.max(width, repository.getName().length());
+        }
+        final String format = "%-5s  %-" + width + "s  %-7s  %8s";
+
+        getLog().info("Release summary:");
+        getLog().info(String.format(Locale.ENGLISH, format, "Level", "Repository", "Status", "Time"));
+        final List<String> failed = new ArrayList<>();
+        int released = 0;
+        for (int i = 0; i < levels.size(); i++) {
+            for (ReleaseRepository repository : levels.get(i)) {
+                final RepositoryResult result = results.get(repository.getName());
+                getLog().info(String.format(Locale.ENGLISH, format, i + 1, repository.getName(), result.status,
+                        SKIPPED.equals(result.status) ? "" : seconds(result.nanos)));
+                if (SUCCESS.equals(result.status)) {
+                    released++;
+                } else if (FAILED.equals(result.status)) {
+                    failed.add(repository.getName());
+                }
+            }
+        }
+        getLog().info((isDryRun() ? "Dry run succeeded for " : "Released ") + released + " of "
+                + repositories.size() + " repositories in " + seconds(nanos) + ".");
+        return failed;
+    }
+
+    private static String seconds(final long nanos) {
+        return String.format(Locale.ENGLISH, "%.1f s", nanos / 1e9);
+    }
+
+    /**
+     * Groups repositories by topological levels. Repositories of the first
+     * level don't depend on other repositories, repositories of the next
+     * levels depend only on the repositories of the previous levels.
+     *
+     * @param repositories
+     *            Repositories.
+     * @return Levels of the repositories in the configured order.
+     * @throws MojoFailureException
+     *             If names are not unique, a dependency is unknown or
+     *             dependencies are cyclic.
+     */
+    static List<List<ReleaseRepository>> levels(final List<ReleaseRepository> repositories)
+            throws MojoFailureException {
+        final Map<String, ReleaseRepository> byName = new LinkedHashMap<>();
+        for (ReleaseRepository repository : repositories) {
+            if (StringUtils.isBlank(repository.getPath())) {
+                throw new MojoFailureException("Repository path is not set.");
+            }
+            if (byName.put(repository.getName(), repository) != null) {
+                throw new MojoFailureException("Repository name '" + repository.getName() + "' is not unique.");
+            }
+        }
+        for (ReleaseRepository repository : repositories) {
+            for (String dependency : repository.getDependsOn()) {
+                if (!byName.containsKey(dependency)) {
+                    throw new MojoFailureException("Repository '" + repository.getName()
+                            + "' depends on unknown repository '" + dependency + "'.");
+                }
+            }
+        }
+
+        final List<List<ReleaseRepository>> levels = new ArrayList<>();
+        final Set<String> leveled = new HashSet<>();
+        while (leveled.size() < byName.size()) {
+            final List<ReleaseRepository> level = new ArrayList<>();
+            for (ReleaseRepository repository : byName.values()) {
+                if (!leveled.contains(repository.getName())
+                        && leveled.containsAll(repository.getDependsOn())) {
+                    level.add(repository);
+                }
+            }
+            if (level.isEmpty()) {
+                final List<String> cyclic = new ArrayList<>(byName.keySet());
+                cyclic.removeAll(leveled);
+                throw new MojoFailureException("Repositories " + StringUtils.join(cyclic.iterator(), ", ")
+                        + " have cyclic dependencies.");
+            }
+            for (ReleaseRepository repository : level) {
+                leveled.add(repository.getName());
+            }
+            levels.add(level);
+        }
+        return levels;
+    }
+
+    private static class RepositoryResult {
+        private final String status;
+        private final long nanos;
+
+        private RepositoryResult(final String status, final long nanos) {
+            this.status = status;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -267,6 +267,8 @@ public class GitFlowReleaseStartMojo extends AbstractGitFlowMojo {
             throw new MojoFailureException("release-start", e);
         } catch (VersionParseException e) {
             throw new MojoFailureException("release-start", e);
+        } finally {
+            writeReport();
         }
     }
 
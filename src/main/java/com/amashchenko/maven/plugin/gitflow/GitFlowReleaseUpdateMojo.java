@@ -199,16 +199,14 @@ public class GitFlowReleaseUpdateMojo extends AbstractGitFlowMojo {
             }
 
             if (fetchRemote) {
-                // fetch and check remote
-                gitFetchRemoteAndCompare(releaseBranch);
-
                 if (notSameProdDevName()) {
                     // checkout from remote if doesn't exist
                     gitFetchRemoteAndCreate(gitFlowConfig.getProductionBranch());
-
-                    // fetch and check remote
-                    gitFetchRemoteAndCompare(gitFlowConfig.getProductionBranch());
                 }
+
+                // fetch and check remote
+                gitFetchRemoteAndCompare(releaseBranch,
+                        notSameProdDevName() ? gitFlowConfig.getProductionBranch() : null);
             }
 
             // git checkout release/...
@@ -297,6 +295,8 @@ public class GitFlowReleaseUpdateMojo extends AbstractGitFlowMojo {
             }
         } catch (Exception e) {
             throw new MojoFailureException("release-update", e);
+        } finally {
+            writeReport();
         }
     }
 
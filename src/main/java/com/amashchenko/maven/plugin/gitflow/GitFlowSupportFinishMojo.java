@@ -106,6 +106,28 @@ public class GitFlowSupportFinishMojo extends AbstractGitFlowMojo {
     @Parameter(property = "sourceBranch")
     private String sourceBranch;
 
+    /**
+     * Whether to merge, update versions, commit and tag in temporary git
+     * worktrees under <code>.git/gitflow-worktrees</code> instead of checking
+     * out branches in the working tree. Worktrees are removed at the end, even
+     * if the goal fails.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "useWorktrees", defaultValue = "false")
+    private boolean useWorktrees = false;
+
+    /**
+     * Whether to resume the failed execution of the goal. Steps completed by
+     * the failed execution are written to the journal under
+     * <code>.git/gitflow</code> and skipped, if the refs were not changed
+     * since then.
+     *
+     * @since 1.16.3
+     */
+    @Parameter(property = "resume", defaultValue = "false")
+    private boolean resume = false;
+
     /**
      * {@inheritDoc}
      */
@@ -117,6 +139,12 @@ public class GitFlowSupportFinishMojo extends AbstractGitFlowMojo {
             // check uncommitted changes
             checkUncommittedChanges();
 
+            if (useWorktrees) {
+                startWorktrees();
+            }
+
+            startJournal(resume);
+
             if (StringUtils.isBlank(sourceBranch)) {
                 // git for-each-ref --format='%(refname:short)' refs/heads/support/*
                 sourceBranch = gitFindBranches(gitFlowConfig.getSupportBranchPrefix(), false).trim();
@@ -213,8 +241,13 @@ public class GitFlowSupportFinishMojo extends AbstractGitFlowMojo {
                     gitPushDelete(sourceBranch);
                 }
             }
+
+            completeJournal();
         } catch (Exception e) {
             throw new MojoFailureException("support-finish", e);
+        } finally {
+            removeWorktrees();
+            writeReport();
         }
     }
 }
@@ -164,6 +164,8 @@ public class GitFlowSupportStartMojo extends AbstractGitFlowMojo {
             throw new MojoFailureException("support-start", e);
         } catch (VersionParseException e) {
             throw new MojoFailureException("support-start", e);
+        } finally {
+            writeReport();
         }
     }
 }
@@ -15,23 +15,36 @@
  */
 package com.amashchenko.maven.plugin.gitflow;
 
+import java.util.List;
+import java.util.Locale;
+
 import org.apache.maven.artifact.Artifact;
-import org.apache.maven.shared.release.versions.DefaultVersionInfo;
+import org.apache.maven.artifact.ArtifactUtils;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.apache.maven.shared.release.versions.VersionInfo;
 import org.apache.maven.shared.release.versions.VersionParseException;
 import org.codehaus.plexus.util.StringUtils;
 
-import java.util.List;
-
 /**
  * Git flow {@link VersionInfo} implementation. Adds few convenient methods.
+ * Versions are parsed with the same rules as
+ * <code>DefaultVersionInfo</code>, but in a single pass and without
+ * intermediate lists and strings.
  *
  */
-public class GitFlowVersionInfo extends DefaultVersionInfo {
+public class GitFlowVersionInfo implements VersionInfo {
+    private final ParsedVersion version;
 
     public GitFlowVersionInfo(final String version)
             throws VersionParseException {
-        super(version);
+        this.version = ParsedVersion.parse(version);
+        if (this.version == null) {
+            throw new VersionParseException("Unable to parse the version string: \"" + version + "\"");
+        }
+    }
+
+    private GitFlowVersionInfo(final ParsedVersion version) {
+        this.version = version;
     }
 
     /**
@@ -41,7 +54,10 @@ public class GitFlowVersionInfo extends DefaultVersionInfo {
      * @throws VersionParseException
      */
     public GitFlowVersionInfo digitsVersionInfo() throws VersionParseException {
-        return new GitFlowVersionInfo(joinDigitString(getDigits()));
+        if (version.getDigitCount() == 0) {
+            throw new VersionParseException("Version '" + version.getVersion() + "' has no digits.");
+        }
+        return new GitFlowVersionInfo(version.digitsOnly());
     }
 
     /**
@@ -53,9 +69,7 @@ public class GitFlowVersionInfo extends DefaultVersionInfo {
      *         otherwise.
      */
     public static boolean isValidVersion(final String version) {
-        return StringUtils.isNotBlank(version)
-                && (ALTERNATE_PATTERN.matcher(version).matches() || STANDARD_PATTERN
-                        .matcher(version).matches());
+        return StringUtils.isNotBlank(version) && ParsedVersion.isValid(version);
     }
 
     /**
@@ -76,24 +90,15 @@ public class GitFlowVersionInfo extends DefaultVersionInfo {
      * @return Next SNAPSHOT version.
      */
     public String nextSnapshotVersion(final Integer index) {
-        List<String> digits = getDigits();
+        final int digits = version.getDigitCount();
 
         String nextVersion = null;
 
-        if (digits != null) {
-            if (index != null && index >= 0 && index < digits.size()) {
-                int origDigitsLength = joinDigitString(digits).length();
-                digits.set(index,
-                        incrementVersionString((String) digits.get(index)));
-                for (int i = index + 1; i < digits.size(); i++) {
-                    digits.set(i, "0");
-                }
-                String digitsStr = joinDigitString(digits);
-                nextVersion = digitsStr
-                        + getSnapshotVersionString()
-                                .substring(origDigitsLength);
+        if (digits > 0) {
+            if (index != null && index >= 0 && index < digits) {
+                nextVersion = version.nextSnapshotVersion(index);
             } else {
-                nextVersion = getNextVersion().getSnapshotVersionString();
+                nextVersion = ParsedVersion.snapshotVersionString(version.next().getVersion());
             }
         } else {
             nextVersion = getSnapshotVersionString();
@@ -125,9 +130,10 @@ public class GitFlowVersionInfo extends DefaultVersionInfo {
      * @return Next version.
      */
     public String hotfixVersion(boolean preserveSnapshot) {
-        return (preserveSnapshot && isSnapshot()) ? getNextVersion()
-            .getSnapshotVersionString() : getNextVersion()
-            .getReleaseVersionString();
+        final String nextVersion = version.next().getVersion();
+        return (preserveSnapshot && isSnapshot()) ? ParsedVersion
+            .snapshotVersionString(nextVersion) : ParsedVersion
+            .releaseVersionString(nextVersion);
     }
 
     /**
@@ -140,13 +146,97 @@ public class GitFlowVersionInfo extends DefaultVersionInfo {
     public String getPaddedVersion(int digits) throws VersionParseException {
         String defaultVersion = getReleaseVersionString();
         int i = digits;
-        if (i > getDigits().size()) {
-            while (i > getDigits().size()) {
-                defaultVersion = defaultVersion + ".0";
+        if (i > version.getDigitCount()) {
+            final StringBuilder sb = new StringBuilder(defaultVersion);
+            while (i > version.getDigitCount()) {
+                sb.append(".0");
                 i--;
             }
-            defaultVersion = new GitFlowVersionInfo(defaultVersion).getReleaseVersionString();
+            defaultVersion = sb.toString();
         }
         return defaultVersion;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isSnapshot() {
+        return ArtifactUtils.isSnapshot(version.getVersion());
+    }
+
+    /**
+     * Gets next version. Increments the annotation revision if it is present,
+     * otherwise the last digit.
+     *
+     * @return Next version or <code>null</code> if version has no digits.
+     */
+    @Override
+    public VersionInfo getNextVersion() {
+        final ParsedVersion nextVersion = version.next();
+        return nextVersion == null ? null : new GitFlowVersionInfo(nextVersion);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getSnapshotVersionString() {
+        return ParsedVersion.snapshotVersionString(version.getVersion());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getReleaseVersionString() {
+        return ParsedVersion.releaseVersionString(version.getVersion());
+    }
+
+    /**
+     * @return Digits of the version or <code>null</code> if version has no
+     *         digits.
+     */
+    public List<String> getDigits() {
+        return version.getDigits();
+    }
+
+    public String getAnnotation() {
+        return version.getAnnotation();
+    }
+
+    public String getAnnotationRevision() {
+        return version.getAnnotationRevision();
+    }
+
+    public String getBuildSpecifier() {
+        return version.getBuildSpecifier();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int compareTo(final VersionInfo obj) {
+        final String thisVersion = toString();
+        final String thatVersion = obj.toString();
+        if (thisVersion.startsWith(thatVersion) && !thisVersion.equals(thatVersion)
+                && thisVersion.charAt(thatVersion.length()) != '-') {
+            return 1;
+        } else if (thatVersion.startsWith(thisVersion) && !thatVersion.equals(thisVersion)
+                && thatVersion.charAt(thisVersion.length()) != '-') {
+            return -1;
+        }
+        // qualifiers are compared ignoring case
+        return new DefaultArtifactVersion(thisVersion.toUpperCase(Locale.ENGLISH).toLowerCase(Locale.ENGLISH))
+                .compareTo(new DefaultArtifactVersion(
+                        thatVersion.toUpperCase(Locale.ENGLISH).toLowerCase(Locale.ENGLISH)));
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof GitFlowVersionInfo && compareTo((GitFlowVersionInfo) obj) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return version.getVersion().toLowerCase(Locale.ENGLISH).hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return version.getVersion();
+    }
 }
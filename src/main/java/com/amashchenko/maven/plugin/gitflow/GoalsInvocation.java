@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Maven command line arguments translated into an execution request of the
+ * running Maven session. Only goals, phases, <code>-D</code>, <code>-P</code>,
+ * <code>-o</code> and <code>-B</code> options can be translated.
+ *
+ */
+class GoalsInvocation {
+    private final List<String> goals = new ArrayList<>();
+    private final Properties userProperties = new Properties();
+    private final List<String> activeProfiles = new ArrayList<>();
+    private final List<String> inactiveProfiles = new ArrayList<>();
+    private boolean offline;
+
+    private GoalsInvocation() {
+    }
+
+    /**
+     * Translates command line arguments.
+     *
+     * @param args
+     *            Maven command line arguments.
+     * @return Invocation or <code>null</code> if some of the arguments cannot
+     *         be translated and Maven must be executed in a separate process.
+     */
+    static GoalsInvocation parse(final String... args) {
+        final GoalsInvocation invocation = new GoalsInvocation();
+        for (int i = 0; i < args.length; i++) {
+            final String arg = args[i];
+            if (arg == null || arg.isEmpty()) {
+                continue;
+            }
+            if (!arg.startsWith("-")) {
+                invocation.goals.add(arg);
+            } else if (arg.startsWith("-D")) {
+                String prop = arg.length() > 2 ? arg.substring(2) : (++i < args.length ? args[i] : "");
+                int idx = prop.indexOf('=');
+                if (idx == 0 || prop.isEmpty()) {
+                    return null;
+                }
+                if (idx == -1) {
+                    invocation.userProperties.setProperty(prop, "true");
+                } else {
+                    invocation.userProperties.setProperty(prop.substring(0, idx), prop.substring(idx + 1));
+                }
+            } else if (arg.startsWith("-P")) {
+                String profiles = arg.length() > 2 ? arg.substring(2) : (++i < args.length ? args[i] : "");
+                if (profiles.isEmpty()) {
+                    return null;
+                }
+                for (String profile : profiles.split(",")) {
+                    profile = profile.trim();
+                    if (profile.startsWith("!") || profile.startsWith("-")) {
+                        invocation.inactiveProfiles.add(profile.substring(1));
+                    } else if (profile.startsWith("+")) {
+                        invocation.activeProfiles.add(profile.substring(1));
+                    } else if (!profile.isEmpty()) {
+                        invocation.activeProfiles.add(profile);
+                    }
+                }
+            } else if ("-o".equals(arg) || "--offline".equals(arg)) {
+                invocation.offline = true;
+            } else if (!"-B".equals(arg) && !"--batch-mode".equals(arg)) {
+                return null;
+            }
+        }
+        if (invocation.goals.isEmpty()) {
+            return null;
+        }
+        return invocation;
+    }
+
+    /**
+     * @return Goals and phases.
+     */
+    List<String> getGoals() {
+        return goals;
+    }
+
+    /**
+     * @return User properties set with <code>-D</code>.
+     */
+    Properties getUserProperties() {
+        return userProperties;
+    }
+
+    /**
+     * @return Profiles activated with <code>-P</code>.
+     */
+    List<String> getActiveProfiles() {
+        return activeProfiles;
+    }
+
+    /**
+     * @return Profiles deactivated with <code>-P</code>.
+     */
+    List<String> getInactiveProfiles() {
+        return inactiveProfiles;
+    }
+
+    /**
+     * @return <code>true</code> if <code>-o</code> is set.
+     */
+    boolean isOffline() {
+        return offline;
+    }
+}
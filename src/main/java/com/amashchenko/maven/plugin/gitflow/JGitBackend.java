@@ -0,0 +1,449 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.codehaus.plexus.util.StringUtils;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.eclipse.jgit.api.CheckoutCommand;
+import org.eclipse.jgit.api.CheckoutResult;
+import org.eclipse.jgit.api.CreateBranchCommand.SetupUpstreamMode;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeCommand;
+import org.eclipse.jgit.api.MergeCommand.FastForwardMode;
+import org.eclipse.jgit.api.MergeResult;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefDatabase;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevTag;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.submodule.SubmoduleWalk.IgnoreSubmoduleMode;
+
+/**
+ * Git backend which reads refs, commits, merges and tags in-process with JGit.
+ * Operations which talk to the remote, GPG-signed commits, merges and tags and
+ * rebase are delegated to the git executable, so that credentials, push hooks
+ * and signing work the same way as with the command line. Local operations
+ * differ from the command line:
+ * <ul>
+ * <li>commit runs only pre-commit, commit-msg and post-commit hooks, merge and
+ * checkout don't run any hooks, e.g. prepare-commit-msg, post-merge or
+ * post-checkout;</li>
+ * <li><code>commit.gpgSign</code> and <code>tag.gpgSign</code> options are not
+ * honored, only signing requested with plugin parameters;</li>
+ * <li>merge drivers and other <code>.gitattributes</code>, e.g. filters, as
+ * well as <code>merge.ff</code>, <code>merge.conflictStyle</code> and rerere
+ * are not honored.</li>
+ * </ul>
+ *
+ */
+public class JGitBackend implements GitBackend {
+    private final File directory;
+    private final GitBackend cli;
+
+    /**
+     * Creates JGit backend.
+     *
+     * @param directory
+     *            Directory inside the working tree of the repository.
+     * @param cli
+     *            Backend to delegate not supported operations to.
+     */
+    public JGitBackend(final File directory, final GitBackend cli) {
+        this.directory = directory;
+        this.cli = cli;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void loadRefs(final RefSnapshot snapshot) throws MojoFailureException, CommandLineException {
+        try (Repository repository = openRepository(); RevWalk walk = new RevWalk(repository)) {
+            final String head = repository.getFullBranch();
+            final Map<String, Ref> refs = new TreeMap<String, Ref>(
+                    repository.getRefDatabase().getRefs(RefDatabase.ALL));
+
+            StringBuilder sb = new StringBuilder();
+            for (Entry<String, Ref> entry : refs.entrySet()) {
+                final String name = entry.getKey();
+                final ObjectId id = entry.getValue().getObjectId();
+                if (!name.startsWith(Constants.R_REFS) || id == null) {
+                    continue;
+                }
+
+                String taggerTime = "";
+                String authorTime = "";
+                if (name.startsWith(Constants.R_TAGS)) {
+                    RevObject obj = walk.parseAny(id);
+                    if (obj instanceof RevTag) {
+                        RevTag tag = (RevTag) obj;
+                        taggerTime = time(tag.getTaggerIdent());
+                        RevObject target = walk.parseAny(tag.getObject());
+                        if (target instanceof RevCommit) {
+                            authorTime = time(((RevCommit) target).getAuthorIdent());
+                        }
+                    }
+                }
+
+                sb.append(name.equals(head) ? '*' : ' ').append('\t').append(name).append('\t')
+                        .append(id.name()).append('\t').append(taggerTime).append('\t').append(authorTime)
+                        .append('\n');
+            }
+            snapshot.load(sb.toString());
+        } catch (IOException e) {
+            throw new MojoFailureException("Error reading refs", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getCurrentBranch() throws MojoFailureException, CommandLineException {
+        try (Repository repository = openRepository()) {
+            String fullBranch = repository.getFullBranch();
+            if (fullBranch == null || !fullBranch.startsWith(Constants.R_HEADS)) {
+                throw new MojoFailureException("HEAD is not a branch.");
+            }
+            return Repository.shortenRefName(fullBranch);
+        } catch (IOException e) {
+            throw new MojoFailureException("Error reading HEAD", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasUncommittedChanges() throws MojoFailureException, CommandLineException {
+        try (Repository repository = openRepository(); Git git = new Git(repository)) {
+            return git.status().setIgnoreSubmodules(IgnoreSubmoduleMode.ALL).call().hasUncommittedChanges();
+        } catch (IOException | GitAPIException e) {
+            throw new MojoFailureException("Error checking uncommitted changes", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isValidBranchName(final String branchName) throws MojoFailureException, CommandLineException {
+        return Repository.isValidRefName(Constants.R_HEADS + branchName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setConfig(final String name, final String value) throws MojoFailureException, CommandLineException {
+        final int first = name.indexOf('.');
+        final int last = name.lastIndexOf('.');
+        if (first == -1) {
+            throw new MojoFailureException("Invalid config option name '" + name + "'.");
+        }
+        final String section = name.substring(0, first);
+        final String subsection = first == last ? null : name.substring(first + 1, last);
+        final String key = name.substring(last + 1);
+
+        try (Repository repository = openRepository()) {
+            StoredConfig config = repository.getConfig();
+            config.setString(section, subsection, key, value == null ? "" : value);
+            config.save();
+        } catch (IOException e) {
+            throw new MojoFailureException("Error saving config option '" + name + "'", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void checkout(final String branchName) throws MojoFailureException, CommandLineException {
+        try (Repository repository = openRepository(); Git git = new Git(repository)) {
+            CheckoutCommand checkout = git.checkout().setName(branchName);
+            call(checkout, branchName);
+        } catch (IOException e) {
+            throw new MojoFailureException("Error checking out '" + branchName + "'", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void createAndCheckout(final String newBranchName, final String fromBranchName)
+            throws MojoFailureException, CommandLineException {
+        try (Repository repository = openRepository(); Git git = new Git(repository)) {
+            CheckoutCommand checkout = git.checkout().setCreateBranch(true).setName(newBranchName)
+                    .setStartPoint(fromBranchName);
+            if (isRemoteBranch(repository, fromBranchName)) {
+                checkout.setUpstreamMode(SetupUpstreamMode.TRACK);
+            }
+            call(checkout, newBranchName);
+        } catch (IOException e) {
+            throw new MojoFailureException("Error creating branch '" + newBranchName + "'", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void createBranch(final String newBranchName, final String fromBranchName)
+            throws MojoFailureException, CommandLineException {
+        try (Repository repository = openRepository(); Git git = new Git(repository)) {
+            git.branchCreate().setName(newBranchName).setStartPoint(fromBranchName)
+                    .setUpstreamMode(isRemoteBranch(repository, fromBranchName) ? SetupUpstreamMode.TRACK : null)
+                    .call();
+        } catch (IOException | GitAPIException e) {
+            throw new MojoFailureException("Error creating branch '" + newBranchName + "'", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void commit(final String message, final boolean sign) throws MojoFailureException, CommandLineException {
+        if (sign) {
+            cli.commit(message, sign);
+            return;
+        }
+        try (Repository repository = openRepository(); Git git = new Git(repository)) {
+            git.commit().setAll(true).setMessage(message).call();
+        } catch (IOException | GitAPIException e) {
+            throw new MojoFailureException("Error committing changes", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void rebase(final String branchName, final boolean sign) throws MojoFailureException, CommandLineException {
+        cli.rebase(branchName, sign);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void merge(final String branchName, final boolean noff, final boolean ffonly, final String message,
+            final boolean sign) throws MojoFailureException, CommandLineException {
+        if (sign) {
+            cli.merge(branchName, noff, ffonly, message, sign);
+            return;
+        }
+        try (Repository repository = openRepository(); Git git = new Git(repository)) {
+            MergeCommand merge = include(git.merge(), repository, branchName);
+            if (ffonly) {
+                merge.setFastForward(FastForwardMode.FF_ONLY);
+            } else if (noff) {
+                merge.setFastForward(FastForwardMode.NO_FF);
+            }
+            if (StringUtils.isNotBlank(message)) {
+                merge.setMessage(message);
+            }
+            checkMergeResult(merge.call(), branchName);
+        } catch (IOException | GitAPIException e) {
+            throw new MojoFailureException("Error merging '" + branchName + "' branch", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void mergeSquash(final String branchName) throws MojoFailureException, CommandLineException {
+        try (Repository repository = openRepository(); Git git = new Git(repository)) {
+            checkMergeResult(include(git.merge(), repository, branchName).setSquash(true).call(), branchName);
+        } catch (IOException | GitAPIException e) {
+            throw new MojoFailureException("Error merging '" + branchName + "' branch", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void tag(final String tagName, final String message, final boolean sign)
+            throws MojoFailureException, CommandLineException {
+        if (sign) {
+            cli.tag(tagName, message, sign);
+            return;
+        }
+        try (Repository repository = openRepository(); Git git = new Git(repository)) {
+            git.tag().setName(tagName).setMessage(message).setAnnotated(true).call();
+        } catch (IOException | GitAPIException e) {
+            throw new MojoFailureException("Error creating '" + tagName + "' tag", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void deleteBranch(final String branchName, final boolean force)
+            throws MojoFailureException, CommandLineException {
+        try (Repository repository = openRepository(); Git git = new Git(repository)) {
+            git.branchDelete().setBranchNames(branchName).setForce(force).call();
+        } catch (IOException | GitAPIException e) {
+            throw new MojoFailureException("Error deleting '" + branchName + "' branch", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean fetch(final String remote, final String branchName)
+            throws MojoFailureException, CommandLineException {
+        return cli.fetch(remote, branchName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean fetch(final String remote, final List<String> branchNames, final List<String> refSpecs)
+            throws MojoFailureException, CommandLineException {
+        return cli.fetch(remote, branchNames, refSpecs);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<String> findRemoteBranches(final String remote, final List<String> branchNames)
+            throws MojoFailureException, CommandLineException {
+        return cli.findRemoteBranches(remote, branchNames);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void pull(final String remote, final String branchName) throws MojoFailureException, CommandLineException {
+        cli.pull(remote, branchName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int[] countAheadBehind(final String branchName, final String otherBranchName)
+            throws MojoFailureException, CommandLineException {
+        try (Repository repository = openRepository(); RevWalk walk = new RevWalk(repository)) {
+            final ObjectId local = repository.resolve(branchName);
+            final ObjectId other = repository.resolve(otherBranchName);
+            if (local == null || other == null) {
+                return null;
+            }
+            final int ahead = countOnlyIn(walk, local, other);
+            walk.reset();
+            final int behind = countOnlyIn(walk, other, local);
+            return new int[] { ahead, behind };
+        } catch (IOException e) {
+            throw new MojoFailureException("Error comparing '" + branchName + "' with '" + otherBranchName + "'", e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, int[]> countAheadBehind(final String remote, final List<String> branchNames)
+            throws MojoFailureException, CommandLineException {
+        final Map<String, int[]> result = new LinkedHashMap<>();
+        try (Repository repository = openRepository(); RevWalk walk = new RevWalk(repository)) {
+            for (String branchName : branchNames) {
+                final ObjectId local = repository.resolve(Constants.R_HEADS + branchName);
+                final ObjectId other = repository.resolve(Constants.R_REMOTES + remote + "/" + branchName);
+                if (local == null || other == null) {
+                    continue;
+                }
+                walk.reset();
+                final int ahead = countOnlyIn(walk, local, other);
+                walk.reset();
+                final int behind = countOnlyIn(walk, other, local);
+                result.put(branchName, new int[] { ahead, behind });
+            }
+        } catch (IOException e) {
+            throw new MojoFailureException("Error comparing branches with '" + remote + "'", e);
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void push(final String remote, final String branchName, final boolean followTags)
+            throws MojoFailureException, CommandLineException {
+        cli.push(remote, branchName, followTags);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean pushDelete(final String remote, final String branchName)
+            throws MojoFailureException, CommandLineException {
+        return cli.pushDelete(remote, branchName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void pushAtomic(final String remote, final List<String> branchNames, final List<String> tagNames,
+            final List<String> deleteBranchNames) throws MojoFailureException, CommandLineException {
+        cli.pushAtomic(remote, branchNames, tagNames, deleteBranchNames);
+    }
+
+    private Repository openRepository() throws IOException {
+        return new FileRepositoryBuilder().readEnvironment().findGitDir(directory).setMustExist(true).build();
+    }
+
+    private static int countOnlyIn(final RevWalk walk, final ObjectId start, final ObjectId uninteresting)
+            throws IOException {
+        walk.markStart(walk.parseCommit(start));
+        walk.markUninteresting(walk.parseCommit(uninteresting));
+        int count = 0;
+        while (walk.next() != null) {
+            count++;
+        }
+        return count;
+    }
+
+    private static MergeCommand include(final MergeCommand merge, final Repository repository, final String name)
+            throws IOException, MojoFailureException {
+        // include ref itself to get the same default message as git merge
+        Ref ref = repository.findRef(name);
+        if (ref != null) {
+            return merge.include(ref);
+        }
+        ObjectId id = repository.resolve(name);
+        if (id == null) {
+            throw new MojoFailureException("'" + name + "' - not something we can merge.");
+        }
+        return merge.include(name, id);
+    }
+
+    private static boolean isRemoteBranch(final Repository repository, final String name) throws IOException {
+        return repository.exactRef(Constants.R_REMOTES + name) != null;
+    }
+
+    private static String time(final PersonIdent ident) {
+        return ident == null ? "" : String.valueOf(ident.getWhen().getTime() / 1000);
+    }
+
+    private static void call(final CheckoutCommand checkout, final String name) throws MojoFailureException {
+        try {
+            checkout.call();
+        } catch (GitAPIException e) {
+            throw new MojoFailureException("Error checking out '" + name + "'", e);
+        }
+        CheckoutResult result = checkout.getResult();
+        if (result.getStatus() != CheckoutResult.Status.OK) {
+            throw new MojoFailureException("Error checking out '" + name + "': " + result.getStatus()
+                    + (result.getConflictList().isEmpty() ? "" : " " + result.getConflictList()));
+        }
+    }
+
+    private static void checkMergeResult(final MergeResult result, final String branchName)
+            throws MojoFailureException {
+        if (!result.getMergeStatus().isSuccessful()) {
+            StringBuilder sb = new StringBuilder("Merging '").append(branchName).append("' failed: ")
+                    .append(result.getMergeStatus());
+            if (result.getConflicts() != null) {
+                sb.append(' ').append(result.getConflicts().keySet());
+            }
+            throw new MojoFailureException(sb.toString());
+        }
+    }
+}
@@ -0,0 +1,446 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import org.apache.maven.artifact.Artifact;
+
+/**
+ * Immutable version parsed in a single pass. Follows the rules of the
+ * <code>DefaultVersionInfo</code> patterns from maven-release-manager:
+ * <code>digits[-_]annotation[-_]revision[-_]build</code> or
+ * <code>[letters[-_]]SNAPSHOT</code>. Parts of the version are stored as
+ * offsets into the version string.
+ *
+ */
+final class ParsedVersion {
+    private static final String SNAPSHOT = Artifact.SNAPSHOT_VERSION;
+    private static final String SNAPSHOT_SUFFIX = "-" + SNAPSHOT;
+    /** Minimal length of the timestamped SNAPSHOT version suffix. */
+    private static final int TIMESTAMP_SUFFIX_LENGTH = 18;
+    private static final int NONE = -1;
+
+    private final String version;
+    /** End offsets of the digits, <code>null</code> if there are no digits. */
+    private final int[] digitEnds;
+    /** Offsets of the separators, {@link #NONE} if absent. */
+    private final int annotationSeparator;
+    private final int annotationRevSeparator;
+    private final int buildSeparator;
+    /**
+     * Start and end offsets of the parts, start is {@link #NONE} if part is
+     * absent.
+     */
+    private final int annotationStart;
+    private final int annotationEnd;
+    private final int annotationRevisionStart;
+    private final int annotationRevisionEnd;
+    private final int buildSpecifierStart;
+    private final int buildSpecifierEnd;
+
+    private ParsedVersion(final String version, final int[] digitEnds, final int annotationSeparator,
+            final int annotationStart, final int annotationEnd, final int annotationRevSeparator,
+            final int annotationRevisionStart, final int annotationRevisionEnd, final int buildSeparator,
+            final int buildSpecifierStart, final int buildSpecifierEnd) {
+        this.version = version;
+        this.digitEnds = digitEnds;
+        this.annotationSeparator = annotationSeparator;
+        this.annotationStart = annotationStart;
+        this.annotationEnd = annotationEnd;
+        this.annotationRevSeparator = annotationRevSeparator;
+        this.annotationRevisionStart = annotationRevisionStart;
+        this.annotationRevisionEnd = annotationRevisionEnd;
+        this.buildSeparator = buildSeparator;
+        this.buildSpecifierStart = buildSpecifierStart;
+        this.buildSpecifierEnd = buildSpecifierEnd;
+    }
+
+    /**
+     * Parses version.
+     *
+     * @param version
+     *            Version to parse.
+     * @return Parsed version or <code>null</code> if version is not valid.
+     */
+    static ParsedVersion parse(final String version) {
+        final int length = version.length();
+
+        if (isLettersSnapshot(version)) {
+            return new ParsedVersion(version, null, NONE, NONE, NONE, NONE, NONE, NONE, NONE, 0, length);
+        }
+
+        if (length == 0 || !isDigit(version.charAt(0))) {
+            return null;
+        }
+
+        // digits separated by dots
+        int pos = skipDigits(version, 0);
+        int count = 1;
+        while (pos + 1 < length && version.charAt(pos) == '.' && isDigit(version.charAt(pos + 1))) {
+            pos = skipDigits(version, pos + 1);
+            count++;
+        }
+        final int[] digitEnds = new int[count];
+        for (int i = 0, j = 0; i <= pos; i++) {
+            if (i == pos || version.charAt(i) == '.') {
+                digitEnds[j++] = i;
+            }
+        }
+
+        int separator1 = NONE;
+        if (pos < length && isSeparator(version.charAt(pos))) {
+            separator1 = pos++;
+        }
+        final int lettersStart = pos;
+        while (pos < length && isLetter(version.charAt(pos))) {
+            pos++;
+        }
+        final int lettersEnd = pos;
+        int separator2 = NONE;
+        if (pos < length && isSeparator(version.charAt(pos))) {
+            separator2 = pos++;
+        }
+        final int numberStart = pos;
+        pos = skipDigits(version, pos);
+        final int numberEnd = pos;
+        int separator3 = NONE;
+        if (pos < length && isSeparator(version.charAt(pos))) {
+            separator3 = pos++;
+        }
+        final int restStart = pos;
+        for (; pos < length; pos++) {
+            if (isLineTerminator(version.charAt(pos))) {
+                return null;
+            }
+        }
+
+        if (lettersEnd - lettersStart == SNAPSHOT.length()
+                && version.regionMatches(lettersStart, SNAPSHOT, 0, SNAPSHOT.length())) {
+            // SNAPSHOT is the build specifier, not an annotation
+            return new ParsedVersion(version, digitEnds, NONE, NONE, NONE, NONE, NONE, NONE, separator1,
+                    lettersStart, lettersEnd);
+        }
+
+        final int annotationStart = lettersStart < lettersEnd ? lettersStart : NONE;
+        final int buildStart = restStart < length ? restStart : NONE;
+        if (separator2 != NONE && numberStart == numberEnd) {
+            // separator after annotation is the build separator
+            return new ParsedVersion(version, digitEnds, separator1, annotationStart, lettersEnd, NONE, NONE,
+                    NONE, separator2, buildStart, length);
+        }
+        return new ParsedVersion(version, digitEnds, separator1, annotationStart, lettersEnd, separator2,
+                numberStart < numberEnd ? numberStart : NONE, numberEnd, separator3, buildStart, length);
+    }
+
+    /**
+     * Checks if version is valid without creating parsed version.
+     *
+     * @param version
+     *            Version to check.
+     * @return <code>true</code> if version can be parsed.
+     */
+    static boolean isValid(final String version) {
+        if (isLettersSnapshot(version)) {
+            return true;
+        }
+        final int length = version.length();
+        if (length == 0 || !isDigit(version.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            if (isLineTerminator(version.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks for <code>SNAPSHOT</code> or
+     * <code>letters[-_]SNAPSHOT</code> version.
+     */
+    private static boolean isLettersSnapshot(final String version) {
+        final int length = version.length();
+        if (length == SNAPSHOT.length()) {
+            return SNAPSHOT.equals(version);
+        }
+        final int separator = length - SNAPSHOT.length() - 1;
+        if (separator < 1 || !isSeparator(version.charAt(separator))
+                || !version.regionMatches(separator + 1, SNAPSHOT, 0, SNAPSHOT.length())) {
+            return false;
+        }
+        for (int i = 0; i < separator; i++) {
+            if (!isLetter(version.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipDigits(final String str, int pos) {
+        while (pos < str.length() && isDigit(str.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isSeparator(final char c) {
+        return c == '-' || c == '_';
+    }
+
+    /**
+     * Line terminators are not matched by <code>.</code> in regular
+     * expressions.
+     */
+    private static boolean isLineTerminator(final char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * @return Version string.
+     */
+    String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Number of digits or <code>0</code> if there are no digits.
+     */
+    int getDigitCount() {
+        return digitEnds == null ? 0 : digitEnds.length;
+    }
+
+    /**
+     * @return Digits or <code>null</code> if there are no digits.
+     */
+    List<String> getDigits() {
+        if (digitEnds == null) {
+            return null;
+        }
+        final List<String> digits = new ArrayList<>(digitEnds.length);
+        for (int i = 0; i < digitEnds.length; i++) {
+            digits.add(version.substring(digitStart(i), digitEnds[i]));
+        }
+        return digits;
+    }
+
+    String getAnnotation() {
+        return part(annotationStart, annotationEnd);
+    }
+
+    String getAnnotationRevision() {
+        return part(annotationRevisionStart, annotationRevisionEnd);
+    }
+
+    String getBuildSpecifier() {
+        return part(buildSpecifierStart, buildSpecifierEnd);
+    }
+
+    private String part(final int start, final int end) {
+        return start == NONE ? null : version.substring(start, end);
+    }
+
+    private int digitStart(final int index) {
+        return index == 0 ? 0 : digitEnds[index - 1] + 1;
+    }
+
+    /**
+     * @return Version with digits only. Digits are shared as they are never
+     *         modified.
+     * @throws IllegalStateException
+     *             If there are no digits.
+     */
+    ParsedVersion digitsOnly() {
+        if (digitEnds == null) {
+            throw new IllegalStateException("Version '" + version + "' has no digits.");
+        }
+        final int end = digitEnds[digitEnds.length - 1];
+        if (end == version.length()) {
+            return this;
+        }
+        return new ParsedVersion(version.substring(0, end), digitEnds, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+                NONE, NONE);
+    }
+
+    /**
+     * Creates next version. Increments the annotation revision if it is
+     * present, otherwise the last digit. Parts of the version are kept as they
+     * are, separators which have no effect are dropped the same way
+     * <code>DefaultVersionInfo</code> does.
+     *
+     * @return Next version or <code>null</code> if there are no digits.
+     */
+    ParsedVersion next() {
+        if (digitEnds == null) {
+            return null;
+        }
+        final StringBuilder sb = new StringBuilder(version.length() + 2);
+        final int last = digitEnds.length - 1;
+        final int[] nextDigitEnds;
+        if (annotationRevisionStart != NONE) {
+            sb.append(version, 0, digitEnds[last]);
+            nextDigitEnds = digitEnds;
+        } else {
+            sb.append(version, 0, digitStart(last));
+            appendIncremented(sb, version, digitStart(last), digitEnds[last]);
+            nextDigitEnds = digitEnds.clone();
+            nextDigitEnds[last] = sb.length();
+        }
+
+        int nextAnnotationSeparator = NONE;
+        int nextAnnotationStart = NONE;
+        int nextAnnotationEnd = NONE;
+        if (annotationStart != NONE) {
+            nextAnnotationSeparator = appendSeparator(sb, annotationSeparator);
+            nextAnnotationStart = sb.length();
+            sb.append(version, annotationStart, annotationEnd);
+            nextAnnotationEnd = sb.length();
+        }
+        int nextAnnotationRevSeparator = NONE;
+        int nextAnnotationRevisionStart = NONE;
+        int nextAnnotationRevisionEnd = NONE;
+        if (annotationRevisionStart != NONE) {
+            if (annotationStart == NONE) {
+                nextAnnotationSeparator = appendSeparator(sb, annotationSeparator);
+            } else {
+                nextAnnotationRevSeparator = appendSeparator(sb, annotationRevSeparator);
+            }
+            nextAnnotationRevisionStart = sb.length();
+            appendIncremented(sb, version, annotationRevisionStart, annotationRevisionEnd);
+            nextAnnotationRevisionEnd = sb.length();
+        }
+        int nextBuildSeparator = NONE;
+        int nextBuildSpecifierStart = NONE;
+        int nextBuildSpecifierEnd = NONE;
+        if (buildSpecifierStart != NONE) {
+            nextBuildSeparator = appendSeparator(sb, buildSeparator);
+            nextBuildSpecifierStart = sb.length();
+            sb.append(version, buildSpecifierStart, buildSpecifierEnd);
+            nextBuildSpecifierEnd = sb.length();
+        }
+        return new ParsedVersion(sb.toString(), nextDigitEnds, nextAnnotationSeparator, nextAnnotationStart,
+                nextAnnotationEnd, nextAnnotationRevSeparator, nextAnnotationRevisionStart,
+                nextAnnotationRevisionEnd, nextBuildSeparator, nextBuildSpecifierStart, nextBuildSpecifierEnd);
+    }
+
+    /**
+     * Creates next SNAPSHOT version incrementing the digit at the given index
+     * and resetting following digits to zero.
+     *
+     * @param index
+     *            Index of the digit, must be valid.
+     * @return Next SNAPSHOT version.
+     */
+    String nextSnapshotVersion(final int index) {
+        final String snapshotVersion = snapshotVersionString(version);
+        final StringBuilder sb = new StringBuilder(snapshotVersion.length() + 2);
+        sb.append(version, 0, digitStart(index));
+        appendIncremented(sb, version, digitStart(index), digitEnds[index]);
+        for (int i = index + 1; i < digitEnds.length; i++) {
+            sb.append(".0");
+        }
+        sb.append(snapshotVersion, digitEnds[digitEnds.length - 1], snapshotVersion.length());
+        return sb.toString();
+    }
+
+    /**
+     * Appends separator if it is present.
+     *
+     * @return Offset of the appended separator or {@link #NONE}.
+     */
+    private int appendSeparator(final StringBuilder sb, final int separator) {
+        if (separator == NONE) {
+            return NONE;
+        }
+        sb.append(version.charAt(separator));
+        return sb.length() - 1;
+    }
+
+    /**
+     * Appends incremented number keeping leading zeros. Numbers which cannot be
+     * incremented within the <code>int</code> range are rejected.
+     */
+    private static void appendIncremented(final StringBuilder sb, final String str, final int start,
+            final int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (str.charAt(i) - '0');
+            if (value >= Integer.MAX_VALUE) {
+                throw new NumberFormatException("For input string: \"" + str.substring(start, end) + "\"");
+            }
+        }
+        final String next = String.valueOf((int) value + 1);
+        for (int i = next.length(); i < end - start; i++) {
+            sb.append('0');
+        }
+        sb.append(next);
+    }
+
+    /**
+     * Gets release version, i.e. version without SNAPSHOT suffix or
+     * timestamp.
+     *
+     * @param version
+     *            Version.
+     * @return Release version.
+     */
+    static String releaseVersionString(final String version) {
+        final int length = version.length();
+        if (length >= TIMESTAMP_SUFFIX_LENGTH && isDigit(version.charAt(length - 1))) {
+            final Matcher m = Artifact.VERSION_FILE_PATTERN.matcher(version);
+            if (m.matches()) {
+                return m.group(1);
+            }
+        }
+        if (version.regionMatches(true, length - SNAPSHOT_SUFFIX.length(), SNAPSHOT_SUFFIX, 0,
+                SNAPSHOT_SUFFIX.length())) {
+            return version.substring(0, length - SNAPSHOT_SUFFIX.length());
+        }
+        if (SNAPSHOT.equals(version)) {
+            return "1.0";
+        }
+        return version;
+    }
+
+    /**
+     * Gets SNAPSHOT version.
+     *
+     * @param version
+     *            Version.
+     * @return SNAPSHOT version.
+     */
+    static String snapshotVersionString(final String version) {
+        if (SNAPSHOT.equals(version)) {
+            return version;
+        }
+        final String releaseVersion = releaseVersionString(version);
+        if (releaseVersion.isEmpty()) {
+            return SNAPSHOT;
+        }
+        return releaseVersion + SNAPSHOT_SUFFIX;
+    }
+}
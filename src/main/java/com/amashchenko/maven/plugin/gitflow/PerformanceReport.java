@@ -0,0 +1,312 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Timing spans of a goal execution. Steps are logical parts of the goal,
+ * commands and project reloads started during a step belong to it.
+ *
+ */
+public class PerformanceReport {
+    /** Logical step of the goal. */
+    public static final String STEP = "step";
+    /** Git or Maven child process. */
+    public static final String COMMAND = "command";
+    /** Reload of the project model. */
+    public static final String PROJECT = "project";
+
+    private final String goal;
+    private final long startNanos = System.nanoTime();
+    private final List<Span> spans = new ArrayList<>();
+    private Span currentStep;
+
+    /**
+     * Creates report.
+     *
+     * @param goal
+     *            Name of the goal.
+     */
+    public PerformanceReport(final String goal) {
+        this.goal = goal;
+    }
+
+    /**
+     * Starts span. Spans of the {@link #STEP} type can be nested, all other
+     * spans belong to the current step.
+     *
+     * @param type
+     *            Type of the span.
+     * @param name
+     *            Name of the span.
+     * @param command
+     *            Command line or <code>null</code>.
+     * @return Started span.
+     */
+    public synchronized Span start(final String type, final String name, final String command) {
+        final Span span = new Span(type, name, command, currentStep, System.nanoTime() - startNanos);
+        spans.add(span);
+        if (STEP.equals(type)) {
+            currentStep = span;
+        } else if (COMMAND.equals(type)) {
+            for (Span s = span; s != null; s = s.parent) {
+                s.processes++;
+            }
+        }
+        return span;
+    }
+
+    private synchronized void end(final Span span) {
+        if (span.durationNanos >= 0) {
+            return;
+        }
+        span.durationNanos = System.nanoTime() - startNanos - span.startNanos;
+        // inner steps not ended because of an exception are closed too
+        for (Span s = currentStep; s != null; s = s.parent) {
+            if (s == span) {
+                currentStep = span.parent;
+                break;
+            }
+        }
+    }
+
+    private synchronized void addOutput(final Span span, final long bytes) {
+        for (Span s = span; s != null; s = s.parent) {
+            s.outputBytes += bytes;
+        }
+    }
+
+    /**
+     * @return Spans in the order they were started.
+     */
+    public synchronized List<Span> getSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    /**
+     * Creates summary of the top level spans grouped by name. Time not covered
+     * by any top level span is reported as spent in the plugin itself.
+     *
+     * @return Lines of the summary table.
+     */
+    public synchronized List<String> summary() {
+        final long totalNanos = System.nanoTime() - startNanos;
+        final Map<String, long[]> rows = new LinkedHashMap<>();
+        long covered = 0;
+        for (Span span : spans) {
+            if (span.parent == null) {
+                long[] row = rows.get(span.name);
+                if (row == null) {
+                    row = new long[4];
+                    rows.put(span.name, row);
+                }
+                final long duration = span.getDurationNanos();
+                row[0]++;
+                row[1] += duration;
+                row[2] += span.processes;
+                row[3] += span.outputBytes;
+                covered += duration;
+            }
+        }
+        rows.put("plugin", new long[] { 1, Math.max(totalNanos - covered, 0), 0, 0 });
+
+        final List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-24s %6s %10s %10s %14s", "Step", "Count", "Time (ms)", "Processes",
+                "Output (bytes)"));
+        for (Map.Entry<String, long[]> row : rows.entrySet()) {
+            final long[] v = row.getValue();
+            lines.add(String.format("%-24s %6d %10d %10d %14d", row.getKey(), v[0], v[1] / 1000000, v[2], v[3]));
+        }
+        lines.add(String.format("%-24s %6s %10d", "Total", "", totalNanos / 1000000));
+        return lines;
+    }
+
+    /**
+     * Writes report as JSON.
+     *
+     * @param file
+     *            File to write to.
+     * @throws IOException
+     *             If file cannot be written.
+     */
+    public synchronized void write(final File file) throws IOException {
+        final File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        }
+    }
+
+    /**
+     * @return Report as JSON.
+     */
+    public synchronized String toJson() {
+        long processes = 0;
+        long outputBytes = 0;
+        for (Span span : spans) {
+            if (span.parent == null) {
+                processes += span.processes;
+                outputBytes += span.outputBytes;
+            }
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"goal\": ").append(quote(goal)).append(",\n");
+        sb.append("  \"wallTimeMs\": ").append((System.nanoTime() - startNanos) / 1000000).append(",\n");
+        sb.append("  \"processes\": ").append(processes).append(",\n");
+        sb.append("  \"outputBytes\": ").append(outputBytes).append(",\n");
+        sb.append("  \"spans\": [");
+        for (int i = 0; i < spans.size(); i++) {
+            final Span span = spans.get(i);
+            sb.append(i == 0 ? "\n" : ",\n");
+            sb.append("    {\"id\": ").append(i);
+            sb.append(", \"parent\": ").append(span.parent == null ? -1 : spans.indexOf(span.parent));
+            sb.append(", \"type\": ").append(quote(span.type));
+            sb.append(", \"name\": ").append(quote(span.name));
+            sb.append(", \"startMs\": ").append(span.startNanos / 1000000);
+            sb.append(", \"wallTimeMs\": ").append(span.getDurationNanos() / 1000000);
+            sb.append(", \"processes\": ").append(span.processes);
+            sb.append(", \"outputBytes\": ").append(span.outputBytes);
+            sb.append(", \"command\": ").append(span.command == null ? "null" : quote(span.command));
+            sb.append("}");
+        }
+        sb.append(spans.isEmpty() ? "]\n" : "\n  ]\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    static String quote(final String str) {
+        final StringBuilder sb = new StringBuilder(str.length() + 2).append('"');
+        for (int i = 0; i < str.length(); i++) {
+            final char c = str.charAt(i);
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Timing span.
+     */
+    public class Span {
+        private final String type;
+        private final String name;
+        private final String command;
+        private final Span parent;
+        private final long startNanos;
+        private long durationNanos = -1;
+        private long processes;
+        private long outputBytes;
+
+        private Span(final String type, final String name, final String command, final Span parent,
+                final long startNanos) {
+            this.type = type;
+            this.name = name;
+            this.command = command;
+            this.parent = parent;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Adds bytes of captured output.
+         *
+         * @param bytes
+         *            Number of bytes.
+         */
+        public void addOutput(final long bytes) {
+            PerformanceReport.this.addOutput(this, bytes);
+        }
+
+        /**
+         * Ends the span. Ending already ended span has no effect.
+         */
+        public void end() {
+            PerformanceReport.this.end(this);
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public Span getParent() {
+            return parent;
+        }
+
+        public long getProcesses() {
+            synchronized (PerformanceReport.this) {
+                return processes;
+            }
+        }
+
+        public long getOutputBytes() {
+            synchronized (PerformanceReport.this) {
+                return outputBytes;
+            }
+        }
+
+        /**
+         * @return Duration in nanoseconds, for not ended span time elapsed
+         *         since its start.
+         */
+        public long getDurationNanos() {
+            synchronized (PerformanceReport.this) {
+                return durationNanos >= 0 ? durationNanos : System.nanoTime() - PerformanceReport.this.startNanos
+                        - startNanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,406 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal XML document for editing text of pom.xml elements without changing
+ * anything else in the file, i.e. formatting, comments and line separators are
+ * preserved.
+ *
+ */
+public class PomDocument {
+    private static final Pattern ENCODING_PATTERN = Pattern
+            .compile("^<\\?xml[^>]*encoding\\s*=\\s*[\"']([A-Za-z0-9._\\-]+)[\"']");
+
+    private final File file;
+    private final Charset charset;
+    private final String xml;
+    private final Node root;
+    private final List<Edit> edits = new ArrayList<Edit>();
+
+    /**
+     * Creates document from the XML string.
+     *
+     * @param file
+     *            File to write the document to, can be <code>null</code>.
+     * @param charset
+     *            Charset of the file.
+     * @param xml
+     *            XML content.
+     * @throws IOException
+     *             If XML cannot be parsed.
+     */
+    public PomDocument(final File file, final Charset charset, final String xml) throws IOException {
+        this.file = file;
+        this.charset = charset;
+        this.xml = xml;
+        this.root = parse(xml);
+    }
+
+    /**
+     * Reads document from the file.
+     *
+     * @param file
+     *            The pom.xml file.
+     * @return Document.
+     * @throws IOException
+     *             If file cannot be read or parsed.
+     */
+    public static PomDocument read(final File file) throws IOException {
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+        // the XML declaration is always ASCII compatible for supported encodings
+        final String head = new String(bytes, 0, Math.min(bytes.length, 200), "ISO-8859-1");
+        Charset charset = Charset.forName("UTF-8");
+        final Matcher m = ENCODING_PATTERN.matcher(head.startsWith("\uFEFF") ? head.substring(1) : head);
+        if (m.find()) {
+            charset = Charset.forName(m.group(1));
+        }
+        return new PomDocument(file, charset, new String(bytes, charset));
+    }
+
+    /**
+     * @return File of the document.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return Root element.
+     */
+    public Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Replaces text of the element. Empty element tag, e.g.
+     * <code>&lt;version/&gt;</code>, is replaced with start and end tags.
+     *
+     * @param node
+     *            Element without child elements.
+     * @param text
+     *            New text.
+     */
+    public void setText(final Node node, final String text) {
+        if (!node.children.isEmpty()) {
+            throw new IllegalArgumentException("Element '" + node.name + "' has child elements.");
+        }
+        final int start;
+        final int end;
+        final String replacement;
+        if (node.emptyTagStart != -1) {
+            // text starts at '>' of the empty element tag, '/' is before it
+            start = node.emptyTagStart;
+            end = node.textEnd + 1;
+            replacement = xml.substring(start, node.textStart - 1).replaceFirst("\\s+$", "") + ">" + escape(text)
+                    + "</" + node.name + ">";
+        } else {
+            start = node.textStart;
+            end = node.textEnd;
+            replacement = escape(text);
+        }
+        final boolean unchanged = text.equals(node.getText());
+        for (Iterator<Edit> it = edits.iterator(); it.hasNext();) {
+            final Edit edit = it.next();
+            if (edit.start == start) {
+                if (unchanged) {
+                    it.remove();
+                } else {
+                    edit.text = replacement;
+                }
+                return;
+            }
+        }
+        if (!unchanged) {
+            edits.add(new Edit(start, end, replacement));
+        }
+    }
+
+    /**
+     * @return <code>true</code> if there are changes.
+     */
+    public boolean isModified() {
+        return !edits.isEmpty();
+    }
+
+    /**
+     * @return Document content with all changes applied.
+     */
+    public String toXml() {
+        List<Edit> sorted = new ArrayList<Edit>(edits);
+        Collections.sort(sorted, new Comparator<Edit>() {
+            @Override
+            public int compare(Edit e1, Edit e2) {
+                return e1.start - e2.start;
+            }
+        });
+        StringBuilder sb = new StringBuilder(xml.length() + 64);
+        int pos = 0;
+        for (Edit edit : sorted) {
+            sb.append(xml, pos, edit.start).append(edit.text);
+            pos = edit.end;
+        }
+        sb.append(xml, pos, xml.length());
+        return sb.toString();
+    }
+
+    /**
+     * Writes document to its file if it was modified.
+     *
+     * @return <code>true</code> if file was written.
+     * @throws IOException
+     *             If file cannot be written.
+     */
+    public boolean write() throws IOException {
+        if (!isModified()) {
+            return false;
+        }
+        Files.write(file.toPath(), toXml().getBytes(charset));
+        return true;
+    }
+
+    private static String escape(final String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static String unescape(final String text) {
+        if (text.indexOf('&') == -1) {
+            return text;
+        }
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&apos;", "'")
+                .replace("&amp;", "&");
+    }
+
+    private Node parse(final String s) throws IOException {
+        final Node document = new Node(null, null);
+        Node current = document;
+        int i = 0;
+        final int len = s.length();
+        while (i < len) {
+            int lt = s.indexOf('<', i);
+            if (lt == -1) {
+                break;
+            }
+            if (s.startsWith("<!--", lt)) {
+                i = skipTo(s, lt, "-->");
+            } else if (s.startsWith("<![CDATA[", lt)) {
+                i = skipTo(s, lt, "]]>");
+            } else if (s.startsWith("<?", lt)) {
+                i = skipTo(s, lt, "?>");
+            } else if (s.startsWith("<!", lt)) {
+                i = skipTo(s, lt, ">");
+            } else if (s.startsWith("</", lt)) {
+                int gt = s.indexOf('>', lt);
+                if (gt == -1 || current == document) {
+                    throw new IOException("Malformed XML at offset " + lt + ".");
+                }
+                String name = s.substring(lt + 2, gt).trim();
+                if (!name.equals(current.name)) {
+                    throw new IOException("Unexpected closing tag '" + name + "' at offset " + lt + ".");
+                }
+                current.textEnd = lt;
+                current.text = s.substring(current.textStart, lt);
+                current = current.parent;
+                i = gt + 1;
+            } else {
+                int gt = findTagEnd(s, lt);
+                int nameEnd = lt + 1;
+                while (nameEnd < gt && !Character.isWhitespace(s.charAt(nameEnd)) && s.charAt(nameEnd) != '/') {
+                    nameEnd++;
+                }
+                Node node = new Node(current, s.substring(lt + 1, nameEnd));
+                current.children.add(node);
+                if (s.charAt(gt - 1) == '/') {
+                    node.emptyTagStart = lt;
+                    node.textStart = gt;
+                    node.textEnd = gt;
+                    node.text = "";
+                } else {
+                    node.textStart = gt + 1;
+                    current = node;
+                }
+                i = gt + 1;
+            }
+        }
+        if (current != document || document.children.size() != 1) {
+            throw new IOException("Malformed XML document.");
+        }
+        Node result = document.children.get(0);
+        result.parent = null;
+        return result;
+    }
+
+    private static int skipTo(final String s, final int from, final String end) throws IOException {
+        int idx = s.indexOf(end, from);
+        if (idx == -1) {
+            throw new IOException("Unterminated '" + end + "' at offset " + from + ".");
+        }
+        return idx + end.length();
+    }
+
+    private static int findTagEnd(final String s, final int from) throws IOException {
+        char quote = 0;
+        for (int i = from + 1; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i;
+            }
+        }
+        throw new IOException("Unterminated tag at offset " + from + ".");
+    }
+
+    /**
+     * XML element.
+     */
+    public static class Node {
+        private Node parent;
+        private final String name;
+        private final List<Node> children = new ArrayList<Node>();
+        private int emptyTagStart = -1;
+        private int textStart;
+        private int textEnd;
+        private String text;
+
+        private Node(final Node parent, final String name) {
+            this.parent = parent;
+            this.name = name;
+        }
+
+        /**
+         * @return Element name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return Parent element or <code>null</code> for the root element.
+         */
+        public Node getParent() {
+            return parent;
+        }
+
+        /**
+         * @return Child elements.
+         */
+        public List<Node> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        /**
+         * Gets first child element with the given name.
+         *
+         * @param childName
+         *            Element name.
+         * @return Child element or <code>null</code>.
+         */
+        public Node getChild(final String childName) {
+            for (Node child : children) {
+                if (child.name.equals(childName)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Gets child elements with the given name.
+         *
+         * @param childName
+         *            Element name.
+         * @return Child elements.
+         */
+        public List<Node> getChildren(final String childName) {
+            List<Node> result = new ArrayList<Node>();
+            for (Node child : children) {
+                if (child.name.equals(childName)) {
+                    result.add(child);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Gets trimmed text of the child element.
+         *
+         * @param childName
+         *            Element name.
+         * @return Text or <code>null</code> if there is no such element.
+         */
+        public String getChildText(final String childName) {
+            Node child = getChild(childName);
+            return child == null ? null : child.getText();
+        }
+
+        /**
+         * @return Trimmed text of the element without child elements,
+         *         <code>null</code> otherwise.
+         */
+        public String getText() {
+            if (!children.isEmpty() || text == null) {
+                return null;
+            }
+            return unescape(text.trim());
+        }
+
+        /**
+         * Collects all descendant elements with the given name.
+         *
+         * @param elementName
+         *            Element name.
+         * @param result
+         *            List to add elements to.
+         */
+        public void collect(final String elementName, final List<Node> result) {
+            for (Node child : children) {
+                if (child.name.equals(elementName)) {
+                    result.add(child);
+                }
+                child.collect(elementName, result);
+            }
+        }
+    }
+
+    private static class Edit {
+        private final int start;
+        private final int end;
+        private String text;
+
+        private Edit(final int start, final int end, final String text) {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,448 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * Updates versions in the pom.xml files of the reactor without forking Maven.
+ * Does the same changes as <code>versions:set</code> and
+ * <code>versions:set-property</code> goals of the versions-maven-plugin, i.e.
+ * version of the project and of the modules inheriting it, parent versions,
+ * versions of dependencies and plugins referencing reactor modules and
+ * properties. Also updates versions of the artifacts of other projects, e.g.
+ * of a released upstream project. Formatting of the files is preserved.
+ *
+ */
+public class PomVersionRewriter {
+    private static final String DEFAULT_PLUGIN_GROUP_ID = "org.apache.maven.plugins";
+
+    /** Version which is a single property reference. */
+    private static final Pattern PROPERTY_REFERENCE = Pattern.compile("^\\$\\{([^}]+)\\}$");
+
+    private final File rootPom;
+
+    /** Modules of the reactor by canonical pom.xml path. */
+    private final Map<String, Module> modules = new LinkedHashMap<>();
+
+    /**
+     * Creates rewriter for the reactor.
+     *
+     * @param rootPom
+     *            The pom.xml of the reactor root project.
+     */
+    public PomVersionRewriter(final File rootPom) {
+        this.rootPom = rootPom;
+    }
+
+    /**
+     * Updates versions and writes changed files.
+     *
+     * @param newVersion
+     *            New version.
+     * @param updateVersion
+     *            Whether to update project version.
+     * @param forceUpdate
+     *            Whether to update all modules having the same version as the
+     *            root project regardless of their groupId and artifactId.
+     * @param versionProperty
+     *            Property to set to the new version, can be <code>null</code>.
+     * @param outputTimestamp
+     *            New value of <code>project.build.outputTimestamp</code>
+     *            property or <code>null</code> to leave it as is.
+     * @return List of changed files.
+     * @throws IOException
+     *             If reading or writing of pom.xml files fails.
+     */
+    public List<File> rewrite(final String newVersion, final boolean updateVersion, final boolean forceUpdate,
+            final String versionProperty, final String outputTimestamp) throws IOException {
+        modules.clear();
+        loadModule(rootPom);
+
+        if (updateVersion) {
+            updateVersions(newVersion, forceUpdate);
+        }
+        if (StringUtils.isNotBlank(versionProperty)) {
+            updateProperty(versionProperty, newVersion);
+        }
+        if (outputTimestamp != null) {
+            updateProperty("project.build.outputTimestamp", outputTimestamp);
+        }
+
+        List<File> changed = new ArrayList<>();
+        for (Module module : modules.values()) {
+            if (module.pom.write()) {
+                changed.add(module.pom.getFile());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Updates versions of the dependencies, plugins, extensions and parents
+     * referencing the given artifacts, e.g. modules of a released upstream
+     * project. If the version is a property, e.g.
+     * <code>${core.version}</code>, the property is updated instead.
+     *
+     * @param artifacts
+     *            Artifacts as <code>groupId:artifactId</code>.
+     * @param newVersion
+     *            New version of the artifacts.
+     * @param write
+     *            Whether to write changed files.
+     * @return List of changed files.
+     * @throws IOException
+     *             If reading or writing of pom.xml files fails.
+     */
+    public List<File> updateDependencies(final Collection<String> artifacts, final String newVersion,
+            final boolean write) throws IOException {
+        modules.clear();
+        loadModule(rootPom);
+
+        final Set<String> properties = new LinkedHashSet<>();
+        for (Module module : modules.values()) {
+            final PomDocument.Node project = module.pom.getRoot();
+            List<PomDocument.Node> references = new ArrayList<>();
+            if (project.getChild("parent") != null) {
+                references.add(project.getChild("parent"));
+            }
+            project.collect("dependency", references);
+            project.collect("plugin", references);
+            project.collect("extension", references);
+            for (PomDocument.Node reference : references) {
+                PomDocument.Node refVersion = reference.getChild("version");
+                String artifactId = reference.getChildText("artifactId");
+                if (refVersion == null || refVersion.getText() == null || artifactId == null) {
+                    continue;
+                }
+                String groupId = "parent".equals(reference.getName()) ? reference.getChildText("groupId")
+                        : module.resolveGroupId(reference.getChildText("groupId"));
+                if (groupId == null && !"dependency".equals(reference.getName())) {
+                    groupId = DEFAULT_PLUGIN_GROUP_ID;
+                }
+                if (!artifacts.contains(groupId + ":" + artifactId)) {
+                    continue;
+                }
+                final String version = refVersion.getText().trim();
+                final Matcher property = PROPERTY_REFERENCE.matcher(version);
+                if (property.matches()) {
+                    if (!property.group(1).startsWith("project.") && !property.group(1).startsWith("pom.")) {
+                        properties.add(property.group(1));
+                    }
+                } else if (!version.contains("$") && !version.startsWith("[") && !version.startsWith("(")) {
+                    // version ranges are left as is
+                    module.pom.setText(refVersion, newVersion);
+                }
+            }
+        }
+        for (String property : properties) {
+            updateProperty(property, newVersion);
+        }
+
+        List<File> changed = new ArrayList<>();
+        for (Module module : modules.values()) {
+            if (write ? module.pom.write() : module.pom.isModified()) {
+                changed.add(module.pom.getFile());
+            }
+        }
+        return changed;
+    }
+
+    private void loadModule(final File pomFile) throws IOException {
+        final File file = pomFile.getCanonicalFile();
+        final String key = file.getPath();
+        if (modules.containsKey(key)) {
+            return;
+        }
+        final PomDocument pom = PomDocument.read(file);
+        final Module module = new Module(pom);
+        modules.put(key, module);
+
+        List<PomDocument.Node> moduleNodes = new ArrayList<>();
+        collectModules(pom.getRoot(), moduleNodes);
+        PomDocument.Node profiles = pom.getRoot().getChild("profiles");
+        if (profiles != null) {
+            for (PomDocument.Node profile : profiles.getChildren("profile")) {
+                collectModules(profile, moduleNodes);
+            }
+        }
+        for (PomDocument.Node node : moduleNodes) {
+            String path = node.getText();
+            if (StringUtils.isBlank(path)) {
+                continue;
+            }
+            File moduleFile = new File(file.getParentFile(), path);
+            if (moduleFile.isDirectory()) {
+                moduleFile = new File(moduleFile, "pom.xml");
+            }
+            if (moduleFile.isFile()) {
+                loadModule(moduleFile);
+            }
+        }
+    }
+
+    private static void collectModules(final PomDocument.Node parent, final List<PomDocument.Node> result) {
+        PomDocument.Node node = parent.getChild("modules");
+        if (node != null) {
+            result.addAll(node.getChildren("module"));
+        }
+    }
+
+    private void updateVersions(final String newVersion, final boolean forceUpdate) {
+        final Module root = modules.values().iterator().next();
+        final Map<String, String> oldVersions = new HashMap<>();
+
+        // modules which versions are updated
+        if (forceUpdate) {
+            for (Module module : modules.values()) {
+                if (root.version != null && root.version.equals(module.version)) {
+                    oldVersions.put(module.key(), module.version);
+                }
+            }
+        } else if (root.version != null) {
+            oldVersions.put(root.key(), root.version);
+        }
+
+        // modules inheriting version from the updated parent
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (Module module : modules.values()) {
+                if (oldVersions.containsKey(module.key()) || module.parentKey() == null) {
+                    continue;
+                }
+                String parentOldVersion = oldVersions.get(module.parentKey());
+                if (parentOldVersion != null && parentOldVersion.equals(module.parentVersion)
+                        && (module.ownVersion == null || parentOldVersion.equals(module.ownVersion))) {
+                    oldVersions.put(module.key(), module.version);
+                    added = true;
+                }
+            }
+        }
+
+        for (Module module : modules.values()) {
+            final PomDocument pom = module.pom;
+            final PomDocument.Node project = pom.getRoot();
+
+            PomDocument.Node version = project.getChild("version");
+            if (version != null && oldVersions.containsKey(module.key())) {
+                pom.setText(version, newVersion);
+            }
+
+            PomDocument.Node parent = project.getChild("parent");
+            if (parent != null && module.parentKey() != null) {
+                String oldVersion = oldVersions.get(module.parentKey());
+                if (oldVersion != null && oldVersion.equals(module.parentVersion)) {
+                    pom.setText(parent.getChild("version"), newVersion);
+                }
+            }
+
+            List<PomDocument.Node> references = new ArrayList<>();
+            project.collect("dependency", references);
+            project.collect("plugin", references);
+            project.collect("extension", references);
+            for (PomDocument.Node reference : references) {
+                PomDocument.Node refVersion = reference.getChild("version");
+                String artifactId = reference.getChildText("artifactId");
+                if (refVersion == null || refVersion.getText() == null || artifactId == null) {
+                    continue;
+                }
+                String groupId = module.resolveGroupId(reference.getChildText("groupId"));
+                if (groupId == null && !"dependency".equals(reference.getName())) {
+                    groupId = DEFAULT_PLUGIN_GROUP_ID;
+                }
+                String oldVersion = oldVersions.get(groupId + ":" + artifactId);
+                if (oldVersion != null && oldVersion.equals(refVersion.getText())) {
+                    pom.setText(refVersion, newVersion);
+                }
+            }
+        }
+    }
+
+    private void updateProperty(final String name, final String value) {
+        for (Module module : modules.values()) {
+            final PomDocument.Node project = module.pom.getRoot();
+            List<PomDocument.Node> propertiesNodes = new ArrayList<>();
+            if (project.getChild("properties") != null) {
+                propertiesNodes.add(project.getChild("properties"));
+            }
+            PomDocument.Node profiles = project.getChild("profiles");
+            if (profiles != null) {
+                for (PomDocument.Node profile : profiles.getChildren("profile")) {
+                    if (profile.getChild("properties") != null) {
+                        propertiesNodes.add(profile.getChild("properties"));
+                    }
+                }
+            }
+            for (PomDocument.Node properties : propertiesNodes) {
+                for (PomDocument.Node property : properties.getChildren(name)) {
+                    if (property.getChildren().isEmpty()) {
+                        module.pom.setText(property, value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the pom.xml changed only in the versions updated by the plugin,
+     * i.e. project and parent versions of the reactor artifacts, versions of
+     * the references to them and the given properties. Any other change, e.g.
+     * version of other dependency, scope or artifactId, can change the build.
+     *
+     * @param oldXml
+     *            Old content of the pom.xml.
+     * @param newXml
+     *            New content of the pom.xml.
+     * @param artifacts
+     *            Reactor artifacts as <code>groupId:artifactId</code>.
+     * @param properties
+     *            Properties updated by the plugin, e.g.
+     *            <code>project.build.outputTimestamp</code>.
+     * @return <code>true</code> if only versions were changed.
+     */
+    public static boolean isVersionOnlyChange(final String oldXml, final String newXml,
+            final Collection<String> artifacts, final Collection<String> properties) {
+        try {
+            return withoutVersions(oldXml, artifacts, properties)
+                    .equals(withoutVersions(newXml, artifacts, properties));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Removes values of the versions updated by the plugin.
+     */
+    private static String withoutVersions(final String xml, final Collection<String> artifacts,
+            final Collection<String> properties) throws IOException {
+        final PomDocument pom = new PomDocument(null, StandardCharsets.UTF_8, xml);
+        final Module module = new Module(pom);
+        final PomDocument.Node project = pom.getRoot();
+
+        final List<PomDocument.Node> versions = new ArrayList<>();
+        if (artifacts.contains(module.key())) {
+            versions.add(project.getChild("version"));
+        }
+        if (project.getChild("parent") != null && artifacts.contains(module.parentKey())) {
+            versions.add(project.getChild("parent").getChild("version"));
+        }
+        List<PomDocument.Node> references = new ArrayList<>();
+        project.collect("dependency", references);
+        project.collect("plugin", references);
+        project.collect("extension", references);
+        for (PomDocument.Node reference : references) {
+            String groupId = module.resolveGroupId(reference.getChildText("groupId"));
+            if (groupId == null && !"dependency".equals(reference.getName())) {
+                groupId = DEFAULT_PLUGIN_GROUP_ID;
+            }
+            if (artifacts.contains(groupId + ":" + reference.getChildText("artifactId"))) {
+                versions.add(reference.getChild("version"));
+            }
+        }
+        List<PomDocument.Node> propertiesNodes = new ArrayList<>();
+        propertiesNodes.add(project.getChild("properties"));
+        if (project.getChild("profiles") != null) {
+            for (PomDocument.Node profile : project.getChild("profiles").getChildren("profile")) {
+                propertiesNodes.add(profile.getChild("properties"));
+            }
+        }
+        for (PomDocument.Node propertiesNode : propertiesNodes) {
+            if (propertiesNode == null) {
+                continue;
+            }
+            for (String property : properties) {
+                versions.addAll(propertiesNode.getChildren(property));
+            }
+        }
+
+        for (PomDocument.Node version : versions) {
+            if (version != null && version.getChildren().isEmpty() && StringUtils.isNotEmpty(version.getText())) {
+                pom.setText(version, "");
+            }
+        }
+        return pom.toXml();
+    }
+
+    /**
+     * Coordinates of the reactor module.
+     */
+    private static class Module {
+        private final PomDocument pom;
+        private final String groupId;
+        private final String artifactId;
+        private final String ownVersion;
+        private final String version;
+        private final String parentGroupId;
+        private final String parentArtifactId;
+        private final String parentVersion;
+
+        private Module(final PomDocument pom) {
+            this.pom = pom;
+            final PomDocument.Node project = pom.getRoot();
+            final PomDocument.Node parent = project.getChild("parent");
+            if (parent != null) {
+                parentGroupId = parent.getChildText("groupId");
+                parentArtifactId = parent.getChildText("artifactId");
+                parentVersion = parent.getChildText("version");
+            } else {
+                parentGroupId = null;
+                parentArtifactId = null;
+                parentVersion = null;
+            }
+            String group = project.getChildText("groupId");
+            groupId = group != null ? group : parentGroupId;
+            artifactId = project.getChildText("artifactId");
+            ownVersion = project.getChildText("version");
+            version = ownVersion != null ? ownVersion : parentVersion;
+        }
+
+        private String key() {
+            return groupId + ":" + artifactId;
+        }
+
+        private String parentKey() {
+            if (parentGroupId == null || parentArtifactId == null) {
+                return null;
+            }
+            return parentGroupId + ":" + parentArtifactId;
+        }
+
+        private String resolveGroupId(final String value) {
+            if ("${project.groupId}".equals(value) || "${pom.groupId}".equals(value)) {
+                return groupId;
+            }
+            if ("${project.parent.groupId}".equals(value)) {
+                return parentGroupId;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Cache of reloaded projects. Projects are keyed by the pom.xml path and hash
+ * of its content and the content of its parents found on the disk, so the
+ * cached project is returned only while none of these files changed. Only the
+ * latest project of every pom.xml is kept, e.g. versions are not changed
+ * back.
+ *
+ */
+public class ProjectModelCache {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** Latest cached project by the pom.xml path. */
+    private final ConcurrentMap<String, Entry> projects = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Computes cache key of the pom.xml file.
+     *
+     * @param pomFile
+     *            The pom.xml file.
+     * @return Key.
+     * @throws IOException
+     *             If files cannot be read.
+     */
+    public String key(final File pomFile) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        final File file = pomFile.getCanonicalFile();
+        final Set<File> visited = new HashSet<>();
+        File current = file;
+        while (current != null && current.isFile() && visited.add(current)) {
+            final byte[] content = Files.readAllBytes(current.toPath());
+            digest.update(current.getPath().getBytes("UTF-8"));
+            digest.update((byte) 0);
+            digest.update(content);
+            digest.update((byte) 0);
+            current = parentPom(current, content);
+        }
+
+        final byte[] hash = digest.digest();
+        final StringBuilder sb = new StringBuilder(file.getPath()).append('@');
+        for (byte b : hash) {
+            sb.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+        return sb.toString();
+    }
+
+    private static File parentPom(final File pomFile, final byte[] content) {
+        try {
+            final PomDocument.Node parent = new PomDocument(null, null, new String(content, "UTF-8")).getRoot()
+                    .getChild("parent");
+            if (parent == null) {
+                return null;
+            }
+            String relativePath = parent.getChildText("relativePath");
+            if (relativePath == null) {
+                relativePath = "../pom.xml";
+            } else if (relativePath.isEmpty()) {
+                return null;
+            }
+            File file = new File(pomFile.getParentFile(), relativePath);
+            if (file.isDirectory()) {
+                file = new File(file, "pom.xml");
+            }
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            // not parsable, whole content is in the hash anyway
+            return null;
+        }
+    }
+
+    /**
+     * Gets cached project.
+     *
+     * @param key
+     *            Key from {@link #key(File)}.
+     * @return Project or <code>null</code>.
+     */
+    public MavenProject get(final String key) {
+        final Entry entry = projects.get(path(key));
+        final MavenProject project = entry != null && entry.key.equals(key) ? entry.project : null;
+        if (project != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return project;
+    }
+
+    /**
+     * Puts project into the cache, replacing the project of the same pom.xml
+     * with other content.
+     *
+     * @param key
+     *            Key from {@link #key(File)}.
+     * @param project
+     *            Project.
+     */
+    public void put(final String key, final MavenProject project) {
+        projects.put(path(key), new Entry(key, project));
+    }
+
+    private static String path(final String key) {
+        final int idx = key.lastIndexOf('@');
+        return idx == -1 ? key : key.substring(0, idx);
+    }
+
+    /**
+     * @return Number of lookups which returned cached project.
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Number of lookups which didn't find project.
+     */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return Number of cached projects.
+     */
+    public int size() {
+        return projects.size();
+    }
+
+    private static class Entry {
+        private final String key;
+        private final MavenProject project;
+
+        private Entry(final String key, final MavenProject project) {
+            this.key = key;
+            this.project = project;
+        }
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory snapshot of the repository refs. It is loaded from a single
+ * <code>git for-each-ref</code> call and answers branch and tag lookups until
+ * it is invalidated by an operation which changes refs.
+ *
+ */
+public class RefSnapshot {
+    /** Format of the <code>git for-each-ref</code> output parsed by {@link #load(String)}. */
+    public static final String FORMAT = "%(HEAD)%09%(refname)%09%(objectname)%09%(taggerdate:raw)%09%(*authordate:raw)";
+
+    private static final String HEADS = "refs/heads/";
+    private static final String TAGS = "refs/tags/";
+    private static final String REMOTES = "refs/remotes/";
+
+    /** Refs sorted by full name, the same order <code>git for-each-ref</code> uses. */
+    private final Map<String, Ref> refs = new TreeMap<String, Ref>();
+
+    /** Full name of the checked out branch or <code>null</code>. */
+    private String head;
+
+    private boolean loaded;
+
+    private int hits;
+    private int reloads;
+
+    /**
+     * Replaces snapshot content with the given <code>git for-each-ref</code>
+     * output produced with the {@link #FORMAT} format.
+     *
+     * @param output
+     *            Output of the <code>git for-each-ref</code>.
+     */
+    public void load(final String output) {
+        refs.clear();
+        head = null;
+
+        if (output != null) {
+            for (String line : output.split("\\r?\\n")) {
+                String[] parts = line.split("\t", -1);
+                if (parts.length < 3 || parts[1].isEmpty()) {
+                    continue;
+                }
+                Ref ref = new Ref(parts[1], parts[2], parseTime(parts, 3), parseTime(parts, 4));
+                refs.put(ref.name, ref);
+                if ("*".equals(parts[0].trim()) && ref.name.startsWith(HEADS)) {
+                    head = ref.name;
+                }
+            }
+        }
+
+        loaded = true;
+        reloads++;
+    }
+
+    /**
+     * Marks snapshot as outdated. It must be reloaded before the next query.
+     */
+    public void invalidate() {
+        loaded = false;
+    }
+
+    /**
+     * @return <code>true</code> if snapshot is loaded and not invalidated.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Checks if ref with given full name exists.
+     *
+     * @param refName
+     *            Full ref name, e.g. <code>refs/heads/develop</code>.
+     * @return <code>true</code> if ref exists.
+     */
+    public boolean hasRef(final String refName) {
+        hits++;
+        return refs.containsKey(refName);
+    }
+
+    /**
+     * Gets object id of the ref.
+     *
+     * @param refName
+     *            Full ref name.
+     * @return Object id or <code>null</code> if there is no such ref.
+     */
+    public String getObjectId(final String refName) {
+        hits++;
+        Ref ref = refs.get(refName);
+        return ref == null ? null : ref.objectId;
+    }
+
+    /**
+     * Gets short name of the checked out branch.
+     *
+     * @return Branch name or <code>null</code> if HEAD is detached.
+     */
+    public String getCurrentBranch() {
+        hits++;
+        return head == null ? null : shortName(head);
+    }
+
+    /**
+     * Finds refs matching the pattern in the same way as
+     * <code>git for-each-ref</code> does.
+     *
+     * @param pattern
+     *            Ref pattern, e.g. <code>refs/heads/feature/*</code>.
+     * @param firstMatch
+     *            Return only first match.
+     * @return Short names of the matching refs.
+     */
+    public List<String> find(final String pattern, final boolean firstMatch) {
+        hits++;
+        List<String> result = new ArrayList<String>();
+        Pattern regex = hasWildcards(pattern) ? Pattern.compile(toRegex(pattern)) : null;
+        for (String name : refs.keySet()) {
+            if (matches(pattern, regex, name)) {
+                result.add(shortName(name));
+                if (firstMatch) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets tag names sorted by the author date of the tagged object, as
+     * <code>--sort=*authordate</code> does.
+     *
+     * @return Tag names.
+     */
+    public List<String> getTags() {
+        hits++;
+        List<Ref> tags = getTagRefs();
+        Collections.sort(tags, new Comparator<Ref>() {
+            @Override
+            public int compare(Ref r1, Ref r2) {
+                return compareLong(r1.authorTime, r2.authorTime);
+            }
+        });
+        return shortNames(tags);
+    }
+
+    /**
+     * Gets the last tag, the newest by the tagger date and then the highest by
+     * version, as <code>--sort=-version:refname --sort=-taggerdate</code> does.
+     *
+     * @return Last tag name or <code>null</code> if there are no tags.
+     */
+    public String getLastTag() {
+        hits++;
+        List<Ref> tags = getTagRefs();
+        Collections.sort(tags, new Comparator<Ref>() {
+            @Override
+            public int compare(Ref r1, Ref r2) {
+                int res = compareLong(r2.taggerTime, r1.taggerTime);
+                if (res == 0) {
+                    res = compareVersions(r2.name, r1.name);
+                }
+                return res;
+            }
+        });
+        return tags.isEmpty() ? null : shortName(tags.get(0).name);
+    }
+
+    /**
+     * @return Number of queries answered from memory.
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return Number of times snapshot was loaded.
+     */
+    public int getReloads() {
+        return reloads;
+    }
+
+    /**
+     * @return Number of refs in the snapshot.
+     */
+    public int size() {
+        return refs.size();
+    }
+
+    private List<Ref> getTagRefs() {
+        List<Ref> tags = new ArrayList<Ref>();
+        for (Ref ref : refs.values()) {
+            if (ref.name.startsWith(TAGS)) {
+                tags.add(ref);
+            }
+        }
+        return tags;
+    }
+
+    private static List<String> shortNames(final List<Ref> list) {
+        List<String> names = new ArrayList<String>(list.size());
+        for (Ref ref : list) {
+            names.add(shortName(ref.name));
+        }
+        return names;
+    }
+
+    /**
+     * Gets short ref name the same way as <code>%(refname:short)</code>.
+     *
+     * @param refName
+     *            Full ref name.
+     * @return Short ref name.
+     */
+    static String shortName(final String refName) {
+        if (refName.startsWith(HEADS)) {
+            return refName.substring(HEADS.length());
+        } else if (refName.startsWith(TAGS)) {
+            return refName.substring(TAGS.length());
+        } else if (refName.startsWith(REMOTES)) {
+            return refName.substring(REMOTES.length());
+        } else if (refName.startsWith("refs/")) {
+            return refName.substring("refs/".length());
+        }
+        return refName;
+    }
+
+    /**
+     * Matches ref name against the pattern. Patterns without wildcards match
+     * literally, either completely or from the beginning up to a slash.
+     */
+    static boolean matches(final String pattern, final String refName) {
+        return matches(pattern, hasWildcards(pattern) ? Pattern.compile(toRegex(pattern)) : null, refName);
+    }
+
+    private static boolean matches(final String pattern, final Pattern regex, final String refName) {
+        if (regex != null) {
+            return regex.matcher(refName).matches();
+        }
+        if (refName.equals(pattern)) {
+            return true;
+        }
+        return refName.startsWith(pattern)
+                && (pattern.endsWith("/") || refName.charAt(pattern.length()) == '/');
+    }
+
+    private static boolean hasWildcards(final String pattern) {
+        return pattern.indexOf('*') != -1 || pattern.indexOf('?') != -1 || pattern.indexOf('[') != -1;
+    }
+
+    /**
+     * Converts wildmatch pattern with path name semantics into regular
+     * expression, i.e. <code>*</code> doesn't match slash and <code>**</code>
+     * between slashes matches any number of directories.
+     */
+    static String toRegex(final String pattern) {
+        StringBuilder sb = new StringBuilder();
+        int len = pattern.length();
+        for (int i = 0; i < len; i++) {
+            char c = pattern.charAt(i);
+            if (c == '*') {
+                if (i + 1 < len && pattern.charAt(i + 1) == '*') {
+                    boolean prevSlash = i == 0 || pattern.charAt(i - 1) == '/';
+                    int next = i + 2;
+                    while (next < len && pattern.charAt(next) == '*') {
+                        next++;
+                    }
+                    if (prevSlash && next == len) {
+                        sb.append(".*");
+                        i = next - 1;
+                        continue;
+                    } else if (prevSlash && pattern.charAt(next) == '/') {
+                        sb.append("(?:.*/)?");
+                        i = next;
+                        continue;
+                    }
+                    i = next - 1;
+                }
+                sb.append("[^/]*");
+            } else if (c == '?') {
+                sb.append("[^/]");
+            } else if (c == '[') {
+                int end = pattern.indexOf(']', i + 2);
+                if (end == -1) {
+                    sb.append("\\[");
+                } else {
+                    String set = pattern.substring(i + 1, end);
+                    if (set.startsWith("!")) {
+                        set = "^" + set.substring(1);
+                    }
+                    sb.append('[').append(set.replace("\\", "\\\\")).append(']');
+                    i = end;
+                }
+            } else if ("\\.^$|+(){}".indexOf(c) != -1) {
+                sb.append('\\').append(c);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Compares names treating digit sequences as numbers, as git version sort
+     * does.
+     */
+    static int compareVersions(final String s1, final String s2) {
+        int i = 0;
+        int j = 0;
+        while (i < s1.length() && j < s2.length()) {
+            char c1 = s1.charAt(i);
+            char c2 = s2.charAt(j);
+            if (Character.isDigit(c1) && Character.isDigit(c2)) {
+                int e1 = i;
+                while (e1 < s1.length() && Character.isDigit(s1.charAt(e1))) {
+                    e1++;
+                }
+                int e2 = j;
+                while (e2 < s2.length() && Character.isDigit(s2.charAt(e2))) {
+                    e2++;
+                }
+                String n1 = stripLeadingZeros(s1.substring(i, e1));
+                String n2 = stripLeadingZeros(s2.substring(j, e2));
+                if (n1.length() != n2.length()) {
+                    return n1.length() - n2.length();
+                }
+                int res = n1.compareTo(n2);
+                if (res != 0) {
+                    return res;
+                }
+                i = e1;
+                j = e2;
+            } else {
+                if (c1 != c2) {
+                    return c1 - c2;
+                }
+                i++;
+                j++;
+            }
+        }
+        return (s1.length() - i) - (s2.length() - j);
+    }
+
+    private static String stripLeadingZeros(final String digits) {
+        int i = 0;
+        while (i < digits.length() - 1 && digits.charAt(i) == '0') {
+            i++;
+        }
+        return digits.substring(i);
+    }
+
+    private static int compareLong(final long l1, final long l2) {
+        return l1 < l2 ? -1 : (l1 == l2 ? 0 : 1);
+    }
+
+    private static long parseTime(final String[] parts, final int index) {
+        if (parts.length > index) {
+            String value = parts[index].trim();
+            int space = value.indexOf(' ');
+            if (space != -1) {
+                value = value.substring(0, space);
+            }
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                // not a tag object
+            }
+        }
+        return 0;
+    }
+
+    private static class Ref {
+        private final String name;
+        private final String objectId;
+        private final long taggerTime;
+        private final long authorTime;
+
+        private Ref(final String name, final String objectId, final long taggerTime, final long authorTime) {
+            this.name = name;
+            this.objectId = objectId;
+            this.taggerTime = taggerTime;
+            this.authorTime = authorTime;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository released by the release-orchestrate goal.
+ * 
+ */
+public class ReleaseRepository {
+    /** Path of the repository, relative to the execution root directory. */
+    private String path;
+    /** Names of the repositories which must be released before this one. */
+    private List<String> dependsOn = new ArrayList<>();
+
+    /**
+     * Default constructor.
+     */
+    public ReleaseRepository() {
+    }
+
+    /**
+     * Creates repository.
+     * 
+     * @param path
+     *            Path of the repository.
+     * @param dependsOn
+     *            Names of the repositories it depends on.
+     */
+    public ReleaseRepository(final String path, final List<String> dependsOn) {
+        this.path = path;
+        this.dependsOn = dependsOn;
+    }
+
+    /**
+     * @return Name of the repository, i.e. name of its directory.
+     */
+    public String getName() {
+        return new File(path).getName();
+    }
+
+    /**
+     * @return the path
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @param path
+     *            the path to set
+     */
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    /**
+     * @return the dependsOn
+     */
+    public List<String> getDependsOn() {
+        return dependsOn;
+    }
+
+    /**
+     * @param dependsOn
+     *            the dependsOn to set
+     */
+    public void setDependsOn(List<String> dependsOn) {
+        this.dependsOn = dependsOn;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
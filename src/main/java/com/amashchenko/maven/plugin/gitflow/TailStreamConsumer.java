@@ -0,0 +1,178 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.cli.StreamConsumer;
+
+/**
+ * Stream consumer which passes lines to the logger as they arrive and keeps
+ * only the last lines in memory. Optionally the full output is written to a
+ * file.
+ *
+ */
+public class TailStreamConsumer implements StreamConsumer, Closeable {
+    private static final String LS = System.getProperty("line.separator");
+
+    private final Log log;
+    private final boolean printOut;
+    private final String[] tail;
+    private final File spillFile;
+
+    private int next;
+    private long lineCount;
+    private File tempFile;
+    private BufferedWriter writer;
+    private boolean spillFailed;
+
+    /**
+     * Creates consumer.
+     *
+     * @param log
+     *            Logger to pass lines to.
+     * @param printOut
+     *            Whether to log lines with info level, otherwise lines are
+     *            logged with debug level.
+     * @param tailSize
+     *            Number of last lines to keep.
+     * @param spillFile
+     *            File to write the full output to or <code>null</code>. The
+     *            output is written to a temporary file first and moved to this
+     *            file on {@link #close()}, so that the file survives
+     *            <code>mvn clean</code>.
+     */
+    public TailStreamConsumer(final Log log, final boolean printOut, final int tailSize, final File spillFile) {
+        this.log = log;
+        this.printOut = printOut;
+        this.tail = new String[Math.max(tailSize, 1)];
+        this.spillFile = spillFile;
+    }
+
+    @Override
+    public synchronized void consumeLine(final String line) {
+        if (printOut) {
+            log.info(line);
+        } else if (log.isDebugEnabled()) {
+            log.debug(line);
+        }
+
+        tail[next] = line;
+        next = (next + 1) % tail.length;
+        lineCount++;
+
+        if (spillFile != null && !spillFailed) {
+            spill(line);
+        }
+    }
+
+    private void spill(final String line) {
+        try {
+            if (writer == null) {
+                tempFile = File.createTempFile("gitflow", ".log");
+                writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8);
+            }
+            writer.write(line);
+            writer.write(LS);
+        } catch (IOException e) {
+            // warn once, the rest of the output is not written
+            log.warn("Cannot write command output to file: " + e.getMessage());
+            spillFailed = true;
+            closeQuietly();
+            deleteTempFile();
+        }
+    }
+
+    /**
+     * @return Last lines of the output. If some lines were dropped the first
+     *         line says how many.
+     */
+    public synchronized String getOutput() {
+        final StringBuilder sb = new StringBuilder();
+        final int kept = (int) Math.min(lineCount, tail.length);
+        if (lineCount > kept) {
+            sb.append("[... ").append(lineCount - kept).append(" lines omitted ...]").append(LS);
+        }
+        for (int i = 0; i < kept; i++) {
+            sb.append(tail[(next - kept + i + tail.length) % tail.length]).append(LS);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return Number of consumed lines.
+     */
+    public synchronized long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return File with the full output or <code>null</code> if output is not
+     *         written to file.
+     */
+    public File getSpillFile() {
+        return spillFile;
+    }
+
+    /**
+     * Closes the output file and moves it to its final location.
+     */
+    @Override
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+            writer = null;
+            File dir = spillFile.getParentFile();
+            if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Cannot create directory " + dir);
+            }
+            Files.move(tempFile.toPath(), spillFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            tempFile = null;
+        } catch (IOException e) {
+            log.warn("Cannot write command output to file: " + e.getMessage());
+            closeQuietly();
+            deleteTempFile();
+        }
+    }
+
+    private void closeQuietly() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                // already failed
+            }
+            writer = null;
+        }
+    }
+
+    private void deleteTempFile() {
+        if (tempFile != null && tempFile.exists() && !tempFile.delete()) {
+            log.debug("Cannot delete " + tempFile + ".");
+        }
+        tempFile = null;
+    }
+}
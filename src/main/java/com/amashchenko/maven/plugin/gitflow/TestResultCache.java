@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Cache of successful test runs. The key is the git tree id of the tested
+ * commit plus a hash of the Maven arguments, so the same sources tested with
+ * the same arguments are not tested again. Each entry is a file named by the
+ * key in the cache directory, the oldest entries are removed when there are
+ * more than {@link #MAX_ENTRIES}.
+ *
+ */
+public class TestResultCache {
+    /** Maximum number of entries kept in the cache. */
+    static final int MAX_ENTRIES = 200;
+
+    private final File dir;
+
+    /**
+     * Creates cache.
+     *
+     * @param dir
+     *            Cache directory, created on first write.
+     */
+    public TestResultCache(final File dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Creates key of the cache entry.
+     *
+     * @param treeId
+     *            Git tree id of the tested sources.
+     * @param args
+     *            Maven executable, arguments and anything else which affects
+     *            the test result.
+     * @return Key.
+     */
+    public static String key(final String treeId, final List<String> args) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (String arg : args) {
+            digest.update(String.valueOf(arg).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        final byte[] hash = digest.digest();
+        final StringBuilder sb = new StringBuilder(treeId.trim()).append('-');
+        for (int i = 0; i < 8; i++) {
+            sb.append(String.format("%02x", hash[i]));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param key
+     *            Key.
+     * @return <code>true</code> if tests with the key succeeded.
+     */
+    public boolean contains(final String key) {
+        return new File(dir, key).isFile();
+    }
+
+    /**
+     * Records successful test run.
+     *
+     * @param key
+     *            Key.
+     * @param description
+     *            Human readable description of the test run, written to the
+     *            entry.
+     * @throws IOException
+     *             If entry cannot be written.
+     */
+    public void put(final String key, final String description) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        final File tmp = new File(dir, key + ".tmp");
+        Files.write(tmp.toPath(), (description + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp.toPath(), new File(dir, key).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        prune();
+    }
+
+    private void prune() throws IOException {
+        final File[] entries = dir.listFiles();
+        if (entries == null || entries.length <= MAX_ENTRIES) {
+            return;
+        }
+        Arrays.sort(entries, new Comparator<File>() {
+            @Override
+            public int compare(final File f1, final File f2) {
+                return Long.compare(f2.lastModified(), f1.lastModified());
+            }
+        });
+        for (int i = MAX_ENTRIES; i < entries.length; i++) {
+            Files.deleteIfExists(entries[i].toPath());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ChangedModulesTest {
+    private static final List<String> MODULES = Arrays.asList("core", "web", "web/api", "web-app");
+    private static final List<String> NONE = Collections.emptyList();
+
+    @Test
+    public void testChangedModules() {
+        Assert.assertEquals(Arrays.asList("web/api", "core", "web-app"),
+                AbstractGitFlowMojo.changedModules("", MODULES, Arrays.asList("web/api/src/main/java/A.java",
+                        "core/src/main/resources/a.properties", "web/api/src/main/java/B.java",
+                        "web-app/src/main/webapp/index.html"), NONE));
+        Assert.assertEquals(Arrays.asList("web"),
+                AbstractGitFlowMojo.changedModules("", MODULES, Arrays.asList("web/src/main/java/A.java"), NONE));
+        Assert.assertEquals(Collections.emptyList(),
+                AbstractGitFlowMojo.changedModules("", MODULES, NONE, NONE));
+    }
+
+    @Test
+    public void testRootChanged() {
+        Assert.assertNull(AbstractGitFlowMojo.changedModules("", MODULES,
+                Arrays.asList("core/pom.xml", "pom.xml"), NONE));
+        Assert.assertNull(AbstractGitFlowMojo.changedModules("", MODULES,
+                Arrays.asList("core/src/main/java/A.java", "README.md"), NONE));
+        Assert.assertNull(AbstractGitFlowMojo.changedModules("", MODULES,
+                Arrays.asList("new-module/pom.xml"), NONE));
+    }
+
+    @Test
+    public void testPrefix() {
+        Assert.assertEquals(Arrays.asList("core"), AbstractGitFlowMojo.changedModules("project/", MODULES,
+                Arrays.asList("project/core/src/main/java/A.java"), NONE));
+        Assert.assertNull(AbstractGitFlowMojo.changedModules("project/", MODULES,
+                Arrays.asList("project/core/src/main/java/A.java", "other/pom.xml"), NONE));
+    }
+
+    @Test
+    public void testVersionOnlyPoms() {
+        final List<String> poms = Arrays.asList("pom.xml", "core/pom.xml", "web/pom.xml");
+        Assert.assertEquals(Arrays.asList("web"), AbstractGitFlowMojo.changedModules("", MODULES,
+                Arrays.asList("pom.xml", "core/pom.xml", "web/src/main/java/A.java"), poms));
+        Assert.assertEquals(Collections.emptyList(), AbstractGitFlowMojo.changedModules("", MODULES, poms, poms));
+    }
+
+    @Test
+    public void testPomChanged() {
+        // e.g. dependency version, scope or artifactId changed
+        Assert.assertNull(AbstractGitFlowMojo.changedModules("", MODULES,
+                Arrays.asList("pom.xml", "core/pom.xml"), Arrays.asList("core/pom.xml")));
+        Assert.assertNull(AbstractGitFlowMojo.changedModules("", MODULES,
+                Arrays.asList("core/pom.xml", "core/src/main/java/A.java"), NONE));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CliGitBackendTest {
+
+    @Test
+    public void testParseAheadBehind() {
+        Map<String, int[]> counts = CliGitBackend.parseAheadBehind(
+                "refs/heads/develop\t0 3\t5 1\n"
+                        + "refs/heads/develop/x\t1 1\t1 1\n"
+                        + "refs/heads/release/1.0\t2 2\t4 0\n",
+                Arrays.asList("develop", "release/1.0"));
+
+        Assert.assertEquals(2, counts.size());
+        Assert.assertArrayEquals(new int[] { 0, 3 }, counts.get("develop"));
+        Assert.assertArrayEquals(new int[] { 4, 0 }, counts.get("release/1.0"));
+    }
+
+    @Test
+    public void testIsVersionAtLeast() {
+        int[] min = { 2, 41 };
+        Assert.assertTrue(CliGitBackend.isVersionAtLeast("git version 2.41.0", min));
+        Assert.assertTrue(CliGitBackend.isVersionAtLeast("git version 2.43.0.windows.1", min));
+        Assert.assertTrue(CliGitBackend.isVersionAtLeast("git version 3.0.0", min));
+        Assert.assertFalse(CliGitBackend.isVersionAtLeast("git version 2.39.2", min));
+        Assert.assertFalse(CliGitBackend.isVersionAtLeast("git version 1.99.0", min));
+        Assert.assertFalse(CliGitBackend.isVersionAtLeast("", min));
+    }
+}
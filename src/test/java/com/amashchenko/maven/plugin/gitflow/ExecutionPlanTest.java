@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExecutionPlanTest {
+
+    @Test
+    public void testIsMutatingGitCommand() {
+        Assert.assertTrue(ExecutionPlan.isMutatingGitCommand("commit", "-a", "-m", "msg"));
+        Assert.assertTrue(ExecutionPlan.isMutatingGitCommand("fetch", "--quiet", "origin", "develop"));
+        Assert.assertTrue(ExecutionPlan.isMutatingGitCommand("config", "gitflow.origin", "origin"));
+        Assert.assertFalse(ExecutionPlan.isMutatingGitCommand("config", "--get", "gitflow.origin"));
+        Assert.assertFalse(ExecutionPlan.isMutatingGitCommand("for-each-ref", "--format=\"%(refname)\""));
+        Assert.assertFalse(ExecutionPlan.isMutatingGitCommand("ls-remote", "--heads", "origin"));
+        Assert.assertTrue(ExecutionPlan.isMutatingGitCommand("notes", "--ref=gitflow-tested", "append", "-m", "x"));
+        Assert.assertFalse(ExecutionPlan.isMutatingGitCommand("notes", "--ref=gitflow-tested", "show", "HEAD"));
+        Assert.assertFalse(ExecutionPlan.isMutatingGitCommand());
+    }
+
+    @Test
+    public void testCommandLine() {
+        Assert.assertEquals("git commit -a -m \"Update \\\"x\\\" version\"",
+                ExecutionPlan.commandLine("git", null, "commit", "-a", "-m", "Update \"x\" version"));
+        Assert.assertEquals("mvn -DnewVersion=1.0 versions:set -o",
+                ExecutionPlan.commandLine("mvn", " -o", "-DnewVersion=1.0", "", "versions:set", null));
+    }
+
+    @Test
+    public void testVersions() {
+        ExecutionPlan plan = new ExecutionPlan("release-finish", "develop");
+
+        plan.createBranch("release/1.0", "develop");
+        plan.checkout("release/1.0");
+        Assert.assertNull(plan.getVersion("release/1.0"));
+        Assert.assertEquals("develop", plan.getVersionBranch("release/1.0"));
+
+        plan.setVersion("1.0");
+        plan.checkout("master");
+        Assert.assertEquals("master", plan.getVersionBranch("master"));
+        plan.merge("release/1.0");
+        Assert.assertEquals("1.0", plan.getVersion("master"));
+
+        plan.checkout("develop");
+        plan.setVersion("1.1-SNAPSHOT");
+        Assert.assertEquals("1.0", plan.getVersion("master"));
+        Assert.assertEquals("1.0", plan.getVersion("release/1.0"));
+
+        plan.createBranch("feature/a", "origin/feature/a");
+        plan.checkout("feature/a");
+        plan.merge("develop");
+        Assert.assertEquals("1.1-SNAPSHOT", plan.getVersion("feature/a"));
+
+        plan.createBranch("feature/b", "feature/c");
+        plan.createBranch("feature/c", "feature/b");
+        Assert.assertEquals("feature/c", plan.getVersionBranch("feature/b"));
+        Assert.assertEquals("feature/c", plan.getVersionBranch("feature/c"));
+    }
+
+    @Test
+    public void testBranchesAndJson() {
+        ExecutionPlan plan = new ExecutionPlan("feature-finish", null);
+        Assert.assertNull(plan.hasBranch("feature/a"));
+
+        plan.add(ExecutionPlan.GIT, "git checkout -b feature/a develop");
+        plan.createBranch("feature/a", "develop");
+        plan.checkout("feature/a");
+        plan.add(ExecutionPlan.GIT, "git branch -d \"feature/a\"");
+        plan.deleteBranch("feature/a");
+        plan.createTag("1.0");
+
+        Assert.assertEquals(Boolean.FALSE, plan.hasBranch("feature/a"));
+        Assert.assertTrue(plan.hasTag("1.0"));
+        Assert.assertEquals("  1. [] git checkout -b feature/a develop", plan.lines().get(0));
+        Assert.assertEquals("  2. [feature/a] git branch -d \"feature/a\"", plan.lines().get(1));
+
+        String json = plan.toJson();
+        Assert.assertTrue(json.contains("\"workingTreeBranch\": null"));
+        Assert.assertTrue(json.contains(
+                "{\"type\": \"git\", \"branch\": \"feature/a\", \"command\": \"git branch -d \\\"feature/a\\\"\"}"));
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FindOnPathTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFindOnPath() throws Exception {
+        final File empty = folder.newFolder("empty");
+        final File bin = folder.newFolder("bin");
+        final File mvnd = new File(bin, "mvnd");
+        Assert.assertTrue(mvnd.createNewFile());
+        Assert.assertTrue(mvnd.setExecutable(true));
+        Assert.assertTrue(new File(empty, "mvn").mkdir());
+
+        final String path = empty.getPath() + File.pathSeparator + File.pathSeparator + bin.getPath();
+        Assert.assertEquals(mvnd, AbstractGitFlowMojo.findOnPath(path, "mvnd"));
+        // directories are not executables
+        Assert.assertNull(AbstractGitFlowMojo.findOnPath(path, "mvn"));
+        Assert.assertNull(AbstractGitFlowMojo.findOnPath(empty.getPath(), "mvnd"));
+        Assert.assertNull(AbstractGitFlowMojo.findOnPath(null, "mvnd"));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GitFlowJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Map<String, String> refs(final String... nameValues) {
+        final Map<String, String> refs = new LinkedHashMap<>();
+        for (int i = 0; i < nameValues.length; i += 2) {
+            refs.put(nameValues[i], nameValues[i + 1]);
+        }
+        return refs;
+    }
+
+    private File writeFailedExecution() throws IOException {
+        final File file = new File(folder.getRoot(), "gitflow/release-finish.journal");
+        final GitFlowJournal journal = new GitFlowJournal(file, "release-finish",
+                Collections.<GitFlowJournal.Step> emptyList());
+
+        GitFlowJournal.Step step = journal.begin("merge", "release/1.0 --no-ff", "master",
+                refs("refs/heads/master", "a1"));
+        Assert.assertFalse(step.isCompleted());
+        journal.complete(step, refs("refs/heads/master", "b2"));
+
+        step = journal.begin("tag", "v1.0: release=ok #1", "master",
+                refs("refs/heads/master", "b2", "refs/tags/v1.0", ""));
+        journal.complete(step, refs("refs/heads/master", "b2", "refs/tags/v1.0", "c3"));
+
+        Assert.assertEquals(2, journal.getStepCount());
+        return file;
+    }
+
+    @Test
+    public void testReadWritten() throws Exception {
+        final File file = writeFailedExecution();
+        Assert.assertTrue(file.isFile());
+        Assert.assertFalse(new File(file.getPath() + ".tmp").exists());
+
+        final List<GitFlowJournal.Step> steps = GitFlowJournal.read(file, "release-finish");
+        Assert.assertEquals(2, steps.size());
+        Assert.assertEquals("merge", steps.get(0).getName());
+        Assert.assertEquals("release/1.0 --no-ff", steps.get(0).getDetail());
+        Assert.assertEquals("master", steps.get(0).getBranch());
+        Assert.assertEquals(refs("refs/heads/master", "a1"), steps.get(0).getBefore());
+        Assert.assertEquals("v1.0: release=ok #1", steps.get(1).getDetail());
+        Assert.assertEquals(refs("refs/heads/master", "b2", "refs/tags/v1.0", ""), steps.get(1).getBefore());
+
+        Assert.assertEquals(refs("refs/heads/master", "b2", "refs/tags/v1.0", "c3"),
+                GitFlowJournal.finalRefs(steps));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadOtherGoal() throws Exception {
+        GitFlowJournal.read(writeFailedExecution(), "hotfix-finish");
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        final File file = writeFailedExecution();
+        final GitFlowJournal journal = new GitFlowJournal(file, "release-finish",
+                GitFlowJournal.read(file, "release-finish"));
+        Assert.assertEquals(2, journal.getRemaining());
+
+        GitFlowJournal.Step step = journal.begin("merge", "release/1.0 --no-ff", "master",
+                refs("refs/heads/master", "b2"));
+        Assert.assertTrue(step.isCompleted());
+        Assert.assertEquals(refs("refs/heads/master", "b2"), step.getAfter());
+
+        step = journal.begin("tag", "v1.0: release=ok #1", "master", refs("refs/heads/master", "b2"));
+        Assert.assertTrue(step.isCompleted());
+        Assert.assertEquals(0, journal.getRemaining());
+
+        step = journal.begin("push", "origin master", "master", refs("refs/heads/master", "b2"));
+        Assert.assertFalse(step.isCompleted());
+        journal.complete(step, step.getBefore());
+
+        Assert.assertEquals(3, GitFlowJournal.read(file, "release-finish").size());
+
+        journal.delete();
+        Assert.assertFalse(file.exists());
+    }
+
+    @Test(expected = IOException.class)
+    public void testResumeOtherStep() throws Exception {
+        final File file = writeFailedExecution();
+        final GitFlowJournal journal = new GitFlowJournal(file, "release-finish",
+                GitFlowJournal.read(file, "release-finish"));
+
+        journal.begin("merge", "release/2.0 --no-ff", "master", refs("refs/heads/master", "b2"));
+    }
+
+    @Test
+    public void testResumeFailedBeforeCommit() throws Exception {
+        final File file = writeFailedExecution();
+        GitFlowJournal journal = new GitFlowJournal(file, "release-finish",
+                GitFlowJournal.read(file, "release-finish"));
+        journal.begin("merge", "release/1.0 --no-ff", "master", refs("refs/heads/master", "b2"));
+        journal.begin("tag", "v1.0: release=ok #1", "master", refs("refs/heads/master", "b2"));
+
+        GitFlowJournal.Step step = journal.begin("set versions", "1.1-SNAPSHOT", "master",
+                refs("refs/heads/master", "b2"));
+        journal.defer(step);
+        step = journal.begin("test", "", "master", refs("refs/heads/master", "b2"));
+        journal.complete(step, step.getBefore());
+        // failed before commit, versions update is lost with the working tree
+        journal.begin("commit", "update versions", "master", refs("refs/heads/master", "b2"));
+        Assert.assertEquals(2, GitFlowJournal.read(file, "release-finish").size());
+
+        journal = new GitFlowJournal(file, "release-finish", GitFlowJournal.read(file, "release-finish"));
+        Assert.assertTrue(journal.begin("merge", "release/1.0 --no-ff", "master",
+                refs("refs/heads/master", "b2")).isCompleted());
+        Assert.assertTrue(journal.begin("tag", "v1.0: release=ok #1", "master",
+                refs("refs/heads/master", "b2")).isCompleted());
+
+        step = journal.begin("set versions", "1.1-SNAPSHOT", "master", refs("refs/heads/master", "b2"));
+        Assert.assertFalse(step.isCompleted());
+        journal.defer(step);
+        step = journal.begin("test", "", "master", refs("refs/heads/master", "b2"));
+        Assert.assertFalse(step.isCompleted());
+        journal.complete(step, step.getBefore());
+        step = journal.begin("commit", "update versions", "master", refs("refs/heads/master", "b2"));
+        Assert.assertFalse(step.isCompleted());
+        journal.complete(step, refs("refs/heads/master", "d4"));
+
+        final List<GitFlowJournal.Step> steps = GitFlowJournal.read(file, "release-finish");
+        Assert.assertEquals(5, steps.size());
+        Assert.assertEquals("set versions", steps.get(2).getName());
+        Assert.assertEquals("test", steps.get(3).getName());
+        Assert.assertEquals("commit", steps.get(4).getName());
+        Assert.assertEquals(refs("refs/heads/master", "d4", "refs/tags/v1.0", "c3"),
+                GitFlowJournal.finalRefs(steps));
+    }
+}
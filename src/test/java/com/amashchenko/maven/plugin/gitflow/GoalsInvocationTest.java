@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GoalsInvocationTest {
+
+    @Test
+    public void testParse() {
+        GoalsInvocation invocation = GoalsInvocation.parse("clean", "-DskipTests", "-Dfoo=a=b", "-D", "bar=1",
+                "deploy", "-Pone,!two", "-P", "three", "-B", "-o");
+
+        Assert.assertNotNull(invocation);
+        Assert.assertEquals(Arrays.asList("clean", "deploy"), invocation.getGoals());
+        Assert.assertEquals("true", invocation.getUserProperties().getProperty("skipTests"));
+        Assert.assertEquals("a=b", invocation.getUserProperties().getProperty("foo"));
+        Assert.assertEquals("1", invocation.getUserProperties().getProperty("bar"));
+        Assert.assertEquals(Arrays.asList("one", "three"), invocation.getActiveProfiles());
+        Assert.assertEquals(Arrays.asList("two"), invocation.getInactiveProfiles());
+        Assert.assertTrue(invocation.isOffline());
+    }
+
+    @Test
+    public void testParseUnsupported() {
+        Assert.assertNull(GoalsInvocation.parse("install", "-pl", "module"));
+        Assert.assertNull(GoalsInvocation.parse("install", "-T", "4"));
+        Assert.assertNull(GoalsInvocation.parse("-DskipTests"));
+        Assert.assertNull(GoalsInvocation.parse("install", "-D=value"));
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefDatabase;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevTag;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Executes the same operations with {@link JGitBackend} and
+ * {@link CliGitBackend} on two equal repositories and compares the resulting
+ * refs, commits and trees. Commit ids differ because of the commit times.
+ */
+public class JGitBackendTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File cliDir;
+    private File jgitDir;
+    private GitBackend cli;
+    private GitBackend jgit;
+    private Backend[] cliAndJGit;
+
+    @Before
+    public void setUp() throws Exception {
+        cliDir = createRepository("cli");
+        jgitDir = createRepository("jgit");
+        cli = new CliGitBackend(new DirectoryMojo(cliDir));
+        jgit = new JGitBackend(jgitDir, new CliGitBackend(new DirectoryMojo(jgitDir)));
+    }
+
+    @Test
+    public void testCommitAndCheckout() throws Exception {
+        for (Backend b : backends()) {
+            b.backend.createBranch("develop", "master");
+            b.backend.checkout("develop");
+            b.write("file.txt", "develop");
+            Assert.assertTrue(b.backend.hasUncommittedChanges());
+            b.backend.commit("Change on develop", false);
+            Assert.assertFalse(b.backend.hasUncommittedChanges());
+            b.backend.createAndCheckout("feature/a", "master");
+            b.log.add(b.backend.getCurrentBranch());
+            b.log.add(b.read("file.txt"));
+        }
+        assertSame();
+    }
+
+    @Test
+    public void testMergeFastForwardOnly() throws Exception {
+        for (Backend b : backends()) {
+            b.backend.createAndCheckout("feature/a", "master");
+            b.write("file.txt", "feature");
+            b.backend.commit("Feature", false);
+            b.backend.checkout("master");
+            b.backend.merge("feature/a", false, true, null, false);
+
+            b.backend.createAndCheckout("hotfix", "feature/a");
+            b.write("other.txt", "hotfix");
+            b.backend.commit("Hotfix", false);
+            b.backend.checkout("master");
+            b.write("file.txt", "master");
+            b.backend.commit("Diverged", false);
+            try {
+                b.backend.merge("hotfix", false, true, null, false);
+                b.log.add("merged");
+            } catch (MojoFailureException e) {
+                b.log.add("not possible to fast-forward");
+            }
+            b.log.add(String.valueOf(b.backend.hasUncommittedChanges()));
+        }
+        assertSame();
+    }
+
+    @Test
+    public void testMergeNoFastForward() throws Exception {
+        for (Backend b : backends()) {
+            b.backend.createAndCheckout("feature/a", "master");
+            b.write("file.txt", "feature");
+            b.backend.commit("Feature", false);
+            b.backend.checkout("master");
+            b.write("other.txt", "master");
+            b.backend.commit("Master", false);
+            b.backend.merge("feature/a", true, false, "Merge feature/a", false);
+            b.backend.createAndCheckout("feature/b", "master");
+            b.backend.checkout("master");
+            b.backend.merge("feature/b", true, false, "Merge feature/b", false);
+            b.log.add(b.read("file.txt") + b.read("other.txt"));
+        }
+        assertSame();
+    }
+
+    @Test
+    public void testMergeSquash() throws Exception {
+        for (Backend b : backends()) {
+            b.backend.createAndCheckout("feature/a", "master");
+            b.write("file.txt", "one");
+            b.backend.commit("One", false);
+            b.write("other.txt", "two");
+            b.backend.commit("Two", false);
+            b.backend.checkout("master");
+            b.backend.mergeSquash("feature/a");
+            b.log.add(String.valueOf(b.backend.hasUncommittedChanges()));
+            b.backend.commit("Squashed feature/a", false);
+            b.log.add(String.valueOf(b.backend.hasUncommittedChanges()));
+        }
+        assertSame();
+    }
+
+    @Test
+    public void testTagAndDeleteBranch() throws Exception {
+        for (Backend b : backends()) {
+            b.backend.createBranch("merged", "master");
+            b.backend.createAndCheckout("unmerged", "master");
+            b.write("file.txt", "unmerged");
+            b.backend.commit("Unmerged", false);
+            b.backend.checkout("master");
+            b.backend.tag("1.0", "Release 1.0", false);
+
+            b.backend.deleteBranch("merged", false);
+            try {
+                b.backend.deleteBranch("unmerged", false);
+                b.log.add("deleted");
+            } catch (MojoFailureException e) {
+                b.log.add("not fully merged");
+            }
+            b.backend.deleteBranch("unmerged", true);
+        }
+        assertSame();
+    }
+
+    @Test
+    public void testCountAheadBehind() throws Exception {
+        for (Backend b : backends()) {
+            b.backend.createAndCheckout("develop", "master");
+            b.write("file.txt", "one");
+            b.backend.commit("One", false);
+            b.write("file.txt", "two");
+            b.backend.commit("Two", false);
+            b.backend.checkout("master");
+            b.write("other.txt", "master");
+            b.backend.commit("Master", false);
+            b.updateRef("refs/remotes/origin/develop", "master");
+            b.updateRef("refs/remotes/origin/master", "master~1");
+
+            b.log.add(Arrays.toString(b.backend.countAheadBehind("develop", "master")));
+            b.log.add(Arrays.toString(b.backend.countAheadBehind("master", "develop")));
+            for (Map.Entry<String, int[]> count : b.backend
+                    .countAheadBehind("origin", Arrays.asList("develop", "master", "missing")).entrySet()) {
+                b.log.add(count.getKey() + Arrays.toString(count.getValue()));
+            }
+        }
+        assertSame();
+        Assert.assertEquals(Arrays.asList("[2, 1]", "[1, 2]", "develop[2, 1]", "master[1, 0]"),
+                backends()[0].log);
+    }
+
+    private Backend[] backends() {
+        if (cliAndJGit == null) {
+            cliAndJGit = new Backend[] { new Backend(cli, cliDir), new Backend(jgit, jgitDir) };
+        }
+        return cliAndJGit;
+    }
+
+    private void assertSame() throws Exception {
+        final Backend[] b = backends();
+        Assert.assertEquals(b[0].log, b[1].log);
+        Assert.assertEquals(describeRefs(cliDir), describeRefs(jgitDir));
+    }
+
+    /**
+     * Describes refs by their commits, trees and messages, without ids of
+     * commits and tags.
+     */
+    private static Map<String, String> describeRefs(final File dir) throws Exception {
+        final Map<String, String> refs = new TreeMap<>();
+        try (Git git = Git.open(dir); RevWalk walk = new RevWalk(git.getRepository())) {
+            final Repository repository = git.getRepository();
+            for (Ref ref : repository.getRefDatabase().getRefs(RefDatabase.ALL).values()) {
+                refs.put(ref.getName(), describe(walk, walk.parseAny(ref.getObjectId())));
+            }
+            refs.put(Constants.HEAD, repository.getFullBranch());
+        }
+        return refs;
+    }
+
+    private static String describe(final RevWalk walk, final RevObject obj) throws Exception {
+        if (obj instanceof RevTag) {
+            final RevTag tag = walk.parseTag(obj);
+            return "tag " + tag.getTagName() + " '" + tag.getFullMessage().trim() + "' "
+                    + describe(walk, tag.getObject());
+        }
+        final RevCommit commit = walk.parseCommit(obj);
+        final StringBuilder sb = new StringBuilder("commit ").append(commit.getTree().name()).append(" '")
+                .append(commit.getFullMessage().trim()).append("' (");
+        for (RevCommit parent : commit.getParents()) {
+            sb.append(describe(walk, parent)).append(' ');
+        }
+        return sb.append(')').toString();
+    }
+
+    private File createRepository(final String name) throws Exception {
+        final File dir = folder.newFolder(name);
+        try (Git git = Git.init().setDirectory(dir).call()) {
+            final StoredConfig config = git.getRepository().getConfig();
+            config.setString("user", null, "name", "Test");
+            config.setString("user", null, "email", "test@example.com");
+            config.setBoolean("commit", null, "gpgsign", false);
+            config.save();
+            write(dir, "file.txt", "init");
+            write(dir, "other.txt", "init");
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("Initial commit").call();
+        }
+        return dir;
+    }
+
+    private static void write(final File dir, final String path, final String content) throws Exception {
+        Files.write(new File(dir, path).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class Backend {
+        private final GitBackend backend;
+        private final File dir;
+        private final List<String> log = new ArrayList<>();
+
+        private Backend(final GitBackend backend, final File dir) {
+            this.backend = backend;
+            this.dir = dir;
+        }
+
+        private void write(final String path, final String content) throws Exception {
+            JGitBackendTest.write(dir, path, content);
+        }
+
+        private String read(final String path) throws Exception {
+            return new String(Files.readAllBytes(new File(dir, path).toPath()), StandardCharsets.UTF_8);
+        }
+
+        private void updateRef(final String name, final String revision) throws Exception {
+            try (Git git = Git.open(dir)) {
+                final Repository repository = git.getRepository();
+                final RefUpdate update = repository.updateRef(name);
+                update.setNewObjectId(repository.resolve(revision));
+                update.forceUpdate();
+            }
+        }
+    }
+
+    /**
+     * Mojo which executes git commands in the given directory.
+     */
+    private static class DirectoryMojo extends AbstractGitFlowMojo {
+        private final File dir;
+
+        private DirectoryMojo(final File dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        public void execute() {
+        }
+
+        @Override
+        String executeGitCommandReturn(final String... args) throws CommandLineException, MojoFailureException {
+            return executeGitCommandChecked(args).getOut();
+        }
+
+        @Override
+        CommandResult executeGitCommandExitCode(final String... args) throws CommandLineException {
+            return executeGitCommandIn(dir, args);
+        }
+
+        @Override
+        void executeGitCommand(final String... args) throws CommandLineException, MojoFailureException {
+            executeGitCommandChecked(args);
+        }
+
+        private CommandResult executeGitCommandChecked(final String... args)
+                throws CommandLineException, MojoFailureException {
+            final CommandResult result = executeGitCommandIn(dir, args);
+            if (result.getExitCode() != 0) {
+                throw new MojoFailureException(result.getError());
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.maven.shared.release.versions.DefaultVersionInfo;
+import org.apache.maven.shared.release.versions.VersionInfo;
+import org.apache.maven.shared.release.versions.VersionParseException;
+import org.codehaus.plexus.util.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compares {@link GitFlowVersionInfo} with {@link DefaultVersionInfo} which it
+ * replaced.
+ */
+public class ParsedVersionTest {
+    private static final String[] VERSIONS = { "0.9", "1", "1.2.3", "01.002.0003", "0.9-SNAPSHOT", "1.0SNAPSHOT",
+            "1.0-snapshot", "SNAPSHOT", "some-SNAPSHOT", "some_SNAPSHOT", "-SNAPSHOT", "a-b-SNAPSHOT", "0.09-RC2",
+            "0.09-RC3-feature-SNAPSHOT", "1.0-alpha-1", "1.0-alpha_1-2", "1.0alpha", "1.0-5", "1.0-5-x", "1.0-_5",
+            "1.0-", "1.0-beta-", "1.0-beta--x", "1.0.", "1.2.x", "1..2", "1.0.0.201909030838-r",
+            "1.0-20200101.123456-1", "1.0-SNAPSHOT5", "1.0-RC-SNAPSHOT", "2147483640", "2147483648", "1.9", "1.99",
+            "1.0-RC9", "1.0-RC099", "1.0-M1-SNAPSHOT", "1.0_final", "1.0-1-2-3", "1.0 beta", "1.0\nbeta", "1.0\n",
+            "-1", "some.0.9", "", "x", "1.0-é", "3.0.0-M1" };
+
+    @Test
+    public void testSameAsDefaultVersionInfo() throws Exception {
+        for (String version : corpus()) {
+            assertSame(version);
+        }
+    }
+
+    @Test
+    public void testCompareTo() throws Exception {
+        List<String> versions = new ArrayList<>();
+        for (String version : VERSIONS) {
+            if (GitFlowVersionInfo.isValidVersion(version)) {
+                versions.add(version);
+            }
+        }
+        for (String v1 : versions) {
+            for (String v2 : versions) {
+                Assert.assertEquals(v1 + " <> " + v2,
+                        Integer.signum(new DefaultVersionInfo(v1).compareTo(new DefaultVersionInfo(v2))),
+                        Integer.signum(new GitFlowVersionInfo(v1).compareTo(new GitFlowVersionInfo(v2))));
+                Assert.assertEquals(new DefaultVersionInfo(v1).equals(new DefaultVersionInfo(v2)),
+                        new GitFlowVersionInfo(v1).equals(new GitFlowVersionInfo(v2)));
+            }
+        }
+    }
+
+    private static List<String> corpus() {
+        List<String> corpus = new ArrayList<>(Arrays.asList(VERSIONS));
+        char[] alphabet = "0123456789..--__aAbRCM-SNAPSHOT".toCharArray();
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(14);
+            for (int j = 0; j < length; j++) {
+                sb.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            if (random.nextInt(4) == 0) {
+                sb.append(random.nextBoolean() ? "-SNAPSHOT" : "SNAPSHOT");
+            }
+            corpus.add(sb.toString());
+        }
+        return corpus;
+    }
+
+    private static void assertSame(final String version) throws Exception {
+        boolean valid = StringUtils.isNotBlank(version)
+                && (DefaultVersionInfo.ALTERNATE_PATTERN.matcher(version).matches()
+                        || DefaultVersionInfo.STANDARD_PATTERN.matcher(version).matches());
+        Assert.assertEquals(version, valid, GitFlowVersionInfo.isValidVersion(version));
+
+        DefaultVersionInfo expected;
+        try {
+            expected = new DefaultVersionInfo(version);
+        } catch (VersionParseException e) {
+            try {
+                new GitFlowVersionInfo(version);
+                Assert.fail(version);
+            } catch (VersionParseException e2) {
+                // expected
+            }
+            return;
+        }
+        GitFlowVersionInfo actual = new GitFlowVersionInfo(version);
+
+        Assert.assertEquals(version, expected.toString(), actual.toString());
+        Assert.assertEquals(version, expected.getDigits(), actual.getDigits());
+        Assert.assertEquals(version, expected.getAnnotation(), actual.getAnnotation());
+        Assert.assertEquals(version, expected.getAnnotationRevision(), actual.getAnnotationRevision());
+        Assert.assertEquals(version, expected.getBuildSpecifier(), actual.getBuildSpecifier());
+        Assert.assertEquals(version, expected.isSnapshot(), actual.isSnapshot());
+        Assert.assertEquals(version, expected.getReleaseVersionString(), actual.getReleaseVersionString());
+        Assert.assertEquals(version, expected.getSnapshotVersionString(), actual.getSnapshotVersionString());
+
+        // next versions
+        VersionInfo expectedNext = expected;
+        VersionInfo actualNext = actual;
+        for (int i = 0; i < 3 && expectedNext != null; i++) {
+            Object e = call(expectedNext, "next");
+            Object a = call(actualNext, "next");
+            Assert.assertEquals(version, e, a);
+            if (e instanceof String) {
+                expectedNext = expectedNext.getNextVersion();
+                actualNext = actualNext.getNextVersion();
+                Assert.assertEquals(version, expectedNext.getReleaseVersionString(),
+                        actualNext.getReleaseVersionString());
+                Assert.assertEquals(version, expectedNext.getSnapshotVersionString(),
+                        actualNext.getSnapshotVersionString());
+            } else {
+                break;
+            }
+        }
+        if (expected.getDigits() == null) {
+            Assert.assertNull(actual.getNextVersion());
+        }
+
+        // methods of the previous GitFlowVersionInfo implementation
+        for (int index = -1; index <= (expected.getDigits() == null ? 0 : expected.getDigits().size()); index++) {
+            Assert.assertEquals(version + " " + index, call(expected, "snapshot" + index),
+                    call(actual, "snapshot" + index));
+        }
+        Assert.assertEquals(version, call(expected, "hotfix"), call(actual, "hotfix"));
+        if (expected.getDigits() != null) {
+            Assert.assertEquals(version, call(expected, "digits"), call(actual, "digits"));
+            for (int digits = 0; digits < 6; digits++) {
+                Assert.assertEquals(version, call(expected, "padded" + digits), call(actual, "padded" + digits));
+            }
+        }
+    }
+
+    /**
+     * Calls method and returns its result or class of the thrown exception.
+     */
+    private static Object call(final VersionInfo info, final String method) {
+        try {
+            if (method.equals("next")) {
+                return info.getNextVersion().toString();
+            } else if (method.startsWith("snapshot")) {
+                Integer index = Integer.valueOf(method.substring("snapshot".length()));
+                return info instanceof GitFlowVersionInfo ? ((GitFlowVersionInfo) info).nextSnapshotVersion(index)
+                        : oldNextSnapshotVersion((DefaultVersionInfo) info, index);
+            } else if (method.equals("hotfix")) {
+                return info instanceof GitFlowVersionInfo ? ((GitFlowVersionInfo) info).hotfixVersion(true)
+                        + ((GitFlowVersionInfo) info).hotfixVersion(false)
+                        : (info.isSnapshot() ? info.getNextVersion().getSnapshotVersionString()
+                                : info.getNextVersion().getReleaseVersionString())
+                                + info.getNextVersion().getReleaseVersionString();
+            } else if (method.equals("digits")) {
+                return info instanceof GitFlowVersionInfo ? ((GitFlowVersionInfo) info).digitsVersionInfo().toString()
+                        : new DefaultVersionInfo(joinDigits(((DefaultVersionInfo) info).getDigits())).toString();
+            } else {
+                int digits = Integer.parseInt(method.substring("padded".length()));
+                return info instanceof GitFlowVersionInfo ? ((GitFlowVersionInfo) info).getPaddedVersion(digits)
+                        : oldPaddedVersion((DefaultVersionInfo) info, digits);
+            }
+        } catch (Exception e) {
+            return e.getClass();
+        }
+    }
+
+    private static String joinDigits(final List<String> digits) {
+        return StringUtils.join(digits.iterator(), ".");
+    }
+
+    private static String oldNextSnapshotVersion(final DefaultVersionInfo info, final Integer index) {
+        List<String> digits = info.getDigits();
+        if (digits == null) {
+            return info.getSnapshotVersionString();
+        }
+        if (index != null && index >= 0 && index < digits.size()) {
+            digits = new ArrayList<>(digits);
+            int origDigitsLength = joinDigits(digits).length();
+            digits.set(index, String.valueOf(Integer.valueOf(digits.get(index)) + 1));
+            String incremented = digits.get(index);
+            String original = info.getDigits().get(index);
+            if (incremented.length() < original.length()) {
+                digits.set(index, StringUtils.leftPad(incremented, original.length(), "0"));
+            }
+            for (int i = index + 1; i < digits.size(); i++) {
+                digits.set(i, "0");
+            }
+            return joinDigits(digits) + info.getSnapshotVersionString().substring(origDigitsLength);
+        }
+        return info.getNextVersion().getSnapshotVersionString();
+    }
+
+    private static String oldPaddedVersion(final DefaultVersionInfo info, final int digits)
+            throws VersionParseException {
+        String defaultVersion = info.getReleaseVersionString();
+        int i = digits;
+        if (i > info.getDigits().size()) {
+            while (i > info.getDigits().size()) {
+                defaultVersion = defaultVersion + ".0";
+                i--;
+            }
+            defaultVersion = new DefaultVersionInfo(defaultVersion).getReleaseVersionString();
+        }
+        return defaultVersion;
+    }
+}
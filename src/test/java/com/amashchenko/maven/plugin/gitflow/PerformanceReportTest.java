@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PerformanceReportTest {
+
+    @Test
+    public void testSpans() {
+        PerformanceReport report = new PerformanceReport("release-finish");
+
+        PerformanceReport.Span step = report.start(PerformanceReport.STEP, "merge", null);
+        PerformanceReport.Span inner = report.start(PerformanceReport.STEP, "commit", null);
+        PerformanceReport.Span command = report.start(PerformanceReport.COMMAND, "git", "git commit -m \"a\"");
+        command.addOutput(10);
+        command.end();
+        // inner step is left open
+        step.end();
+
+        PerformanceReport.Span other = report.start(PerformanceReport.COMMAND, "git", "git status");
+        other.addOutput(5);
+        other.end();
+
+        Assert.assertSame(inner, command.getParent());
+        Assert.assertNull(other.getParent());
+        Assert.assertEquals(1, step.getProcesses());
+        Assert.assertEquals(10, step.getOutputBytes());
+        Assert.assertEquals(10, inner.getOutputBytes());
+
+        List<String> summary = report.summary();
+        Assert.assertEquals(5, summary.size());
+        Assert.assertTrue(summary.get(1).startsWith("merge "));
+        Assert.assertTrue(summary.get(2).startsWith("git "));
+        Assert.assertTrue(summary.get(3).startsWith("plugin "));
+    }
+
+    @Test
+    public void testJson() {
+        PerformanceReport report = new PerformanceReport("feature-start");
+        Assert.assertTrue(report.toJson().contains("\"spans\": []"));
+
+        report.start(PerformanceReport.COMMAND, "git", "git commit -m \"a\\b\"").end();
+
+        String json = report.toJson();
+        Assert.assertTrue(json.contains("\"goal\": \"feature-start\""));
+        Assert.assertTrue(json.contains("\"processes\": 1,"));
+        Assert.assertTrue(json.contains("\"parent\": -1"));
+        Assert.assertTrue(json.contains("\"command\": \"git commit -m \\\"a\\\\b\\\"\""));
+    }
+}
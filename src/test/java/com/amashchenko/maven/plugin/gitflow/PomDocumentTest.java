@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PomDocumentTest {
+    private static final String POM = "<project>\n"
+            + "  <version>1.0</version>\n"
+            + "  <properties>\n"
+            + "    <revision/>\n"
+            + "    <other a=\"/\" />\n"
+            + "  </properties>\n"
+            + "</project>\n";
+
+    private static PomDocument parse(final String xml) throws Exception {
+        return new PomDocument(null, StandardCharsets.UTF_8, xml);
+    }
+
+    @Test
+    public void testSetTextEscaped() throws Exception {
+        PomDocument pom = parse(POM);
+        PomDocument.Node version = pom.getRoot().getChild("version");
+
+        pom.setText(version, "1.1");
+        pom.setText(version, "1.1 <&> 2");
+        String xml = pom.toXml();
+        Assert.assertEquals(POM.replace(">1.0<", ">1.1 &lt;&amp;&gt; 2<"), xml);
+        Assert.assertEquals("1.1 <&> 2", parse(xml).getRoot().getChildText("version"));
+    }
+
+    @Test
+    public void testSetTextOriginal() throws Exception {
+        PomDocument pom = parse(POM);
+        PomDocument.Node version = pom.getRoot().getChild("version");
+
+        pom.setText(version, "1.1");
+        pom.setText(version, "1.0");
+        Assert.assertFalse(pom.isModified());
+        Assert.assertEquals(POM, pom.toXml());
+    }
+
+    @Test
+    public void testSetTextEmptyElement() throws Exception {
+        PomDocument pom = parse(POM);
+        PomDocument.Node properties = pom.getRoot().getChild("properties");
+
+        pom.setText(properties.getChild("revision"), "");
+        Assert.assertFalse(pom.isModified());
+
+        pom.setText(properties.getChild("revision"), "1.0");
+        pom.setText(properties.getChild("revision"), "1.1&");
+        pom.setText(properties.getChild("other"), "x");
+        String xml = pom.toXml();
+        Assert.assertEquals(POM.replace("<revision/>", "<revision>1.1&amp;</revision>")
+                .replace("<other a=\"/\" />", "<other a=\"/\">x</other>"), xml);
+
+        PomDocument.Node parsed = parse(xml).getRoot().getChild("properties");
+        Assert.assertEquals("1.1&", parsed.getChildText("revision"));
+        Assert.assertEquals("x", parsed.getChildText("other"));
+    }
+}
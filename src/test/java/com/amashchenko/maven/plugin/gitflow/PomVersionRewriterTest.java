@@ -0,0 +1,226 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PomVersionRewriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String ROOT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n"
+            + "<project>\r\n"
+            + "  <!-- <version>1.0-SNAPSHOT</version> -->\r\n"
+            + "  <groupId>g</groupId>\r\n"
+            + "  <artifactId>root</artifactId>\r\n"
+            + "  <version>1.0-SNAPSHOT</version>\r\n"
+            + "  <packaging>pom</packaging>\r\n"
+            + "  <properties>\r\n"
+            + "    <revision>1.0-SNAPSHOT</revision>\r\n"
+            + "    <project.build.outputTimestamp>10</project.build.outputTimestamp>\r\n"
+            + "  </properties>\r\n"
+            + "  <modules>\r\n"
+            + "    <module>a</module>\r\n"
+            + "    <module>b/pom.xml</module>\r\n"
+            + "  </modules>\r\n"
+            + "</project>\r\n";
+
+    private static final String A = "<project>\n"
+            + "  <parent>\n"
+            + "    <groupId>g</groupId>\n"
+            + "    <artifactId>root</artifactId>\n"
+            + "    <version>1.0-SNAPSHOT</version>\n"
+            + "  </parent>\n"
+            + "  <artifactId>a</artifactId>\n"
+            + "  <dependencies>\n"
+            + "    <dependency>\n"
+            + "      <groupId>other</groupId>\n"
+            + "      <artifactId>a</artifactId>\n"
+            + "      <version>1.0-SNAPSHOT</version>\n"
+            + "    </dependency>\n"
+            + "  </dependencies>\n"
+            + "</project>\n";
+
+    private static final String B = "<project>\n"
+            + "  <parent>\n"
+            + "    <groupId>g</groupId>\n"
+            + "    <artifactId>root</artifactId>\n"
+            + "    <version>1.0-SNAPSHOT</version>\n"
+            + "  </parent>\n"
+            + "  <artifactId>b</artifactId>\n"
+            + "  <version>2.0-SNAPSHOT</version>\n"
+            + "  <dependencies>\n"
+            + "    <dependency>\n"
+            + "      <groupId>${project.groupId}</groupId>\n"
+            + "      <artifactId>a</artifactId>\n"
+            + "      <version>1.0-SNAPSHOT</version>\n"
+            + "    </dependency>\n"
+            + "  </dependencies>\n"
+            + "</project>\n";
+
+    @Test
+    public void testRewrite() throws Exception {
+        File root = write("pom.xml", ROOT);
+        File a = write("a/pom.xml", A);
+        File b = write("b/pom.xml", B);
+
+        List<File> changed = new PomVersionRewriter(root).rewrite("1.0", true, false, "revision", "20");
+
+        Assert.assertEquals(3, changed.size());
+        Assert.assertEquals(ROOT.replace("  <version>1.0-SNAPSHOT</version>\r\n", "  <version>1.0</version>\r\n")
+                .replace(">1.0-SNAPSHOT</revision>", ">1.0</revision>").replace(">10<", ">20<"), read(root));
+        Assert.assertEquals(A.replace("    <version>1.0-SNAPSHOT</version>\n  </parent>",
+                "    <version>1.0</version>\n  </parent>"), read(a));
+        Assert.assertEquals(B.replace("-SNAPSHOT</version>\n  </parent>", "</version>\n  </parent>")
+                .replace("      <version>1.0-SNAPSHOT</version>", "      <version>1.0</version>"), read(b));
+    }
+
+    @Test
+    public void testForceUpdate() throws Exception {
+        File root = write("pom.xml", ROOT);
+        File b = write("b/pom.xml", B.replace("2.0-SNAPSHOT", "1.0-SNAPSHOT").replace(">root<", ">external<"));
+        write("a/pom.xml", A);
+
+        new PomVersionRewriter(root).rewrite("1.1-SNAPSHOT", true, false, null, null);
+        Assert.assertFalse(read(b).contains("<version>1.1-SNAPSHOT</version>\n  <dependencies>"));
+
+        write("pom.xml", ROOT);
+        new PomVersionRewriter(root).rewrite("1.2-SNAPSHOT", true, true, null, null);
+        Assert.assertTrue(read(b).contains("<version>1.2-SNAPSHOT</version>\n  <dependencies>"));
+        Assert.assertTrue(read(root).contains("<project.build.outputTimestamp>10<"));
+    }
+
+    @Test
+    public void testSkipUpdateVersion() throws Exception {
+        File root = write("pom.xml", ROOT);
+        File a = write("a/pom.xml", A);
+        write("b/pom.xml", B);
+
+        List<File> changed = new PomVersionRewriter(root).rewrite("1.0", false, false, "revision", null);
+
+        Assert.assertEquals(1, changed.size());
+        Assert.assertEquals(ROOT.replace(">1.0-SNAPSHOT</revision>", ">1.0</revision>"), read(root));
+        Assert.assertEquals(A, read(a));
+    }
+
+    @Test
+    public void testUpdateDependencies() throws Exception {
+        File root = write("pom.xml", ROOT);
+        File a = write("a/pom.xml", A);
+        String bXml = B.replace("${project.groupId}", "other").replace(">a</artifactId>\n      <version>1.0-SNAPSHOT",
+                ">b</artifactId>\n      <version>${revision}");
+        File b = write("b/pom.xml", bXml);
+        List<String> artifacts = Arrays.asList("other:a", "other:b");
+
+        Assert.assertEquals(Arrays.asList(root.getCanonicalFile(), a.getCanonicalFile()),
+                new PomVersionRewriter(root).updateDependencies(artifacts, "2.0", false));
+        Assert.assertEquals(A, read(a));
+
+        new PomVersionRewriter(root).updateDependencies(artifacts, "2.0", true);
+        Assert.assertEquals(ROOT.replace(">1.0-SNAPSHOT</revision>", ">2.0</revision>"), read(root));
+        Assert.assertEquals(A.replace("      <version>1.0-SNAPSHOT</version>", "      <version>2.0</version>"),
+                read(a));
+        Assert.assertEquals(bXml, read(b));
+
+        Assert.assertTrue(new PomVersionRewriter(root).updateDependencies(artifacts, "2.0", true).isEmpty());
+    }
+
+    @Test
+    public void testIsVersionOnlyChange() {
+        List<String> artifacts = Arrays.asList("g:root", "g:a", "g:b");
+        List<String> properties = Arrays.asList("project.build.outputTimestamp", "revision");
+
+        Assert.assertTrue(PomVersionRewriter.isVersionOnlyChange(B,
+                B.replace("1.0-SNAPSHOT", "1.1-SNAPSHOT").replace("2.0-SNAPSHOT", "2.1-SNAPSHOT"), artifacts,
+                properties));
+        Assert.assertTrue(PomVersionRewriter.isVersionOnlyChange(ROOT,
+                ROOT.replace("  <version>1.0-SNAPSHOT", "  <version>1.1-SNAPSHOT")
+                        .replace(">1.0-SNAPSHOT</revision>", ">1.1-SNAPSHOT</revision>").replace(">10<", ">20<"), artifacts, properties));
+        // comments are not versions
+        Assert.assertFalse(PomVersionRewriter.isVersionOnlyChange(ROOT,
+                ROOT.replace("<!-- <version>1.0-SNAPSHOT", "<!-- <version>1.1-SNAPSHOT"), artifacts, properties));
+        // not a reactor artifact
+        Assert.assertFalse(PomVersionRewriter.isVersionOnlyChange(B,
+                B.replace("1.0-SNAPSHOT", "1.1-SNAPSHOT"), Arrays.asList("g:b"), properties));
+    }
+
+    @Test
+    public void testIsVersionOnlyChangeDependencyVersion() {
+        String other = B.replace("${project.groupId}", "other");
+        Assert.assertFalse(PomVersionRewriter.isVersionOnlyChange(other,
+                other.replace("      <version>1.0-SNAPSHOT", "      <version>1.1"), Arrays.asList("g:root", "g:a",
+                        "g:b"), Arrays.asList("revision")));
+    }
+
+    @Test
+    public void testIsVersionOnlyChangeProperty() {
+        Assert.assertFalse(PomVersionRewriter.isVersionOnlyChange(ROOT,
+                ROOT.replace(">1.0-SNAPSHOT</revision>", ">1.1-SNAPSHOT</revision>"), Arrays.asList("g:root"),
+                Arrays.asList("project.build.outputTimestamp")));
+    }
+
+    @Test
+    public void testIsVersionOnlyChangeScopeAndArtifactId() {
+        List<String> artifacts = Arrays.asList("g:root", "g:a", "g:b", "g:c");
+        Assert.assertFalse(PomVersionRewriter.isVersionOnlyChange(B,
+                B.replace("      <version>1.0-SNAPSHOT</version>\n",
+                        "      <version>1.0-SNAPSHOT</version>\n      <scope>test</scope>\n"),
+                artifacts, Arrays.<String> asList()));
+        Assert.assertFalse(PomVersionRewriter.isVersionOnlyChange(B,
+                B.replace("<artifactId>a</artifactId>", "<artifactId>c</artifactId>"), artifacts,
+                Arrays.<String> asList()));
+    }
+
+    @Test
+    public void testIsVersionOnlyChangeParent() {
+        List<String> artifacts = Arrays.asList("g:root", "g:other", "g:a");
+        // parent replaced by another reactor artifact
+        Assert.assertFalse(PomVersionRewriter.isVersionOnlyChange(A,
+                A.replace("<artifactId>root</artifactId>", "<artifactId>other</artifactId>"), artifacts,
+                Arrays.<String> asList()));
+        // version of an external parent
+        String external = A.replace("<groupId>g</groupId>", "<groupId>org.example</groupId>");
+        Assert.assertFalse(PomVersionRewriter.isVersionOnlyChange(external,
+                external.replace("    <version>1.0-SNAPSHOT</version>\n  </parent>",
+                        "    <version>1.1</version>\n  </parent>"), artifacts, Arrays.<String> asList()));
+        // property which is not updated by the plugin
+        String property = ROOT.replace("<revision>", "<spring.version>").replace("</revision>", "</spring.version>");
+        Assert.assertFalse(PomVersionRewriter.isVersionOnlyChange(property,
+                property.replace(">1.0-SNAPSHOT</spring.version>", ">1.1</spring.version>"), artifacts,
+                Arrays.asList("revision", "project.build.outputTimestamp")));
+    }
+
+    private File write(final String path, final String content) throws IOException {
+        File file = new File(folder.getRoot(), path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String read(final File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProjectModelCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testKey() throws Exception {
+        File root = write("pom.xml", "<project><version>1.0</version></project>");
+        File module = write("a/pom.xml", "<project><parent><version>1.0</version></parent></project>");
+
+        ProjectModelCache cache = new ProjectModelCache();
+        String key = cache.key(module);
+        Assert.assertEquals(key, cache.key(module));
+
+        write("pom.xml", "<project><version>1.1</version></project>");
+        String changedParentKey = cache.key(module);
+        Assert.assertNotEquals(key, changedParentKey);
+        Assert.assertNotEquals(cache.key(root), changedParentKey);
+
+        write("a/pom.xml", "<project><parent><relativePath/></parent></project>");
+        String noParentKey = cache.key(module);
+        write("pom.xml", "<project><version>1.2</version></project>");
+        Assert.assertEquals(noParentKey, cache.key(module));
+    }
+
+    @Test
+    public void testGetPut() throws Exception {
+        File pom = write("pom.xml", "<project/>");
+
+        ProjectModelCache cache = new ProjectModelCache();
+        String key = cache.key(pom);
+        Assert.assertNull(cache.get(key));
+
+        MavenProject project = new MavenProject();
+        cache.put(key, project);
+        Assert.assertSame(project, cache.get(key));
+        Assert.assertSame(project, cache.get(key));
+
+        Assert.assertEquals(2, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testOnlyLatestKept() throws Exception {
+        File root = write("pom.xml", "<project><version>1.0</version></project>");
+        File module = write("a/pom.xml", "<project><parent><version>1.0</version></parent></project>");
+
+        ProjectModelCache cache = new ProjectModelCache();
+        String oldKey = cache.key(module);
+        cache.put(oldKey, new MavenProject());
+        cache.put(cache.key(root), new MavenProject());
+
+        write("pom.xml", "<project><version>1.1</version></project>");
+        MavenProject project = new MavenProject();
+        cache.put(cache.key(module), project);
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.get(oldKey));
+        Assert.assertSame(project, cache.get(cache.key(module)));
+    }
+
+    private File write(final String path, final String content) throws IOException {
+        File file = new File(folder.getRoot(), path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RefSnapshotTest {
+    private RefSnapshot snapshot;
+
+    @Before
+    public void setUp() {
+        snapshot = new RefSnapshot();
+        snapshot.load(" \trefs/heads/feature/a\taaa\t\t\n"
+                + " \trefs/heads/feature/b/c\tbbb\t\t\n"
+                + "*\trefs/heads/master\tccc\t\t\n"
+                + " \trefs/remotes/origin/develop\tddd\t\t\n"
+                + " \trefs/tags/1.10\teee\t1600000000 +0000\t1500000000 +0000\n"
+                + " \trefs/tags/1.9\tfff\t1600000000 +0000\t1400000000 +0000\n"
+                + " \trefs/tags/light\tccc\t\t\n");
+    }
+
+    @Test
+    public void testFind() {
+        Assert.assertEquals(Arrays.asList("feature/a"), snapshot.find("refs/heads/feature/*", false));
+        Assert.assertEquals(Arrays.asList("feature/a", "feature/b/c"), snapshot.find("refs/heads/feature/**", false));
+        Assert.assertEquals(Arrays.asList("feature/a", "feature/b/c"), snapshot.find("refs/heads/feature", false));
+        Assert.assertEquals(Arrays.asList("feature/a"), snapshot.find("refs/heads/feature/**", true));
+        Assert.assertEquals(Collections.emptyList(), snapshot.find("refs/heads/feat", false));
+        Assert.assertEquals(Collections.emptyList(), snapshot.find("refs/heads/feature*", false));
+        Assert.assertEquals(Arrays.asList("origin/develop"), snapshot.find("refs/remotes/origin/dev*", false));
+    }
+
+    @Test
+    public void testRefs() {
+        Assert.assertTrue(snapshot.hasRef("refs/heads/master"));
+        Assert.assertFalse(snapshot.hasRef("refs/heads/develop"));
+        Assert.assertEquals("master", snapshot.getCurrentBranch());
+        Assert.assertEquals("ddd", snapshot.getObjectId("refs/remotes/origin/develop"));
+    }
+
+    @Test
+    public void testTags() {
+        Assert.assertEquals(Arrays.asList("light", "1.9", "1.10"), snapshot.getTags());
+        Assert.assertEquals("1.10", snapshot.getLastTag());
+    }
+
+    @Test
+    public void testCounters() {
+        Assert.assertTrue(snapshot.isLoaded());
+        snapshot.hasRef("refs/heads/master");
+        snapshot.getCurrentBranch();
+        snapshot.invalidate();
+        Assert.assertFalse(snapshot.isLoaded());
+        snapshot.load("");
+        Assert.assertEquals(2, snapshot.getHits());
+        Assert.assertEquals(2, snapshot.getReloads());
+        Assert.assertNull(snapshot.getCurrentBranch());
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RepositoryLevelsTest {
+    private static ReleaseRepository repository(final String path, final String... dependsOn) {
+        return new ReleaseRepository(path, Arrays.asList(dependsOn));
+    }
+
+    private static List<List<String>> names(final List<List<ReleaseRepository>> levels) {
+        final List<List<String>> names = new ArrayList<>();
+        for (List<ReleaseRepository> level : levels) {
+            final List<String> levelNames = new ArrayList<>();
+            for (ReleaseRepository repository : level) {
+                levelNames.add(repository.getName());
+            }
+            names.add(levelNames);
+        }
+        return names;
+    }
+
+    @Test
+    public void testLevels() throws Exception {
+        final List<List<ReleaseRepository>> levels = GitFlowReleaseOrchestrateMojo.levels(Arrays.asList(
+                repository("../web", "api", "core"), repository("../core"), repository("../api", "core"),
+                repository("../tools/"), repository("../app", "web", "tools")));
+        Assert.assertEquals(Arrays.asList(Arrays.asList("core", "tools"), Arrays.asList("api"),
+                Arrays.asList("web"), Arrays.asList("app")), names(levels));
+    }
+
+    @Test(expected = MojoFailureException.class)
+    public void testCycle() throws Exception {
+        GitFlowReleaseOrchestrateMojo.levels(Arrays.asList(repository("core"), repository("api", "web"),
+                repository("web", "api")));
+    }
+
+    @Test(expected = MojoFailureException.class)
+    public void testUnknownDependency() throws Exception {
+        GitFlowReleaseOrchestrateMojo.levels(Arrays.asList(repository("core", "commons")));
+    }
+
+    @Test(expected = MojoFailureException.class)
+    public void testDuplicateName() throws Exception {
+        GitFlowReleaseOrchestrateMojo.levels(Arrays.asList(repository("core"), repository("../other/core")));
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StripThreadsTest {
+
+    @Test
+    public void testStripThreads() {
+        Assert.assertEquals("-o", AbstractGitFlowMojo.stripThreads("-T 4 -o"));
+        Assert.assertEquals("-o", AbstractGitFlowMojo.stripThreads("-o -T1C"));
+        Assert.assertEquals("-o  -U", AbstractGitFlowMojo.stripThreads("-o --threads=2 -U"));
+        Assert.assertEquals("-o  -U", AbstractGitFlowMojo.stripThreads("-o --threads 2.5C -U"));
+        Assert.assertEquals("", AbstractGitFlowMojo.stripThreads("-T 4"));
+    }
+
+    @Test
+    public void testKeepOtherArguments() {
+        Assert.assertEquals("-Dtycho.mode=maven -DargLine=-T", AbstractGitFlowMojo.stripThreads(
+                "-Dtycho.mode=maven -DargLine=-T"));
+        Assert.assertEquals("-o -T", AbstractGitFlowMojo.stripThreads("-o -T"));
+        Assert.assertEquals("", AbstractGitFlowMojo.stripThreads(""));
+    }
+}
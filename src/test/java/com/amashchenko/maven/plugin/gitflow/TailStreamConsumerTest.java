@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TailStreamConsumerTest {
+    private static final String LS = System.getProperty("line.separator");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTail() {
+        TailStreamConsumer consumer = new TailStreamConsumer(new SystemStreamLog(), false, 2, null);
+        Assert.assertEquals("", consumer.getOutput());
+
+        consumer.consumeLine("one");
+        Assert.assertEquals("one" + LS, consumer.getOutput());
+
+        consumer.consumeLine("two");
+        consumer.consumeLine("three");
+        Assert.assertEquals("[... 1 lines omitted ...]" + LS + "two" + LS + "three" + LS, consumer.getOutput());
+        Assert.assertEquals(3, consumer.getLineCount());
+    }
+
+    @Test
+    public void testSpill() throws Exception {
+        File file = new File(folder.getRoot(), "target/gitflow/mvn.log");
+        TailStreamConsumer consumer = new TailStreamConsumer(new SystemStreamLog(), false, 1, file);
+        consumer.consumeLine("one");
+        consumer.consumeLine("two");
+        Assert.assertFalse(file.exists());
+
+        consumer.close();
+
+        Assert.assertEquals(Arrays.asList("one", "two"), Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSpillFailed() throws Exception {
+        File blocker = folder.newFile("target");
+        File file = new File(blocker, "gitflow/mvn.log");
+        final int[] warnings = new int[1];
+        TailStreamConsumer consumer = new TailStreamConsumer(new SystemStreamLog() {
+            @Override
+            public void warn(final CharSequence content) {
+                warnings[0]++;
+            }
+        }, false, 1, file);
+        List<String> tempFiles = tempFiles();
+        consumer.consumeLine("one");
+        Assert.assertEquals(tempFiles.size() + 1, tempFiles().size());
+
+        consumer.close();
+
+        Assert.assertEquals(1, warnings[0]);
+        Assert.assertFalse(file.exists());
+        Assert.assertEquals(tempFiles, tempFiles());
+        Assert.assertEquals("one" + LS, consumer.getOutput());
+    }
+
+    private static List<String> tempFiles() {
+        List<String> result = new ArrayList<>();
+        String[] names = new File(System.getProperty("java.io.tmpdir")).list();
+        for (String name : names == null ? new String[0] : names) {
+            if (name.startsWith("gitflow") && name.endsWith(".log")) {
+                result.add(name);
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestResultCacheTest {
+    private static final String TREE = "4b825dc642cb6eb9a060e54bf8d69288fbee4904";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testKey() {
+        final String key = TestResultCache.key(TREE + "\n", Arrays.asList("mvn", "", "clean", "test"));
+        Assert.assertTrue(key.startsWith(TREE + "-"));
+        Assert.assertEquals(TREE.length() + 17, key.length());
+
+        Assert.assertEquals(key, TestResultCache.key(TREE, Arrays.asList("mvn", "", "clean", "test")));
+        Assert.assertNotEquals(key, TestResultCache.key(TREE, Arrays.asList("mvn", "-o", "clean", "test")));
+        // arguments are not simply concatenated
+        Assert.assertNotEquals(TestResultCache.key(TREE, Arrays.asList("ab", "c")),
+                TestResultCache.key(TREE, Arrays.asList("a", "bc")));
+    }
+
+    @Test
+    public void testPut() throws Exception {
+        final File dir = new File(folder.getRoot(), "gitflow/test-cache");
+        final TestResultCache cache = new TestResultCache(dir);
+        final String key = TestResultCache.key(TREE, Arrays.asList("mvn", "clean", "test"));
+        Assert.assertFalse(cache.contains(key));
+
+        cache.put(key, "mvn clean test");
+        Assert.assertTrue(cache.contains(key));
+        Assert.assertTrue(new TestResultCache(dir).contains(key));
+        Assert.assertEquals(1, dir.list().length);
+    }
+
+    @Test
+    public void testPrune() throws Exception {
+        final File dir = folder.getRoot();
+        final TestResultCache cache = new TestResultCache(dir);
+        final String oldest = TestResultCache.key(TREE, Arrays.asList("0"));
+        cache.put(oldest, "");
+        new File(dir, oldest).setLastModified(System.currentTimeMillis() - 60000);
+
+        for (int i = 1; i <= TestResultCache.MAX_ENTRIES; i++) {
+            cache.put(TestResultCache.key(TREE, Arrays.asList(String.valueOf(i))), "");
+        }
+        Assert.assertEquals(TestResultCache.MAX_ENTRIES, dir.list().length);
+        Assert.assertFalse(cache.contains(oldest));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014-2021 Aleksandr Mashchenko.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amashchenko.maven.plugin.gitflow;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestedNoteTest {
+    private static final String NOTE = "Tested with mvn clean test -DskipTests\n"
+            + "\n"
+            + "Key: 1111\n"
+            + "\n"
+            + "Tested with mvn clean test\n"
+            + "\n"
+            + "Key: 2222\n";
+
+    @Test
+    public void testMatchTestedNote() {
+        Assert.assertEquals("Tested with mvn clean test", AbstractGitFlowMojo.matchTestedNote(NOTE, "2222", null));
+        Assert.assertNull(AbstractGitFlowMojo.matchTestedNote(NOTE, "3333", null));
+        Assert.assertNull(AbstractGitFlowMojo.matchTestedNote("", "2222", null));
+        // note without key, e.g. added manually
+        Assert.assertNull(AbstractGitFlowMojo.matchTestedNote("CI build\n", "2222", ""));
+    }
+
+    @Test
+    public void testMatchTrustedNote() {
+        Assert.assertEquals("CI build 42", AbstractGitFlowMojo.matchTestedNote(NOTE + "\nCI build 42\n", "3333",
+                "Nightly, CI build"));
+        Assert.assertNull(AbstractGitFlowMojo.matchTestedNote(NOTE + "\nLocal build\n", "3333", "CI build"));
+    }
+
+    @Test
+    public void testSkipsTests() {
+        Assert.assertTrue(AbstractGitFlowMojo.skipsTests("-o -DskipTests"));
+        Assert.assertTrue(AbstractGitFlowMojo.skipsTests("-DskipTests=true -o"));
+        Assert.assertTrue(AbstractGitFlowMojo.skipsTests("null -Dmaven.test.skip"));
+        Assert.assertTrue(AbstractGitFlowMojo.skipsTests("-Dtest=MyTest"));
+        Assert.assertFalse(AbstractGitFlowMojo.skipsTests("-DskipTests=false -Pci"));
+        Assert.assertFalse(AbstractGitFlowMojo.skipsTests("-DskipITs -Dtests.parallel=2"));
+        Assert.assertFalse(AbstractGitFlowMojo.skipsTests(null));
+    }
+}